@@ -1,4 +1,8 @@
 --
+-- Initial schema for a fresh database container, identical to Flyway's V1. Later changes live in
+-- src/main/resources/db/migration; Flyway baselines this schema as V1 and applies the rest on startup.
+--
+--
 -- PostgreSQL database dump
 --
 
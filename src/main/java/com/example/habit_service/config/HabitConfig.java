@@ -38,8 +38,11 @@ public class HabitConfig {
                                 "/swagger-resources/**",
                                 "/swagger-ui.html"
                         ).permitAll()
-                        .requestMatchers("/all-habits", "/id", "/create-habit", "/delete/{id}",
-                                "/update/{id}").hasAnyRole("USER", "ADMIN")
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+                        .requestMatchers("/all-habits", "/all-habits/page", "/all-habits/stream", "/search", "/export", "/import", "/id",
+                                "/create-habit", "/create-habits", "/delete/{id}", "/update/{id}",
+                                "/{id}/complete", "/{id}/streak", "/{id}/stats",
+                                "/leaderboard", "/leaderboard/friends").hasAnyRole("USER", "ADMIN")
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
@@ -5,9 +5,11 @@ import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
@@ -25,20 +27,32 @@ public class KafkaConsumerConfig {
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, UserDeletedEvent> kafkaListenerContainerFactory(
-            ConsumerFactory<String, UserDeletedEvent> kafkaConsumerFactory) {
-        logger.info("✅ kafkaListenerContainerFactory created");
+            ConsumerFactory<String, UserDeletedEvent> kafkaConsumerFactory,
+            @Value("${habit.kafka.listener.concurrency:3}") int concurrency,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        logger.info("✅ kafkaListenerContainerFactory created with concurrency {}, virtual threads {}",
+                concurrency, virtualThreads);
         ConcurrentKafkaListenerContainerFactory<String, UserDeletedEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(kafkaConsumerFactory);
+        factory.setConcurrency(concurrency);
+        if (virtualThreads) {
+            // Boot only does this for its own factory, ours has to opt in explicitly
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("habit-kafka-");
+            executor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(executor);
+        }
         return factory;
     }
 
     @Bean
-    public ConsumerFactory<String, UserDeletedEvent> kafkaConsumerFactory() {
+    public ConsumerFactory<String, UserDeletedEvent> kafkaConsumerFactory(
+            @Value("${habit.kafka.listener.max-poll-records:500}") int maxPollRecords) {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "kafka:9092");
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "habit-group");
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
 
         JsonDeserializer<UserDeletedEvent> deserializer = new JsonDeserializer<>(UserDeletedEvent.class);
         deserializer.addTrustedPackages("com.example.habit_service.dto", "com.example.auth_service.dto");
@@ -0,0 +1,53 @@
+package com.example.habit_service.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Latency instrumentation. Endpoints are timed by Spring MVC ({@code http.server.requests}),
+ * repository queries by Spring Data ({@code spring.data.repository.invocations}) and Kafka sends
+ * by the template ({@code spring.kafka.template}); service methods carry {@code @Timed}.
+ * Every timer listed below publishes histogram buckets, so p50/p99 per operation come from
+ * {@code histogram_quantile} and stay correct when aggregated across instances.
+ */
+@Configuration
+public class MetricsConfig {
+    static final List<String> LATENCY_TIMERS = List.of(
+            "http.server.requests",
+            "habit.service",
+            "habit.events.enqueue",
+            "spring.data.repository.invocations",
+            "spring.kafka.template",
+            "spring.kafka.listener",
+            "outbox.relay.send",
+            "user.deletion.batch"
+    );
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public MeterFilter latencyDistributions() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getType() != Meter.Type.TIMER || !LATENCY_TIMERS.contains(id.getName())) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
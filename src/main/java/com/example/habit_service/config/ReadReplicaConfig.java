@@ -0,0 +1,71 @@
+package com.example.habit_service.config;
+
+import com.example.habit_service.service.ReplicaStalenessGuard;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends read-only transactions to the replicas in {@code habit.datasource.replica.urls} and everything else
+ * to {@code spring.datasource}. The connection is only fetched at the first statement, by which time the
+ * transaction has marked it read-only, so {@code @Transactional(readOnly = true)} alone decides the target.
+ * That needs {@code spring.jpa.open-in-view} off, otherwise the first transaction of a request keeps its
+ * connection for all the others. Replicas use the primary's credentials unless their own are set.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "habit.datasource.replica", name = "enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            ReplicaStalenessGuard stalenessGuard,
+            MeterRegistry meterRegistry,
+            @Value("${habit.datasource.replica.urls}") List<String> urls,
+            @Value("${habit.datasource.replica.username:}") String username,
+            @Value("${habit.datasource.replica.password:}") String password,
+            @Value("${habit.datasource.replica.maximum-pool-size:10}") int maximumPoolSize) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("habit-replica-" + i);
+            replica.setJdbcUrl(urls.get(i).trim());
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            replica.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+            replica.setMaximumPoolSize(maximumPoolSize);
+            replica.setReadOnly(true);
+            replica.setDataSourceProperties(primaryDataSource.getDataSourceProperties());
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, stalenessGuard, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
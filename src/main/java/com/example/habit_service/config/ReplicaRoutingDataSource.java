@@ -0,0 +1,84 @@
+package com.example.habit_service.config;
+
+import com.example.habit_service.service.ReplicaStalenessGuard;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Where read-only transactions get their connection: round-robin over the replica pools, or the primary
+ * for users the {@link ReplicaStalenessGuard} has pinned after a write of their own.
+ * Owns the replica pools and closes them with the context.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    private static final String PRIMARY = "primary";
+
+    private final List<HikariDataSource> replicas;
+    private final ReplicaStalenessGuard stalenessGuard;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter replicaReads;
+    private final Counter pinnedReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas,
+                                    ReplicaStalenessGuard stalenessGuard, MeterRegistry meterRegistry) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is required");
+        }
+        this.replicas = List.copyOf(replicas);
+        this.stalenessGuard = stalenessGuard;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setLenientFallback(false);
+
+        this.replicaReads = Counter.builder("habit.datasource.reads")
+                .description("Read-only connections handed out, by where they were routed")
+                .tag("target", "replica")
+                .register(meterRegistry);
+        this.pinnedReads = Counter.builder("habit.datasource.reads")
+                .description("Read-only connections handed out, by where they were routed")
+                .tag("target", "primary")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (stalenessGuard.isCurrentUserPinned()) {
+            pinnedReads.increment();
+            return PRIMARY;
+        }
+        replicaReads.increment();
+        return Math.floorMod(next.getAndIncrement(), replicas.size());
+    }
+
+    // Several pools sit behind this one, so it must not pass for any of them when pool metrics are bound
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("ReplicaRoutingDataSource cannot be unwrapped to " + iface.getName());
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+    }
+}
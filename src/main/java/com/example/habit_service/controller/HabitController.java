@@ -1,15 +1,29 @@
 package com.example.habit_service.controller;
 
+import com.example.habit_service.dto.HabitBulkRequestDTO;
+import com.example.habit_service.dto.HabitImportResultDTO;
+import com.example.habit_service.dto.HabitPageDTO;
 import com.example.habit_service.dto.HabitRequestDTO;
 import com.example.habit_service.dto.HabitResponseDTO;
+import com.example.habit_service.dto.HabitSearchPageDTO;
+import com.example.habit_service.dto.HabitStatsDTO;
+import com.example.habit_service.dto.HabitStreakDTO;
 import com.example.habit_service.dto.HabitUpdateDTO;
+import com.example.habit_service.dto.LeaderboardEntryDTO;
 import com.example.habit_service.dto.message.MessageResponseDTO;
 import com.example.habit_service.exception.ErrorResponseDTO;
 import com.example.habit_service.exception.ErrorUtil;
 import com.example.habit_service.security.PersonDetails;
-import com.example.habit_service.service.HabitEventPublisher;
+import com.example.habit_service.service.HabitImportService;
 import com.example.habit_service.service.HabitService;
+import com.example.habit_service.service.HabitStatsService;
+import com.example.habit_service.service.StreakLeaderboard;
+import com.example.habit_service.util.HabitETags;
+import com.example.habit_service.util.HabitImportReader;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
@@ -17,33 +31,58 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @Tag(name = "Habit", description = "Endpoints for habit management.")
 @RestController
 @RequestMapping("/")
 public class HabitController {
-    private final HabitEventPublisher publisher;
     private final HabitService habitService;
+    private final HabitImportService habitImportService;
+    private final HabitStatsService habitStatsService;
+    private final StreakLeaderboard streakLeaderboard;
+    private final ObjectMapper objectMapper;
     private final Logger logger = LoggerFactory.getLogger(HabitController.class);
 
-    public HabitController(HabitEventPublisher publisher, HabitService habitService) {
-        this.publisher = publisher;
+    public HabitController(HabitService habitService, HabitImportService habitImportService,
+                           HabitStatsService habitStatsService, StreakLeaderboard streakLeaderboard,
+                           ObjectMapper objectMapper) {
         this.habitService = habitService;
+        this.habitImportService = habitImportService;
+        this.habitStatsService = habitStatsService;
+        this.streakLeaderboard = streakLeaderboard;
+        this.objectMapper = objectMapper;
     }
 
-    @Operation(summary = "Get all habits", description = "Returns all habits for a specific person.",
+    @Operation(summary = "Get all habits", description = "Returns all habits for a specific person. " +
+            "The response carries an ETag; send it back in If-None-Match to get 304 while nothing has changed.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "List of habits",
                             content = @Content(array = @ArraySchema(schema = @Schema(implementation = HabitResponseDTO.class)))),
+                    @ApiResponse(responseCode = "304", description = "Habits have not changed since the given ETag."),
                     @ApiResponse(responseCode = "400", description = "Missing required parameters.",
                             content = @Content(
                                     mediaType = "application/json",
@@ -73,20 +112,136 @@ public class HabitController {
                                     )))
             })
     @GetMapping("/all-habits")
-    public ResponseEntity<List<HabitResponseDTO>> getAllHabits(@AuthenticationPrincipal PersonDetails user) {
-        logger.info("Authenticated user: {}", (user != null ? user.getUsername() : "null"));
+    public ResponseEntity<List<HabitResponseDTO>> getAllHabits(@AuthenticationPrincipal PersonDetails user,
+                                                               WebRequest request) {
         Long personId = user.getId();
-        logger.info("User id: {}", personId);
 
-        List<HabitResponseDTO> habits = habitService.getAllHabitsByPersonId(personId);
-        logger.info("Habits successfully received");
+        // Decided on the version alone, so a 304 neither loads habits nor runs Jackson
+        long version = habitService.getHabitsVersion(personId);
+        if (request.checkNotModified(HabitETags.forHabits(personId, version))) {
+            return null;
+        }
+
+        List<HabitResponseDTO> habits = habitService.getAllHabitsByPersonId(personId, version);
+        logger.info("Returned {} habits of user {} at version {}", habits.size(), personId, version);
         return ResponseEntity.ok(habits);
     }
 
-    @Operation(summary = "Get a habit", description = "Returns a habit by its ID.",
+    @Operation(summary = "Get a page of habits", description = "Returns habits of the current user ordered by ID, " +
+            "starting after the given cursor.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Page of habits",
+                            content = @Content(schema = @Schema(implementation = HabitPageDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid cursor or limit.",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    examples = @ExampleObject(
+                                            name = "InvalidCursor",
+                                            summary = "Example of 400 Invalid Cursor",
+                                            value = "{\n" +
+                                                    "  \"error\": \"Invalid cursor\"\n" +
+                                                    "}"
+                                    )))
+            })
+    @GetMapping("/all-habits/page")
+    public ResponseEntity<HabitPageDTO> getHabitPage(@AuthenticationPrincipal PersonDetails user,
+                                                     @Parameter(description = "Cursor returned as nextCursor by the previous page")
+                                                     @RequestParam(required = false) String after,
+                                                     @Parameter(description = "Page size, from 1 to " + HabitService.MAX_PAGE_SIZE)
+                                                     @RequestParam(defaultValue = "" + HabitService.DEFAULT_PAGE_SIZE) int limit) {
+        return ResponseEntity.ok(habitService.getHabitPage(user.getId(), after, limit));
+    }
+
+    @Operation(summary = "Search habits", description = "Returns habits of the current user whose name or description " +
+            "contains the query, case-insensitively. Best matches come first: the whole name, then names starting " +
+            "with the query, names with a word starting with it, names containing it, and descriptions containing it.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Page of matching habits",
+                            content = @Content(schema = @Schema(implementation = HabitSearchPageDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid query, cursor or limit.",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    examples = @ExampleObject(
+                                            name = "InvalidQuery",
+                                            summary = "Example of 400 Invalid Query",
+                                            value = "{\n" +
+                                                    "  \"error\": \"Query must be between 1 and 100 characters\"\n" +
+                                                    "}"
+                                    )))
+            })
+    @GetMapping("/search")
+    public ResponseEntity<HabitSearchPageDTO> searchHabits(@AuthenticationPrincipal PersonDetails user,
+                                                           @Parameter(description = "Text to look for, up to "
+                                                                   + HabitService.MAX_QUERY_LENGTH + " characters", example = "wat")
+                                                           @RequestParam String q,
+                                                           @Parameter(description = "Cursor returned as nextCursor by the previous page")
+                                                           @RequestParam(required = false) String after,
+                                                           @Parameter(description = "Page size, from 1 to " + HabitService.MAX_PAGE_SIZE)
+                                                           @RequestParam(defaultValue = "" + HabitService.DEFAULT_SEARCH_LIMIT) int limit) {
+        return ResponseEntity.ok(habitService.searchHabits(user.getId(), q, after, limit));
+    }
+
+    @Operation(summary = "Stream all habits", description = "Writes all habits of the current user as a JSON array " +
+            "while they are read from the database, without buffering the whole list.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "List of habits",
+                            content = @Content(array = @ArraySchema(schema = @Schema(implementation = HabitResponseDTO.class))))
+            })
+    @GetMapping("/all-habits/stream")
+    public void streamAllHabits(@AuthenticationPrincipal PersonDetails user, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartArray();
+            habitService.streamAllHabitsByPersonId(user.getId(), habit -> {
+                try {
+                    generator.writeObject(habit);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+        }
+    }
+
+    @Operation(summary = "Export all data", description = "Streams all habits of the current user, followed by their " +
+            "completion history, as NDJSON: one {\"type\": \"habit\", \"habit\": {...}} or " +
+            "{\"type\": \"completion\", \"completion\": {...}} object per line. " +
+            "Gzip-encoded when the request accepts gzip.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Habits and completions, one JSON object per line",
+                            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE))
+            })
+    @GetMapping("/export")
+    public void exportData(@AuthenticationPrincipal PersonDetails user,
+                           @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                           HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("habits-export.ndjson").build().toString());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        OutputStream body = response.getOutputStream();
+        if (acceptsGzip(acceptEncoding)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = new GZIPOutputStream(body);
+        }
+
+        // Closing the generator closes the stream below it, which also writes the gzip trailer
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(body)) {
+            generator.setRootValueSeparator(null);
+            habitService.exportPersonData(user.getId(),
+                    habit -> writeExportLine(generator, "habit", habit),
+                    completion -> writeExportLine(generator, "completion", completion));
+        }
+    }
+
+    @Operation(summary = "Get a habit", description = "Returns a habit by its ID. " +
+            "The response carries an ETag; send it back in If-None-Match to get 304 while the habit is unchanged.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Habit found",
                             content = @Content(schema = @Schema(implementation = HabitResponseDTO.class))),
+                    @ApiResponse(responseCode = "304", description = "Habit has not changed since the given ETag."),
                     @ApiResponse(responseCode = "404", description = "Habit not found.",
                             content = @Content(
                                     mediaType = "application/json",
@@ -116,8 +271,13 @@ public class HabitController {
                                     )))
             })
     @GetMapping("/{id}")
-    public ResponseEntity<HabitResponseDTO> getHabit(@PathVariable Long id) {
-        return ResponseEntity.ok(habitService.getHabitById(id));
+    public ResponseEntity<HabitResponseDTO> getHabit(@PathVariable Long id, WebRequest request) {
+        Optional<Long> version = habitService.getHabitVersion(id);
+        // The ETag is set by checkNotModified from the version read up front; the body is never older than it
+        if (version.isPresent() && request.checkNotModified(HabitETags.forHabit(id, version.get()))) {
+            return null;
+        }
+        return ResponseEntity.ok(habitService.getHabitById(id, version.orElse(0L)));
     }
 
     @Operation(summary = "Create a habit.", description = "Adds a new habit.",
@@ -171,6 +331,84 @@ public class HabitController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Create several habits.", description = "Adds up to 500 habits in one request.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(
+                                    name = "CreateHabitsRequest",
+                                    summary = "Example bulk habit creation request",
+                                    value = "{\n" +
+                                            "  \"habits\": [\n" +
+                                            "    { \"name\": \"Drink water\", \"description\": \"Drink 2L of water every day\", \"active\": true },\n" +
+                                            "    { \"name\": \"Read\", \"active\": true }\n" +
+                                            "  ]\n" +
+                                            "}"
+                            )
+                    )
+            ),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Habits successfully created.",
+                            content = @Content(array = @ArraySchema(schema = @Schema(implementation = HabitResponseDTO.class)))),
+                    @ApiResponse(responseCode = "400", description = "Validation failed.",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    examples = @ExampleObject(
+                                            name = "ValidationError",
+                                            summary = "Example of 400 Validation Error",
+                                            value = "{\n" +
+                                                    "  \"error\": \"habits[1].name - Product name must be between 2 and 255 characters;\"\n" +
+                                                    "}"
+                                    ))),
+                    @ApiResponse(responseCode = "500", description = "Internal server error.",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDTO.class)))
+            }
+    )
+    @PostMapping("/create-habits")
+    public ResponseEntity<List<HabitResponseDTO>> newHabits(@org.springframework.web.bind.annotation.RequestBody
+                                                            @Valid HabitBulkRequestDTO dto, BindingResult bindingResult,
+                                                            @AuthenticationPrincipal PersonDetails user) {
+        if (bindingResult.hasErrors())
+            ErrorUtil.throwIfHasErrors(bindingResult);
+
+        return ResponseEntity.ok(habitService.createHabits(user.getId(), dto));
+    }
+
+    @Operation(summary = "Import habits", description = "Creates habits from a JSON-lines or CSV upload while it is " +
+            "being received. JSON lines hold one habit object each; CSV starts with a header naming the " +
+            "name, description and active columns. Every row is validated like a create-habit request, " +
+            "rejected rows are reported by line number and do not stop the import.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    required = true,
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, examples = @ExampleObject(
+                                    name = "ImportJsonLines",
+                                    value = "{\"name\": \"Drink water\", \"description\": \"2L a day\", \"active\": true}\n" +
+                                            "{\"name\": \"Read\", \"active\": false}\n")),
+                            @Content(mediaType = "text/csv", examples = @ExampleObject(
+                                    name = "ImportCsv",
+                                    value = "name,description,active\n" +
+                                            "Drink water,2L a day,true\n" +
+                                            "\"Read, then sleep\",,false\n"))
+                    }),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Import finished, see the counts and per-row errors.",
+                            content = @Content(schema = @Schema(implementation = HabitImportResultDTO.class))),
+                    @ApiResponse(responseCode = "415", description = "Upload is neither JSON lines nor CSV.")
+            })
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<HabitImportResultDTO> importHabits(@AuthenticationPrincipal PersonDetails user,
+                                                             @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                             InputStream body) throws IOException {
+        HabitImportReader.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? HabitImportReader.Format.NDJSON : HabitImportReader.Format.CSV;
+        InputStreamReader upload = new InputStreamReader(body,
+                contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8);
+        return ResponseEntity.ok(habitImportService.importHabits(user.getId(), upload, format));
+    }
+
     @Operation(summary = "Delete a habit", description = "Deletes a habit by ID.",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Habit successfully deleted.",
@@ -246,13 +484,28 @@ public class HabitController {
     @DeleteMapping("delete/{id}")
     public ResponseEntity<MessageResponseDTO> deleteHabit(@PathVariable Long id) {
         habitService.deleteHabit(id);
-        publisher.habitDeleted(id);
         return ResponseEntity.ok(new MessageResponseDTO("Habit with id " + id + " successfully removed."));
     }
 
-    @Operation(summary = "Update a habit", description = "Updates a habit partially by ID.")
+    @Operation(summary = "Update a habit", description = "Updates a habit partially by ID. " +
+            "Send the habit's ETag in If-Match to have the update rejected if someone else changed the habit first; " +
+            "with a list of ETags, any one of them may match.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Habit successfully updated."),
+            @ApiResponse(responseCode = "412", description = "The habit no longer matches the If-Match ETag.",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(
+                                    name = "PreconditionFailed",
+                                    summary = "Example of 412 Precondition Failed",
+                                    value = """
+                                            {
+                                              "error": "Habit with id 5 is at version 4, not 3"
+                                            }
+                                            """
+                            )
+                    )
+            ),
             @ApiResponse(responseCode = "400", description = "Validation failed.",
                     content = @Content(
                             mediaType = "application/json",
@@ -317,11 +570,155 @@ public class HabitController {
     @PatchMapping("update/{id}")
     public ResponseEntity<HabitResponseDTO> updateHabit(@PathVariable Long id,
                                                         @org.springframework.web.bind.annotation.RequestBody
-                                                        @Valid HabitUpdateDTO dto, BindingResult bindingResult) {
+                                                        @Valid HabitUpdateDTO dto, BindingResult bindingResult,
+                                                        @Parameter(description = "ETag, or list of ETags, of the habit the change is based on")
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                        String ifMatch) {
         if (bindingResult.hasErrors())
             ErrorUtil.throwIfHasErrors(bindingResult);
 
-        publisher.habitUpdated(id);
-        return ResponseEntity.ok(habitService.updateHabit(id, dto));
+        HabitResponseDTO updated = habitService.updateHabitIfMatches(id, dto, HabitETags.expectedVersions(id, ifMatch));
+        return ResponseEntity.ok()
+                .eTag(HabitETags.forHabit(id, updated.getVersion()))
+                .body(updated);
+    }
+
+    @Operation(summary = "Complete a habit", description = "Records today's check-in for the habit and returns the updated streak.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Check-in recorded.",
+                            content = @Content(schema = @Schema(implementation = HabitStreakDTO.class))),
+                    @ApiResponse(responseCode = "403", description = "Forbidden.",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDTO.class))),
+                    @ApiResponse(responseCode = "409", description = "Habit is already completed today.",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    examples = @ExampleObject(
+                                            name = "AlreadyCompleted",
+                                            summary = "Example of 409 Conflict",
+                                            value = "{\n" +
+                                                    "  \"error\": \"Habit with id 5 is already completed today\"\n" +
+                                                    "}"
+                                    )))
+            })
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<HabitStreakDTO> completeHabit(@PathVariable Long id) {
+        return ResponseEntity.ok(habitService.completeHabit(id));
+    }
+
+    @Operation(summary = "Get a habit streak", description = "Returns the current and longest streak of the habit.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Streak found.",
+                            content = @Content(schema = @Schema(implementation = HabitStreakDTO.class))),
+                    @ApiResponse(responseCode = "403", description = "Forbidden.",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDTO.class)))
+            })
+    @GetMapping("/{id}/streak")
+    public ResponseEntity<HabitStreakDTO> getStreak(@PathVariable Long id) {
+        return ResponseEntity.ok(habitService.getStreak(id));
+    }
+
+    @Operation(summary = "Get habit statistics", description = "Returns how often the habit was completed in the range, " +
+            "in total and per day, week or month. Only days on which the habit existed, up to today, are counted.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Statistics computed.",
+                            content = @Content(schema = @Schema(implementation = HabitStatsDTO.class))),
+                    @ApiResponse(responseCode = "400", description = "Missing or invalid range or granularity.",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    examples = @ExampleObject(
+                                            name = "UnknownGranularity",
+                                            summary = "Example of 400 Bad Request",
+                                            value = "{\n" +
+                                                    "  \"error\": \"Granularity must be one of [DAY, WEEK, MONTH]\"\n" +
+                                                    "}"
+                                    ))),
+                    @ApiResponse(responseCode = "403", description = "Forbidden.",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDTO.class)))
+            })
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<HabitStatsDTO> getStats(
+            @PathVariable Long id,
+            @Parameter(description = "First day of the range, inclusive", example = "2025-04-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day of the range, inclusive", example = "2025-04-30")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "day, week or month", example = "week")
+            @RequestParam(defaultValue = "day") String granularity) {
+        return ResponseEntity.ok(habitStatsService.getStats(id, from, to, granularity));
+    }
+
+    @Operation(summary = "Get the streak leaderboard", description = "Returns the habits with the longest current " +
+            "streaks across all users, longest first.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Leaderboard",
+                            content = @Content(array = @ArraySchema(schema = @Schema(implementation = LeaderboardEntryDTO.class)))),
+                    @ApiResponse(responseCode = "400", description = "Invalid limit.",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    examples = @ExampleObject(
+                                            name = "InvalidLimit",
+                                            summary = "Example of 400 Bad Request",
+                                            value = "{\n" +
+                                                    "  \"error\": \"Limit must be between 1 and 100\"\n" +
+                                                    "}"
+                                    )))
+            })
+    @GetMapping("/leaderboard")
+    public ResponseEntity<List<LeaderboardEntryDTO>> getLeaderboard(
+            @Parameter(description = "Number of entries, from 1 to habit.leaderboard.size")
+            @RequestParam(defaultValue = "" + StreakLeaderboard.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(streakLeaderboard.getGlobal(limit));
+    }
+
+    @Operation(summary = "Get the streak leaderboard among friends", description = "Returns the habits with the " +
+            "longest current streaks among the current user and the given users, longest first. Friendships are not " +
+            "checked, so the given users' habits only appear if they are on the global leaderboard.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Leaderboard",
+                            content = @Content(array = @ArraySchema(schema = @Schema(implementation = LeaderboardEntryDTO.class)))),
+                    @ApiResponse(responseCode = "400", description = "Invalid limit or too many friends.",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ErrorResponseDTO.class)))
+            })
+    @GetMapping("/leaderboard/friends")
+    public ResponseEntity<List<LeaderboardEntryDTO>> getFriendsLeaderboard(
+            @AuthenticationPrincipal PersonDetails user,
+            @Parameter(description = "User IDs of the friends, at most " + StreakLeaderboard.MAX_FRIENDS, example = "45,46")
+            @RequestParam(defaultValue = "") List<Long> friendIds,
+            @Parameter(description = "Number of entries, from 1 to habit.leaderboard.size")
+            @RequestParam(defaultValue = "" + StreakLeaderboard.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(streakLeaderboard.getFriends(user.getId(), friendIds, limit));
+    }
+
+    private static void writeExportLine(JsonGenerator generator, String type, Object value) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("type", type);
+            generator.writeObjectField(type, value);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
     }
 }
@@ -0,0 +1,28 @@
+package com.example.habit_service.dto;
+
+import com.example.habit_service.util.SwaggerConstants;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class HabitBulkRequestDTO {
+    public static final int MAX_HABITS = 500;
+
+    @Schema(description = SwaggerConstants.HABITS_DESC)
+    @NotEmpty(message = "The list of habits should not be empty")
+    @Size(max = MAX_HABITS, message = "No more than 500 habits can be created at once")
+    private List<@Valid HabitRequestDTO> habits;
+
+    public HabitBulkRequestDTO() {}
+
+    public List<HabitRequestDTO> getHabits() {
+        return habits;
+    }
+
+    public void setHabits(List<HabitRequestDTO> habits) {
+        this.habits = habits;
+    }
+}
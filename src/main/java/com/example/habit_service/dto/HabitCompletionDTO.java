@@ -0,0 +1,38 @@
+package com.example.habit_service.dto;
+
+import com.example.habit_service.util.SwaggerConstants;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+
+public class HabitCompletionDTO {
+    @Schema(description = SwaggerConstants.ID_DESC, example = SwaggerConstants.ID_EXAMPLE)
+    private Long habitId;
+
+    @Schema(description = SwaggerConstants.COMPLETED_ON_DESC, example = SwaggerConstants.COMPLETED_ON_EXAMPLE)
+    private LocalDate completedOn;
+
+    public HabitCompletionDTO() {
+    }
+
+    public HabitCompletionDTO(Long habitId, LocalDate completedOn) {
+        this.habitId = habitId;
+        this.completedOn = completedOn;
+    }
+
+    public Long getHabitId() {
+        return habitId;
+    }
+
+    public void setHabitId(Long habitId) {
+        this.habitId = habitId;
+    }
+
+    public LocalDate getCompletedOn() {
+        return completedOn;
+    }
+
+    public void setCompletedOn(LocalDate completedOn) {
+        this.completedOn = completedOn;
+    }
+}
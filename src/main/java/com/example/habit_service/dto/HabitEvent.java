@@ -0,0 +1,56 @@
+package com.example.habit_service.dto;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Event published to the habit-events topic. Encoded on the wire by {@link com.example.habit_service.util.HabitEventCodec}.
+ */
+public class HabitEvent {
+    private final HabitEventType type;
+    private final long habitId;
+    private final long personId;
+    private final Instant occurredAt;
+
+    public HabitEvent(HabitEventType type, long habitId, long personId, Instant occurredAt) {
+        this.type = Objects.requireNonNull(type);
+        this.habitId = habitId;
+        this.personId = personId;
+        this.occurredAt = Objects.requireNonNull(occurredAt);
+    }
+
+    public HabitEventType getType() {
+        return type;
+    }
+
+    public long getHabitId() {
+        return habitId;
+    }
+
+    public long getPersonId() {
+        return personId;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HabitEvent that)) return false;
+        return habitId == that.habitId && personId == that.personId
+                && type == that.type && occurredAt.equals(that.occurredAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, habitId, personId, occurredAt);
+    }
+
+    @Override
+    public String toString() {
+        return "HabitEvent{type=" + type + ", habitId=" + habitId + ", personId=" + personId
+                + ", occurredAt=" + occurredAt + '}';
+    }
+}
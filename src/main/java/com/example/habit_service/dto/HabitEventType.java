@@ -0,0 +1,30 @@
+package com.example.habit_service.dto;
+
+/**
+ * Kind of change carried by a {@link HabitEvent}. Codes are part of the wire format and must never be reused.
+ */
+public enum HabitEventType {
+    COMPLETED((byte) 1),
+    UPDATED((byte) 2),
+    DELETED((byte) 3),
+    REMINDER_DUE((byte) 4);
+
+    private final byte code;
+
+    HabitEventType(byte code) {
+        this.code = code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public static HabitEventType fromCode(byte code) {
+        for (HabitEventType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown habit event type: " + code);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.habit_service.dto;
+
+import com.example.habit_service.util.SwaggerConstants;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public class HabitImportErrorDTO {
+    @Schema(description = SwaggerConstants.LINE_DESC, example = SwaggerConstants.LINE_EXAMPLE)
+    private long line;
+
+    @Schema(description = SwaggerConstants.IMPORT_ERROR_MESSAGE_DESC, example = SwaggerConstants.IMPORT_ERROR_MESSAGE_EXAMPLE)
+    private String message;
+
+    public HabitImportErrorDTO() {
+    }
+
+    public HabitImportErrorDTO(long line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
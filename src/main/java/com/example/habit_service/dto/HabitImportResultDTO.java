@@ -0,0 +1,50 @@
+package com.example.habit_service.dto;
+
+import com.example.habit_service.util.SwaggerConstants;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public class HabitImportResultDTO {
+    @Schema(description = SwaggerConstants.IMPORTED_DESC, example = SwaggerConstants.IMPORTED_EXAMPLE)
+    private int imported;
+
+    @Schema(description = SwaggerConstants.FAILED_DESC, example = SwaggerConstants.FAILED_EXAMPLE)
+    private int failed;
+
+    @Schema(description = SwaggerConstants.IMPORT_ERRORS_DESC)
+    private List<HabitImportErrorDTO> errors;
+
+    public HabitImportResultDTO() {
+    }
+
+    public HabitImportResultDTO(int imported, int failed, List<HabitImportErrorDTO> errors) {
+        this.imported = imported;
+        this.failed = failed;
+        this.errors = errors;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public void setImported(int imported) {
+        this.imported = imported;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<HabitImportErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<HabitImportErrorDTO> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.habit_service.dto;
+
+import java.time.Instant;
+import java.time.LocalTime;
+
+/**
+ * A reminder loaded into the scheduler's timer wheel: when it is due and what the next one is computed from.
+ */
+public class HabitReminderDTO {
+    private final long habitId;
+    private final long personId;
+    private final Instant dueAt;
+    private final LocalTime reminderTime;
+    private final String reminderZone;
+
+    public HabitReminderDTO(long habitId, long personId, Instant dueAt, LocalTime reminderTime, String reminderZone) {
+        this.habitId = habitId;
+        this.personId = personId;
+        this.dueAt = dueAt;
+        this.reminderTime = reminderTime;
+        this.reminderZone = reminderZone;
+    }
+
+    public long getHabitId() {
+        return habitId;
+    }
+
+    public long getPersonId() {
+        return personId;
+    }
+
+    public Instant getDueAt() {
+        return dueAt;
+    }
+
+    public LocalTime getReminderTime() {
+        return reminderTime;
+    }
+
+    public String getReminderZone() {
+        return reminderZone;
+    }
+}
@@ -1,13 +1,19 @@
 package com.example.habit_service.dto;
 
 import com.example.habit_service.util.SwaggerConstants;
+import com.example.habit_service.util.ReminderTimes;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
+import java.time.LocalTime;
+
 public class HabitRequestDTO {
     @Schema(description = SwaggerConstants.NAME_DESC, example = SwaggerConstants.NAME_EXAMPLE)
     @NotNull(message = "The name of the habit should not be empty")
@@ -22,6 +28,14 @@ public class HabitRequestDTO {
     @NotNull(message = "Active status can't be empty")
     private Boolean active;
 
+    @Schema(description = SwaggerConstants.REMINDER_TIME_DESC, example = SwaggerConstants.REMINDER_TIME_EXAMPLE, type = "string")
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime reminderTime;
+
+    @Schema(description = SwaggerConstants.REMINDER_ZONE_DESC, example = SwaggerConstants.REMINDER_ZONE_EXAMPLE)
+    @Size(max = 64, message = "Reminder zone must be at most 64 characters")
+    private String reminderZone;
+
     public HabitRequestDTO() {}
 
     public String getName() {
@@ -47,4 +61,27 @@ public class HabitRequestDTO {
     public void setActive(Boolean active) {
         this.active = active;
     }
+
+    public LocalTime getReminderTime() {
+        return reminderTime;
+    }
+
+    public void setReminderTime(LocalTime reminderTime) {
+        this.reminderTime = reminderTime;
+    }
+
+    public String getReminderZone() {
+        return reminderZone;
+    }
+
+    public void setReminderZone(String reminderZone) {
+        this.reminderZone = reminderZone;
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "Reminder time and zone must be given together, as HH:mm and a valid time zone")
+    public boolean isReminderValid() {
+        return reminderTime == null ? reminderZone == null
+                : reminderZone != null && ReminderTimes.isValidZone(reminderZone);
+    }
 }
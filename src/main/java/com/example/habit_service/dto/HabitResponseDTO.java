@@ -1,9 +1,11 @@
 package com.example.habit_service.dto;
 
 import com.example.habit_service.util.SwaggerConstants;
+import com.fasterxml.jackson.annotation.JsonFormat;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 
 public class HabitResponseDTO {
     @Schema(description = SwaggerConstants.ID_DESC, example = SwaggerConstants.ID_EXAMPLE)
@@ -24,9 +26,33 @@ public class HabitResponseDTO {
     @Schema(description = SwaggerConstants.PERSON_ID_DESC, example = SwaggerConstants.PERSON_ID_EXAMPLE)
     private Long personId;
 
+    @Schema(description = SwaggerConstants.REMINDER_TIME_DESC, example = SwaggerConstants.REMINDER_TIME_EXAMPLE, type = "string")
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime reminderTime;
+
+    @Schema(description = SwaggerConstants.REMINDER_ZONE_DESC, example = SwaggerConstants.REMINDER_ZONE_EXAMPLE)
+    private String reminderZone;
+
+    @Schema(description = SwaggerConstants.VERSION_DESC, example = SwaggerConstants.VERSION_EXAMPLE)
+    private long version;
+
     public HabitResponseDTO() {
     }
 
+    // Used by JPQL constructor expressions, which read the columns straight into the DTO
+    public HabitResponseDTO(Long id, String name, String description, LocalDate createdAt, boolean active,
+                            Long personId, LocalTime reminderTime, String reminderZone, long version) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.createdAt = createdAt;
+        this.active = active;
+        this.personId = personId;
+        this.reminderTime = reminderTime;
+        this.reminderZone = reminderZone;
+        this.version = version;
+    }
+
     public Long getId() {
         return id;
     }
@@ -74,4 +100,28 @@ public class HabitResponseDTO {
     public void setPersonId(Long personId) {
         this.personId = personId;
     }
+
+    public LocalTime getReminderTime() {
+        return reminderTime;
+    }
+
+    public void setReminderTime(LocalTime reminderTime) {
+        this.reminderTime = reminderTime;
+    }
+
+    public String getReminderZone() {
+        return reminderZone;
+    }
+
+    public void setReminderZone(String reminderZone) {
+        this.reminderZone = reminderZone;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
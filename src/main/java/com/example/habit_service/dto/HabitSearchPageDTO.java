@@ -0,0 +1,38 @@
+package com.example.habit_service.dto;
+
+import com.example.habit_service.util.SwaggerConstants;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+public class HabitSearchPageDTO {
+    @Schema(description = SwaggerConstants.SEARCH_ITEMS_DESC)
+    private List<HabitSearchResultDTO> items;
+
+    @Schema(description = SwaggerConstants.NEXT_CURSOR_DESC, example = SwaggerConstants.NEXT_CURSOR_EXAMPLE)
+    private String nextCursor;
+
+    public HabitSearchPageDTO() {
+    }
+
+    public HabitSearchPageDTO(List<HabitSearchResultDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<HabitSearchResultDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<HabitSearchResultDTO> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
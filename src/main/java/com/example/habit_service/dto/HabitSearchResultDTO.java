@@ -0,0 +1,30 @@
+package com.example.habit_service.dto;
+
+import com.example.habit_service.util.SwaggerConstants;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public class HabitSearchResultDTO extends HabitResponseDTO {
+    @Schema(description = SwaggerConstants.MATCH_DESC, example = SwaggerConstants.MATCH_EXAMPLE)
+    private int match;
+
+    public HabitSearchResultDTO() {
+    }
+
+    // Used by the search query's constructor expression, which computes the match alongside the columns
+    public HabitSearchResultDTO(Long id, String name, String description, LocalDate createdAt, boolean active,
+                                Long personId, LocalTime reminderTime, String reminderZone, long version, int match) {
+        super(id, name, description, createdAt, active, personId, reminderTime, reminderZone, version);
+        this.match = match;
+    }
+
+    public int getMatch() {
+        return match;
+    }
+
+    public void setMatch(int match) {
+        this.match = match;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.habit_service.dto;
+
+import com.example.habit_service.util.SwaggerConstants;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class HabitStatsDTO {
+    @Schema(description = SwaggerConstants.ID_DESC, example = SwaggerConstants.ID_EXAMPLE)
+    private Long habitId;
+
+    @Schema(description = SwaggerConstants.STATS_FROM_DESC, example = SwaggerConstants.STATS_FROM_EXAMPLE)
+    private LocalDate from;
+
+    @Schema(description = SwaggerConstants.STATS_TO_DESC, example = SwaggerConstants.STATS_TO_EXAMPLE)
+    private LocalDate to;
+
+    @Schema(description = SwaggerConstants.GRANULARITY_DESC, example = SwaggerConstants.GRANULARITY_EXAMPLE)
+    private StatsGranularity granularity;
+
+    @Schema(description = SwaggerConstants.COMPLETIONS_DESC, example = SwaggerConstants.COMPLETIONS_EXAMPLE)
+    private int completions;
+
+    @Schema(description = SwaggerConstants.DAYS_DESC, example = SwaggerConstants.DAYS_EXAMPLE)
+    private int days;
+
+    @Schema(description = SwaggerConstants.COMPLETION_RATE_DESC, example = SwaggerConstants.COMPLETION_RATE_EXAMPLE)
+    private double completionRate;
+
+    @Schema(description = SwaggerConstants.PERIODS_DESC)
+    private List<HabitStatsPeriodDTO> periods;
+
+    public HabitStatsDTO() {
+    }
+
+    public HabitStatsDTO(Long habitId, LocalDate from, LocalDate to, StatsGranularity granularity,
+                         List<HabitStatsPeriodDTO> periods) {
+        this.habitId = habitId;
+        this.from = from;
+        this.to = to;
+        this.granularity = granularity;
+        this.periods = periods;
+        this.completions = periods.stream().mapToInt(HabitStatsPeriodDTO::getCompletions).sum();
+        this.days = periods.stream().mapToInt(HabitStatsPeriodDTO::getDays).sum();
+        this.completionRate = days == 0 ? 0 : (double) completions / days;
+    }
+
+    public Long getHabitId() {
+        return habitId;
+    }
+
+    public void setHabitId(Long habitId) {
+        this.habitId = habitId;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public StatsGranularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(StatsGranularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public int getCompletions() {
+        return completions;
+    }
+
+    public void setCompletions(int completions) {
+        this.completions = completions;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public void setDays(int days) {
+        this.days = days;
+    }
+
+    public double getCompletionRate() {
+        return completionRate;
+    }
+
+    public void setCompletionRate(double completionRate) {
+        this.completionRate = completionRate;
+    }
+
+    public List<HabitStatsPeriodDTO> getPeriods() {
+        return periods;
+    }
+
+    public void setPeriods(List<HabitStatsPeriodDTO> periods) {
+        this.periods = periods;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.habit_service.dto;
+
+import com.example.habit_service.util.SwaggerConstants;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+
+public class HabitStatsPeriodDTO {
+    @Schema(description = SwaggerConstants.PERIOD_START_DESC, example = SwaggerConstants.PERIOD_START_EXAMPLE)
+    private LocalDate periodStart;
+
+    @Schema(description = SwaggerConstants.PERIOD_END_DESC, example = SwaggerConstants.PERIOD_END_EXAMPLE)
+    private LocalDate periodEnd;
+
+    @Schema(description = SwaggerConstants.COMPLETIONS_DESC, example = SwaggerConstants.COMPLETIONS_EXAMPLE)
+    private int completions;
+
+    @Schema(description = SwaggerConstants.DAYS_DESC, example = SwaggerConstants.DAYS_EXAMPLE)
+    private int days;
+
+    @Schema(description = SwaggerConstants.COMPLETION_RATE_DESC, example = SwaggerConstants.COMPLETION_RATE_EXAMPLE)
+    private double completionRate;
+
+    public HabitStatsPeriodDTO() {
+    }
+
+    public HabitStatsPeriodDTO(LocalDate periodStart, LocalDate periodEnd, int completions, int days) {
+        this.periodStart = periodStart;
+        this.periodEnd = periodEnd;
+        this.completions = completions;
+        this.days = days;
+        this.completionRate = days == 0 ? 0 : (double) completions / days;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public void setPeriodStart(LocalDate periodStart) {
+        this.periodStart = periodStart;
+    }
+
+    public LocalDate getPeriodEnd() {
+        return periodEnd;
+    }
+
+    public void setPeriodEnd(LocalDate periodEnd) {
+        this.periodEnd = periodEnd;
+    }
+
+    public int getCompletions() {
+        return completions;
+    }
+
+    public void setCompletions(int completions) {
+        this.completions = completions;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public void setDays(int days) {
+        this.days = days;
+    }
+
+    public double getCompletionRate() {
+        return completionRate;
+    }
+
+    public void setCompletionRate(double completionRate) {
+        this.completionRate = completionRate;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.habit_service.dto;
+
+import com.example.habit_service.util.SwaggerConstants;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+
+public class HabitStreakDTO {
+    @Schema(description = SwaggerConstants.ID_DESC, example = SwaggerConstants.ID_EXAMPLE)
+    private Long habitId;
+
+    @Schema(description = SwaggerConstants.CURRENT_STREAK_DESC, example = SwaggerConstants.CURRENT_STREAK_EXAMPLE)
+    private int currentStreak;
+
+    @Schema(description = SwaggerConstants.LONGEST_STREAK_DESC, example = SwaggerConstants.LONGEST_STREAK_EXAMPLE)
+    private int longestStreak;
+
+    @Schema(description = SwaggerConstants.LAST_COMPLETED_ON_DESC, example = SwaggerConstants.LAST_COMPLETED_ON_EXAMPLE)
+    private LocalDate lastCompletedOn;
+
+    public HabitStreakDTO() {
+    }
+
+    public HabitStreakDTO(Long habitId, int currentStreak, int longestStreak, LocalDate lastCompletedOn) {
+        this.habitId = habitId;
+        this.currentStreak = currentStreak;
+        this.longestStreak = longestStreak;
+        this.lastCompletedOn = lastCompletedOn;
+    }
+
+    public Long getHabitId() {
+        return habitId;
+    }
+
+    public void setHabitId(Long habitId) {
+        this.habitId = habitId;
+    }
+
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+
+    public void setCurrentStreak(int currentStreak) {
+        this.currentStreak = currentStreak;
+    }
+
+    public int getLongestStreak() {
+        return longestStreak;
+    }
+
+    public void setLongestStreak(int longestStreak) {
+        this.longestStreak = longestStreak;
+    }
+
+    public LocalDate getLastCompletedOn() {
+        return lastCompletedOn;
+    }
+
+    public void setLastCompletedOn(LocalDate lastCompletedOn) {
+        this.lastCompletedOn = lastCompletedOn;
+    }
+}
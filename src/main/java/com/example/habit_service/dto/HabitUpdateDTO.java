@@ -1,9 +1,15 @@
 package com.example.habit_service.dto;
 
+import com.example.habit_service.util.ReminderTimes;
 import com.example.habit_service.util.SwaggerConstants;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.Size;
 
+import java.time.LocalTime;
+
 public class HabitUpdateDTO {
     @Schema(description = SwaggerConstants.NAME_DESC, example = SwaggerConstants.NAME_EXAMPLE)
     @Size(min = 2, max = 255, message = "Product name must be between 2 and 255 characters")
@@ -16,6 +22,14 @@ public class HabitUpdateDTO {
     @Schema(description = SwaggerConstants.ACTIVE_DESC, example = SwaggerConstants.ACTIVE_EXAMPLE)
     private Boolean active;
 
+    @Schema(description = SwaggerConstants.REMINDER_TIME_DESC, example = SwaggerConstants.REMINDER_TIME_EXAMPLE, type = "string")
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime reminderTime;
+
+    @Schema(description = SwaggerConstants.REMINDER_ZONE_DESC, example = SwaggerConstants.REMINDER_ZONE_EXAMPLE)
+    @Size(max = 64, message = "Reminder zone must be at most 64 characters")
+    private String reminderZone;
+
     @Schema(description = SwaggerConstants.PERSON_ID_DESC, example = SwaggerConstants.PERSON_ID_EXAMPLE)
     private Long personId;
 
@@ -46,6 +60,29 @@ public class HabitUpdateDTO {
         this.active = active;
     }
 
+    public LocalTime getReminderTime() {
+        return reminderTime;
+    }
+
+    public void setReminderTime(LocalTime reminderTime) {
+        this.reminderTime = reminderTime;
+    }
+
+    public String getReminderZone() {
+        return reminderZone;
+    }
+
+    public void setReminderZone(String reminderZone) {
+        this.reminderZone = reminderZone;
+    }
+
+    // Either half may be patched alone, the other one is kept from the stored habit
+    @JsonIgnore
+    @AssertTrue(message = "Reminder zone must be a valid time zone")
+    public boolean isReminderZoneValid() {
+        return reminderZone == null || ReminderTimes.isValidZone(reminderZone);
+    }
+
     public Long getPersonId() {
         return personId;
     }
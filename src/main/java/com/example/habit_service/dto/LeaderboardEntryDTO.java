@@ -0,0 +1,74 @@
+package com.example.habit_service.dto;
+
+import com.example.habit_service.util.SwaggerConstants;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+
+public class LeaderboardEntryDTO {
+    @Schema(description = SwaggerConstants.RANK_DESC, example = SwaggerConstants.RANK_EXAMPLE)
+    private int rank;
+
+    @Schema(description = SwaggerConstants.ID_DESC, example = SwaggerConstants.ID_EXAMPLE)
+    private Long habitId;
+
+    @Schema(description = SwaggerConstants.PERSON_ID_DESC, example = SwaggerConstants.PERSON_ID_EXAMPLE)
+    private Long personId;
+
+    @Schema(description = SwaggerConstants.CURRENT_STREAK_DESC, example = SwaggerConstants.CURRENT_STREAK_EXAMPLE)
+    private int currentStreak;
+
+    @Schema(description = SwaggerConstants.LAST_COMPLETED_ON_DESC, example = SwaggerConstants.LAST_COMPLETED_ON_EXAMPLE)
+    private LocalDate lastCompletedOn;
+
+    public LeaderboardEntryDTO() {
+    }
+
+    // Query projection; the rank is assigned once the rows are in order
+    public LeaderboardEntryDTO(Long habitId, Long personId, int currentStreak, LocalDate lastCompletedOn) {
+        this.habitId = habitId;
+        this.personId = personId;
+        this.currentStreak = currentStreak;
+        this.lastCompletedOn = lastCompletedOn;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public void setRank(int rank) {
+        this.rank = rank;
+    }
+
+    public Long getHabitId() {
+        return habitId;
+    }
+
+    public void setHabitId(Long habitId) {
+        this.habitId = habitId;
+    }
+
+    public Long getPersonId() {
+        return personId;
+    }
+
+    public void setPersonId(Long personId) {
+        this.personId = personId;
+    }
+
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+
+    public void setCurrentStreak(int currentStreak) {
+        this.currentStreak = currentStreak;
+    }
+
+    public LocalDate getLastCompletedOn() {
+        return lastCompletedOn;
+    }
+
+    public void setLastCompletedOn(LocalDate lastCompletedOn) {
+        this.lastCompletedOn = lastCompletedOn;
+    }
+}
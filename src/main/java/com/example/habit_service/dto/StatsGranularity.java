@@ -0,0 +1,48 @@
+package com.example.habit_service.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Period length of completion rollups and of the statistics built from them. Weeks are ISO weeks, starting on Monday.
+ */
+public enum StatsGranularity {
+    DAY {
+        @Override
+        public LocalDate periodStart(LocalDate day) {
+            return day;
+        }
+
+        @Override
+        public LocalDate periodEnd(LocalDate periodStart) {
+            return periodStart;
+        }
+    },
+    WEEK {
+        @Override
+        public LocalDate periodStart(LocalDate day) {
+            return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+
+        @Override
+        public LocalDate periodEnd(LocalDate periodStart) {
+            return periodStart.plusDays(6);
+        }
+    },
+    MONTH {
+        @Override
+        public LocalDate periodStart(LocalDate day) {
+            return day.withDayOfMonth(1);
+        }
+
+        @Override
+        public LocalDate periodEnd(LocalDate periodStart) {
+            return periodStart.with(TemporalAdjusters.lastDayOfMonth());
+        }
+    };
+
+    public abstract LocalDate periodStart(LocalDate day);
+
+    public abstract LocalDate periodEnd(LocalDate periodStart);
+}
@@ -0,0 +1,47 @@
+package com.example.habit_service.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * Tombstone of a deleted user whose rows are still being purged. Its presence hides the user's habits
+ * from every query; {@link com.example.habit_service.service.DeletedPersonPurger} removes it once the
+ * last row is gone, so a purge interrupted by a restart picks up where it stopped.
+ */
+@Entity
+@Table(name = "deleted_person")
+public class DeletedPerson {
+    @Id
+    @Column(name = "person_id")
+    private Long personId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private Instant deletedAt;
+
+    public DeletedPerson() {}
+
+    public DeletedPerson(Long personId, Instant deletedAt) {
+        this.personId = personId;
+        this.deletedAt = deletedAt;
+    }
+
+    public Long getPersonId() {
+        return personId;
+    }
+
+    public void setPersonId(Long personId) {
+        this.personId = personId;
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(Instant deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
@@ -2,14 +2,21 @@ package com.example.habit_service.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.SQLRestriction;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalTime;
 
+// Habits of a deleted user disappear from every query as soon as the tombstone is written,
+// long before DeletedPersonPurger has removed the rows
 @Entity
 @Table(name = "habit")
+@SQLRestriction("not exists (select 1 from deleted_person d where d.person_id = person_id)")
 public class Habit {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "habit_id_seq")
+    @SequenceGenerator(name = "habit_id_seq", sequenceName = "habit_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -26,6 +33,29 @@ public class Habit {
     @Column(name = "person_id", nullable = false)
     private Long personId;
 
+    @Column(name = "current_streak", nullable = false)
+    private int currentStreak;
+
+    @Column(name = "longest_streak", nullable = false)
+    private int longestStreak;
+
+    @Column(name = "last_completed_on")
+    private LocalDate lastCompletedOn;
+
+    @Column(name = "reminder_time")
+    private LocalTime reminderTime;
+
+    @Column(name = "reminder_zone", length = 64)
+    private String reminderZone;
+
+    // Derived from reminder time, zone and active; moved forward by ReminderScheduler each time it fires
+    @Column(name = "next_reminder_at")
+    private Instant nextReminderAt;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     public Habit() {}
 
     public Long getId() {
@@ -75,4 +105,60 @@ public class Habit {
     public void setPersonId(Long personId) {
         this.personId = personId;
     }
+
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+
+    public void setCurrentStreak(int currentStreak) {
+        this.currentStreak = currentStreak;
+    }
+
+    public int getLongestStreak() {
+        return longestStreak;
+    }
+
+    public void setLongestStreak(int longestStreak) {
+        this.longestStreak = longestStreak;
+    }
+
+    public LocalDate getLastCompletedOn() {
+        return lastCompletedOn;
+    }
+
+    public void setLastCompletedOn(LocalDate lastCompletedOn) {
+        this.lastCompletedOn = lastCompletedOn;
+    }
+
+    public LocalTime getReminderTime() {
+        return reminderTime;
+    }
+
+    public void setReminderTime(LocalTime reminderTime) {
+        this.reminderTime = reminderTime;
+    }
+
+    public String getReminderZone() {
+        return reminderZone;
+    }
+
+    public void setReminderZone(String reminderZone) {
+        this.reminderZone = reminderZone;
+    }
+
+    public Instant getNextReminderAt() {
+        return nextReminderAt;
+    }
+
+    public void setNextReminderAt(Instant nextReminderAt) {
+        this.nextReminderAt = nextReminderAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,79 @@
+package com.example.habit_service.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.SQLRestriction;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Hidden with the deleted user's habits, so no read path, the export included, sees them before they are purged
+@Entity
+@SQLRestriction("not exists (select 1 from deleted_person d where d.person_id = person_id)")
+@Table(name = "habit_completion",
+        uniqueConstraints = @UniqueConstraint(name = "habit_completion_habit_day_key", columnNames = {"habit_id", "completed_on"}))
+public class HabitCompletion {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "habit_id", nullable = false)
+    private Long habitId;
+
+    @Column(name = "person_id", nullable = false)
+    private Long personId;
+
+    @Column(name = "completed_on", nullable = false)
+    private LocalDate completedOn;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public HabitCompletion() {}
+
+    public HabitCompletion(Long habitId, Long personId, LocalDate completedOn) {
+        this.habitId = habitId;
+        this.personId = personId;
+        this.completedOn = completedOn;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getHabitId() {
+        return habitId;
+    }
+
+    public void setHabitId(Long habitId) {
+        this.habitId = habitId;
+    }
+
+    public Long getPersonId() {
+        return personId;
+    }
+
+    public void setPersonId(Long personId) {
+        this.personId = personId;
+    }
+
+    public LocalDate getCompletedOn() {
+        return completedOn;
+    }
+
+    public void setCompletedOn(LocalDate completedOn) {
+        this.completedOn = completedOn;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
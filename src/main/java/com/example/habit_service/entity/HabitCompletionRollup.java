@@ -0,0 +1,104 @@
+package com.example.habit_service.entity;
+
+import com.example.habit_service.dto.StatsGranularity;
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Number of completions of one habit in one day, week or month, kept up to date by every check-in.
+ */
+@Entity
+@Table(name = "habit_completion_rollup")
+@IdClass(HabitCompletionRollup.Key.class)
+public class HabitCompletionRollup {
+    @Id
+    @Column(name = "habit_id")
+    private Long habitId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", length = 5)
+    private StatsGranularity granularity;
+
+    @Id
+    @Column(name = "period_start")
+    private LocalDate periodStart;
+
+    @Column(name = "person_id", nullable = false)
+    private Long personId;
+
+    @Column(name = "completions", nullable = false)
+    private int completions;
+
+    public HabitCompletionRollup() {}
+
+    public Long getHabitId() {
+        return habitId;
+    }
+
+    public void setHabitId(Long habitId) {
+        this.habitId = habitId;
+    }
+
+    public StatsGranularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(StatsGranularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public void setPeriodStart(LocalDate periodStart) {
+        this.periodStart = periodStart;
+    }
+
+    public Long getPersonId() {
+        return personId;
+    }
+
+    public void setPersonId(Long personId) {
+        this.personId = personId;
+    }
+
+    public int getCompletions() {
+        return completions;
+    }
+
+    public void setCompletions(int completions) {
+        this.completions = completions;
+    }
+
+    public static class Key implements Serializable {
+        private Long habitId;
+        private StatsGranularity granularity;
+        private LocalDate periodStart;
+
+        public Key() {}
+
+        public Key(Long habitId, StatsGranularity granularity, LocalDate periodStart) {
+            this.habitId = habitId;
+            this.granularity = granularity;
+            this.periodStart = periodStart;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(habitId, key.habitId) && granularity == key.granularity
+                    && Objects.equals(periodStart, key.periodStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(habitId, granularity, periodStart);
+        }
+    }
+}
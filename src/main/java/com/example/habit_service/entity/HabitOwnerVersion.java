@@ -0,0 +1,43 @@
+package com.example.habit_service.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Aggregate version of one person's habit list, bumped by every write to any of their habits.
+ */
+@Entity
+@Table(name = "habit_owner_version")
+public class HabitOwnerVersion {
+    @Id
+    @Column(name = "person_id")
+    private Long personId;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    public HabitOwnerVersion() {}
+
+    public HabitOwnerVersion(Long personId, long version) {
+        this.personId = personId;
+        this.version = version;
+    }
+
+    public Long getPersonId() {
+        return personId;
+    }
+
+    public void setPersonId(Long personId) {
+        this.personId = personId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.habit_service.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDate;
+
+/**
+ * One row of the streak leaderboard as last written by an instance, read back at startup and by the
+ * other instances, so none of them has to rank the habit table to know the top streaks.
+ */
+@Entity
+@Table(name = "streak_leaderboard_snapshot")
+public class LeaderboardSnapshot {
+    @Id
+    @Column(name = "habit_id")
+    private Long habitId;
+
+    @Column(name = "person_id", nullable = false)
+    private Long personId;
+
+    @Column(name = "current_streak", nullable = false)
+    private int currentStreak;
+
+    @Column(name = "last_completed_on", nullable = false)
+    private LocalDate lastCompletedOn;
+
+    public LeaderboardSnapshot() {}
+
+    public Long getHabitId() {
+        return habitId;
+    }
+
+    public void setHabitId(Long habitId) {
+        this.habitId = habitId;
+    }
+
+    public Long getPersonId() {
+        return personId;
+    }
+
+    public void setPersonId(Long personId) {
+        this.personId = personId;
+    }
+
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+
+    public void setCurrentStreak(int currentStreak) {
+        this.currentStreak = currentStreak;
+    }
+
+    public LocalDate getLastCompletedOn() {
+        return lastCompletedOn;
+    }
+
+    public void setLastCompletedOn(LocalDate lastCompletedOn) {
+        this.lastCompletedOn = lastCompletedOn;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.habit_service.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "outbox_event")
+public class OutboxEvent {
+    // Not pooled: every id comes straight from the sequence, so ids grow in the order events are written on any
+    // instance. A person's writes queue behind each other on their habit_owner_version row and a reminder
+    // behind writes to its habit row, so those events also commit in id order
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_id_seq")
+    @SequenceGenerator(name = "outbox_event_id_seq", sequenceName = "outbox_event_id_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(name = "topic", nullable = false)
+    private String topic;
+
+    @Column(name = "event_key")
+    private String eventKey;
+
+    @Column(name = "payload", nullable = false)
+    private byte[] payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public OutboxEvent() {}
+
+    public OutboxEvent(String topic, String eventKey, byte[] payload) {
+        this.topic = topic;
+        this.eventKey = eventKey;
+        this.payload = payload;
+        this.createdAt = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public String getEventKey() {
+        return eventKey;
+    }
+
+    public void setEventKey(String eventKey) {
+        this.eventKey = eventKey;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -15,13 +15,21 @@ import java.util.List;
 public interface HabitMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "currentStreak", ignore = true)
+    @Mapping(target = "longestStreak", ignore = true)
+    @Mapping(target = "lastCompletedOn", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "nextReminderAt", ignore = true)
     Habit toEntity(HabitRequestDTO dto);
 
     HabitResponseDTO toResponseDTO(Habit habit);
 
     List<HabitResponseDTO> toResponseDTOList(List<Habit> habits);
 
+    HabitResponseDTO copy(HabitResponseDTO dto);
+
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "id", ignore = true)
-    void updateHabitFromDtoWithFixedFields(HabitUpdateDTO dto, @MappingTarget Habit habit);
+    @Mapping(target = "version", ignore = true)
+    void applyUpdate(HabitUpdateDTO dto, @MappingTarget HabitResponseDTO response);
 }
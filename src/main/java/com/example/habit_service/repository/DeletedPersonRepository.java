@@ -0,0 +1,21 @@
+package com.example.habit_service.repository;
+
+import com.example.habit_service.entity.DeletedPerson;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface DeletedPersonRepository extends JpaRepository<DeletedPerson, Long> {
+    // Redelivered user-deleted events must not move deleted_at or fail the batch on a duplicate key
+    @Modifying
+    @Query("insert into DeletedPerson (personId, deletedAt) values (:personId, :deletedAt) on conflict do nothing")
+    int markDeleted(@Param("personId") long personId, @Param("deletedAt") Instant deletedAt);
+
+    @Query("select d.personId from DeletedPerson d order by d.deletedAt, d.personId")
+    List<Long> findOldestPersonIds(Limit limit);
+}
@@ -0,0 +1,136 @@
+package com.example.habit_service.repository;
+
+import com.example.habit_service.dto.HabitRequestDTO;
+import com.example.habit_service.entity.Habit;
+import com.example.habit_service.mapper.HabitMapper;
+import com.example.habit_service.util.ReminderTimes;
+import org.postgresql.PGConnection;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Inserts many habits of one person at once. On PostgreSQL the rows go through COPY, a single
+ * statement streaming all of them; other databases get Hibernate's batched inserts.
+ * Must be called inside a transaction, whose connection it shares with JPA.
+ */
+@Component
+public class HabitBulkLoader {
+    // Same block size as the @SequenceGenerator on Habit and INCREMENT BY of habit_id_seq
+    static final int ID_BLOCK_SIZE = 50;
+
+    private static final String NEXT_ID_BLOCKS = "select nextval('habit_id_seq') from generate_series(1, ?)";
+    private static final String COPY_HABITS = "COPY habit (id, name, description, created_at, active, person_id, reminder_time, reminder_zone, next_reminder_at) " +
+            "FROM STDIN WITH (FORMAT csv)";
+
+    private final DataSource dataSource;
+    private final HabitRepository habitRepository;
+    private final HabitMapper habitMapper;
+
+    public HabitBulkLoader(DataSource dataSource, HabitRepository habitRepository, HabitMapper habitMapper) {
+        this.dataSource = dataSource;
+        this.habitRepository = habitRepository;
+        this.habitMapper = habitMapper;
+    }
+
+    public int load(long personId, List<HabitRequestDTO> habits, LocalDate createdAt) {
+        if (habits.isEmpty()) {
+            return 0;
+        }
+        Instant now = Instant.now();
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            if (connection.isWrapperFor(PGConnection.class)) {
+                return copy(connection, personId, habits, createdAt, now);
+            }
+        } catch (SQLException e) {
+            throw new UncategorizedSQLException("COPY habits", COPY_HABITS, e);
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("COPY habits failed", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+
+        List<Habit> entities = habits.stream()
+                .map(dto -> {
+                    Habit habit = habitMapper.toEntity(dto);
+                    habit.setCreatedAt(createdAt);
+                    habit.setPersonId(personId);
+                    habit.setNextReminderAt(nextReminder(dto, now));
+                    return habit;
+                })
+                .toList();
+        return habitRepository.saveAll(entities).size();
+    }
+
+    private int copy(Connection connection, long personId, List<HabitRequestDTO> habits, LocalDate createdAt,
+                     Instant now) throws SQLException, IOException {
+        List<Long> ids = allocateIds(connection, habits.size());
+        StringBuilder csv = new StringBuilder(habits.size() * 64);
+        for (int i = 0; i < habits.size(); i++) {
+            HabitRequestDTO habit = habits.get(i);
+            csv.append(ids.get(i)).append(',')
+                    .append(quote(habit.getName())).append(',')
+                    .append(habit.getDescription() == null ? "" : quote(habit.getDescription())).append(',')
+                    .append(createdAt).append(',')
+                    .append(habit.getActive()).append(',')
+                    .append(personId).append(',')
+                    .append(habit.getReminderTime() == null ? "" : habit.getReminderTime()).append(',')
+                    .append(habit.getReminderZone() == null ? "" : quote(habit.getReminderZone())).append(',')
+                    .append(Objects.toString(nextReminder(habit, now), "")).append('\n');
+        }
+        long copied = connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn(COPY_HABITS, new StringReader(csv.toString()));
+        return Math.toIntExact(copied);
+    }
+
+    /**
+     * Takes ids the way Hibernate's pooled optimizer does: each nextval value V reserves V-49..V,
+     * so ids handed out here and by Hibernate never overlap. The sequence starts at 1, whose block
+     * Hibernate treats specially, so that one is skipped.
+     */
+    private static List<Long> allocateIds(Connection connection, int count) throws SQLException {
+        List<Long> ids = new ArrayList<>(count);
+        while (ids.size() < count) {
+            int blocks = (count - ids.size() + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+            try (PreparedStatement statement = connection.prepareStatement(NEXT_ID_BLOCKS)) {
+                statement.setInt(1, blocks);
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        long hi = rows.getLong(1);
+                        if (hi < ID_BLOCK_SIZE) {
+                            continue;
+                        }
+                        for (long id = hi - ID_BLOCK_SIZE + 1; id <= hi && ids.size() < count; id++) {
+                            ids.add(id);
+                        }
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static Instant nextReminder(HabitRequestDTO habit, Instant now) {
+        return ReminderTimes.next(habit.getReminderTime(), habit.getReminderZone(), habit.getActive(), now);
+    }
+
+    // CSV for COPY: an unquoted empty field is NULL, so every string is quoted to keep "" distinct
+    private static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
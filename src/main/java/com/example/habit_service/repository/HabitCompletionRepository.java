@@ -0,0 +1,35 @@
+package com.example.habit_service.repository;
+
+import com.example.habit_service.dto.HabitCompletionDTO;
+import com.example.habit_service.entity.HabitCompletion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.stream.Stream;
+
+public interface HabitCompletionRepository extends JpaRepository<HabitCompletion, Long> {
+    @Modifying
+    @Query("delete from HabitCompletion c where c.habitId = :habitId")
+    int deleteAllByHabitId(@Param("habitId") Long habitId);
+
+    // The owner is copied onto every completion for the purge and the deleted-user filter, so it moves with the habit
+    @Modifying
+    @Query("update HabitCompletion c set c.personId = :personId where c.habitId = :habitId")
+    int updatePersonIdByHabitId(@Param("habitId") long habitId, @Param("personId") long personId);
+
+    @Modifying
+    @Query(value = "delete from habit_completion where id in " +
+            "(select id from habit_completion where person_id = :personId limit :chunkSize)", nativeQuery = true)
+    int deleteChunkByPersonId(@Param("personId") long personId, @Param("chunkSize") int chunkSize);
+
+    // Follows the (person_id, habit_id, completed_on) index, so rows stream out without a sort
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = HabitRepository.EXPORT_FETCH_SIZE))
+    @Query("select new com.example.habit_service.dto.HabitCompletionDTO(c.habitId, c.completedOn) " +
+            "from HabitCompletion c where c.personId = :personId order by c.habitId, c.completedOn")
+    Stream<HabitCompletionDTO> streamByPersonId(@Param("personId") long personId);
+}
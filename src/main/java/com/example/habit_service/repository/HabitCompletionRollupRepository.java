@@ -0,0 +1,45 @@
+package com.example.habit_service.repository;
+
+import com.example.habit_service.dto.StatsGranularity;
+import com.example.habit_service.entity.HabitCompletionRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface HabitCompletionRollupRepository extends JpaRepository<HabitCompletionRollup, HabitCompletionRollup.Key> {
+    // Upsert, so the first completion of a period cannot race another one into a duplicate key.
+    // Granularity goes in by name: Hibernate does not infer the enum mapping for parameters in insert values
+    @Modifying
+    @Query("insert into HabitCompletionRollup (habitId, granularity, periodStart, personId, completions) " +
+            "values (:habitId, :granularity, :periodStart, :personId, 1) " +
+            "on conflict(habitId, granularity, periodStart) do update set completions = completions + 1")
+    int increment(@Param("habitId") long habitId,
+                  @Param("granularity") String granularity,
+                  @Param("periodStart") LocalDate periodStart,
+                  @Param("personId") long personId);
+
+    @Query("select r from HabitCompletionRollup r where r.habitId = :habitId and r.granularity = :granularity " +
+            "and r.periodStart between :from and :to order by r.periodStart")
+    List<HabitCompletionRollup> findPeriods(@Param("habitId") long habitId,
+                                            @Param("granularity") StatsGranularity granularity,
+                                            @Param("from") LocalDate from,
+                                            @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("delete from HabitCompletionRollup r where r.habitId = :habitId")
+    int deleteAllByHabitId(@Param("habitId") long habitId);
+
+    @Modifying
+    @Query("update HabitCompletionRollup r set r.personId = :personId where r.habitId = :habitId")
+    int updatePersonIdByHabitId(@Param("habitId") long habitId, @Param("personId") long personId);
+
+    @Modifying
+    @Query(value = "delete from habit_completion_rollup where (habit_id, granularity, period_start) in " +
+            "(select habit_id, granularity, period_start from habit_completion_rollup " +
+            "where person_id = :personId limit :chunkSize)", nativeQuery = true)
+    int deleteChunkByPersonId(@Param("personId") long personId, @Param("chunkSize") int chunkSize);
+}
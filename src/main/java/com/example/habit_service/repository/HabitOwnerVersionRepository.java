@@ -0,0 +1,26 @@
+package com.example.habit_service.repository;
+
+import com.example.habit_service.entity.HabitOwnerVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Optional;
+
+public interface HabitOwnerVersionRepository extends JpaRepository<HabitOwnerVersion, Long> {
+    @Query("select v.version from HabitOwnerVersion v where v.personId = :personId")
+    Optional<Long> findVersion(@Param("personId") long personId);
+
+    // Upsert, so the first write of a person cannot race another one into a duplicate key
+    @Modifying
+    @Query("insert into HabitOwnerVersion (personId, version) values (:personId, 1) " +
+            "on conflict(personId) do update set version = version + 1")
+    int increment(@Param("personId") long personId);
+
+    // Persons without a row never had a habit, so there is no version to move forward
+    @Modifying
+    @Query("update HabitOwnerVersion v set v.version = v.version + 1 where v.personId in :personIds")
+    int incrementAll(@Param("personIds") Collection<Long> personIds);
+}
@@ -1,11 +1,174 @@
 package com.example.habit_service.repository;
 
+import com.example.habit_service.dto.HabitReminderDTO;
+import com.example.habit_service.dto.HabitResponseDTO;
+import com.example.habit_service.dto.HabitSearchResultDTO;
+import com.example.habit_service.dto.LeaderboardEntryDTO;
 import com.example.habit_service.entity.Habit;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface HabitRepository extends JpaRepository<Habit, Long> {
     List<Habit> findByPersonId(long personId);
-    void deleteAllByPersonId(Long personId);
+
+    // Read paths project straight into the response: no managed entities, no dirty-checking snapshots
+    String RESPONSE_PROJECTION = "select new com.example.habit_service.dto.HabitResponseDTO(" +
+            "h.id, h.name, h.description, h.createdAt, h.active, h.personId, h.reminderTime, h.reminderZone, h.version) from Habit h ";
+
+    @Query(RESPONSE_PROJECTION + "where h.personId = :personId order by h.id")
+    List<HabitResponseDTO> findResponsesByPersonId(@Param("personId") long personId);
+
+    @Query(RESPONSE_PROJECTION + "where h.id = :id and h.personId = :personId")
+    Optional<HabitResponseDTO> findResponseByIdAndPersonId(@Param("id") long id, @Param("personId") long personId);
+
+    // How a habit matched a search, best first. Patterns come lowercased and backslash-escaped; lower(name) and
+    // lower(description) are what habit_search_trgm_idx is built on, so Postgres filters the LIKEs from it
+    String SEARCH_MATCH = "case when lower(h.name) = :query then 0 " +
+            "when lower(h.name) like :prefix escape '\\' then 1 " +
+            "when lower(h.name) like :wordPrefix escape '\\' then 2 " +
+            "when lower(h.name) like :infix escape '\\' then 3 " +
+            "else 4 end";
+
+    /**
+     * One page of the person's habits whose name or description contains the query, best match first, then by id,
+     * starting after the given match and id.
+     */
+    @Query("select new com.example.habit_service.dto.HabitSearchResultDTO(" +
+            "h.id, h.name, h.description, h.createdAt, h.active, h.personId, h.reminderTime, h.reminderZone, h.version, " +
+            SEARCH_MATCH + ") from Habit h " +
+            "where h.personId = :personId " +
+            "and (lower(h.name) like :infix escape '\\' or lower(h.description) like :infix escape '\\') " +
+            "and (" + SEARCH_MATCH + " > :afterMatch or (" + SEARCH_MATCH + " = :afterMatch and h.id > :afterId)) " +
+            "order by " + SEARCH_MATCH + ", h.id")
+    List<HabitSearchResultDTO> search(@Param("personId") long personId,
+                                      @Param("query") String query,
+                                      @Param("prefix") String prefix,
+                                      @Param("wordPrefix") String wordPrefix,
+                                      @Param("infix") String infix,
+                                      @Param("afterMatch") int afterMatch,
+                                      @Param("afterId") long afterId,
+                                      Limit limit);
+
+    // Export cursor: DTO rows fetched EXPORT_FETCH_SIZE at a time, nothing is kept once it is written out
+    String EXPORT_FETCH_SIZE = "500";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(RESPONSE_PROJECTION + "where h.personId = :personId order by h.id")
+    Stream<HabitResponseDTO> streamResponsesByPersonId(@Param("personId") long personId);
+
+    // Bounded chunk, so purging a large account never becomes one long transaction
+    @Modifying
+    @Query(value = "delete from habit where id in " +
+            "(select id from habit where person_id = :personId limit :chunkSize)", nativeQuery = true)
+    int deleteChunkByPersonId(@Param("personId") long personId, @Param("chunkSize") int chunkSize);
+
+    List<Habit> findByPersonIdAndIdGreaterThanOrderByIdAsc(long personId, long afterId, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Habit> streamByPersonIdOrderByIdAsc(long personId);
+
+    Optional<Habit> findByIdAndPersonId(long id, long personId);
+
+    @Query("select h.version from Habit h where h.id = :id and h.personId = :personId")
+    Optional<Long> findVersionByIdAndPersonId(@Param("id") long id, @Param("personId") long personId);
+
+    @Query("select h.createdAt from Habit h where h.id = :id and h.personId = :personId")
+    Optional<LocalDate> findCreatedAtByIdAndPersonId(@Param("id") long id, @Param("personId") long personId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h from Habit h where h.id = :id and h.personId = :personId")
+    Optional<Habit> findByIdAndPersonIdForUpdate(@Param("id") long id, @Param("personId") long personId);
+
+    /**
+     * Applies the non-null fields of a PATCH as one compare-and-set statement: ownership and, when given,
+     * the expected version are checked by the same UPDATE that writes the row and bumps its version.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Habit h set " +
+            "h.name = coalesce(:name, h.name), " +
+            "h.description = coalesce(:description, h.description), " +
+            "h.active = coalesce(:active, h.active), " +
+            "h.personId = coalesce(:newPersonId, h.personId), " +
+            "h.reminderTime = coalesce(:reminderTime, h.reminderTime), " +
+            "h.reminderZone = coalesce(:reminderZone, h.reminderZone), " +
+            "h.version = h.version + 1 " +
+            "where h.id = :id and h.personId = :personId " +
+            "and (:expectedVersion is null or h.version = :expectedVersion)")
+    int updateIfVersionMatches(@Param("id") long id,
+                               @Param("personId") long personId,
+                               @Param("expectedVersion") Long expectedVersion,
+                               @Param("name") String name,
+                               @Param("description") String description,
+                               @Param("active") Boolean active,
+                               @Param("newPersonId") Long newPersonId,
+                               @Param("reminderTime") LocalTime reminderTime,
+                               @Param("reminderZone") String reminderZone);
+
+    // Derived scheduling state, not a change the user made, so the version stays as it is
+    @Modifying(flushAutomatically = true)
+    @Query("update Habit h set h.nextReminderAt = :nextReminderAt where h.id = :id")
+    int updateNextReminderAt(@Param("id") long id, @Param("nextReminderAt") Instant nextReminderAt);
+
+    /**
+     * Reminders of one shard due before {@code horizon}, soonest first. Shards are habit ids modulo
+     * {@code shardCount}, so instances split the table without coordinating.
+     */
+    @Query("select new com.example.habit_service.dto.HabitReminderDTO(" +
+            "h.id, h.personId, h.nextReminderAt, h.reminderTime, h.reminderZone) from Habit h " +
+            "where h.nextReminderAt < :horizon and mod(h.id, :shardCount) = :shard " +
+            "order by h.nextReminderAt, h.id")
+    List<HabitReminderDTO> findDueReminders(@Param("horizon") Instant horizon,
+                                            @Param("shardCount") int shardCount,
+                                            @Param("shard") int shard,
+                                            Limit limit);
+
+    /**
+     * Compare-and-set on the due instant: whoever moves the reminder forward first fires it,
+     * anyone else holding the same reminder, or one the user has since changed, updates nothing.
+     */
+    @Modifying
+    @Query("update Habit h set h.nextReminderAt = :next where h.id = :id and h.nextReminderAt = :dueAt")
+    int advanceReminder(@Param("id") long id, @Param("dueAt") Instant dueAt, @Param("next") Instant next);
+
+    String LEADERBOARD_PROJECTION = "select new com.example.habit_service.dto.LeaderboardEntryDTO(" +
+            "h.id, h.personId, h.currentStreak, h.lastCompletedOn) from Habit h ";
+
+    @Query(LEADERBOARD_PROJECTION + "where h.id in :ids")
+    List<LeaderboardEntryDTO> findLeaderboardEntries(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Longest streaks still alive, that is completed on {@code since} or later. Walks the current_streak index
+     * from the top until it has {@code limit} alive rows, so it stays off the rest of the table.
+     */
+    @Query(LEADERBOARD_PROJECTION + "where h.lastCompletedOn >= :since order by h.currentStreak desc, h.id")
+    List<LeaderboardEntryDTO> findTopStreaks(@Param("since") LocalDate since, Limit limit);
+
+    @Query(LEADERBOARD_PROJECTION + "where h.personId = :personId and h.lastCompletedOn >= :since " +
+            "order by h.currentStreak desc, h.id")
+    List<LeaderboardEntryDTO> findTopStreaksByPersonId(@Param("personId") long personId,
+                                                       @Param("since") LocalDate since,
+                                                       Limit limit);
+
+    @Modifying
+    @Query("delete from Habit h where h.id = :id and h.personId = :personId")
+    int deleteByIdAndPersonId(@Param("id") long id, @Param("personId") long personId);
 }
@@ -0,0 +1,34 @@
+package com.example.habit_service.repository;
+
+import com.example.habit_service.dto.LeaderboardEntryDTO;
+import com.example.habit_service.entity.LeaderboardSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface LeaderboardSnapshotRepository extends JpaRepository<LeaderboardSnapshot, Long> {
+    @Query("select new com.example.habit_service.dto.LeaderboardEntryDTO(" +
+            "s.habitId, s.personId, s.currentStreak, s.lastCompletedOn) from LeaderboardSnapshot s " +
+            "order by s.currentStreak desc, s.habitId")
+    List<LeaderboardEntryDTO> findRanked();
+
+    // Upsert, so instances writing their snapshots at the same time never fail on each other's rows
+    @Modifying
+    @Query("insert into LeaderboardSnapshot (habitId, personId, currentStreak, lastCompletedOn) " +
+            "values (:habitId, :personId, :currentStreak, :lastCompletedOn) " +
+            "on conflict(habitId) do update set personId = :personId, currentStreak = :currentStreak, " +
+            "lastCompletedOn = :lastCompletedOn")
+    int upsert(@Param("habitId") long habitId,
+               @Param("personId") long personId,
+               @Param("currentStreak") int currentStreak,
+               @Param("lastCompletedOn") LocalDate lastCompletedOn);
+
+    @Modifying
+    @Query("delete from LeaderboardSnapshot s where s.habitId not in :habitIds")
+    int deleteAllExcept(@Param("habitIds") Collection<Long> habitIds);
+}
@@ -0,0 +1,18 @@
+package com.example.habit_service.repository;
+
+import com.example.habit_service.entity.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    // Held until the caller's transaction ends. Only the relay that gets it drains the table, so events leave
+    // in id order even with several instances running; the others find it taken and skip their run
+    @Query(value = "select pg_try_advisory_xact_lock(hashtext('outbox_event'))", nativeQuery = true)
+    boolean tryLockForRelay();
+
+    @Query("select e from OutboxEvent e order by e.id")
+    List<OutboxEvent> findBatchForRelay(Limit limit);
+}
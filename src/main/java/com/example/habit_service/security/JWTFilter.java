@@ -1,6 +1,5 @@
 package com.example.habit_service.security;
 
-import com.auth0.jwt.interfaces.DecodedJWT;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -29,7 +28,6 @@ public class JWTFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
-        logger.info("Authorization header = {}", authHeader);
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -43,10 +41,10 @@ public class JWTFilter extends OncePerRequestFilter {
         }
 
         try {
-            DecodedJWT decodedJWT = jwtUtil.validateAccessToken(jwt);
-            Long id = decodedJWT.getClaim("id").asLong();
-            String username = decodedJWT.getClaim("username").asString();
-            String role = decodedJWT.getClaim("role").asString();
+            TokenPrincipal principal = jwtUtil.verifyAccessToken(jwt);
+            Long id = principal.id();
+            String username = principal.username();
+            String role = principal.role();
 
             if (username != null && role != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                 Person person = new Person();
@@ -64,9 +62,9 @@ public class JWTFilter extends OncePerRequestFilter {
 
                 SecurityContextHolder.getContext().setAuthentication(auth);
             }
-            logger.info("JWT decoded: id={}, username={}, role={}", id, username, role);
+            logger.debug("JWT accepted: id={}, role={}", id, role);
         } catch (Exception e) {
-            logger.error("JWT filter error: {}", e.getMessage(), e);
+            logger.warn("JWT rejected: {}", e.getMessage());
         }
 
         filterChain.doFilter(request, response);
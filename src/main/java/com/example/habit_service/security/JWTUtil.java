@@ -4,32 +4,71 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.auth0.jwt.interfaces.JWTVerifier;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.ZonedDateTime;
+import java.util.Base64;
 import java.util.Date;
 
 @Component
 public class JWTUtil {
-    @Value("${jwt_secret}")
-    private String secret;
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
 
-    public DecodedJWT validateAccessToken(String token) throws JWTVerificationException {
-        System.out.println("Validating access token...");
-        JWTVerifier verifier = JWT.require(Algorithm.HMAC256(secret))
+    private final Algorithm algorithm;
+    private final JWTVerifier verifier;
+    private final Cache<String, TokenPrincipal> verifiedTokens;
+    private final Timer verificationTimer;
+
+    public JWTUtil(@Value("${jwt_secret}") String secret,
+                   @Value("${jwt.cache.max-size:10000}") long cacheMaxSize,
+                   MeterRegistry meterRegistry) {
+        this.algorithm = Algorithm.HMAC256(secret);
+        this.verifier = JWT.require(algorithm)
                 .withSubject("User details")
                 .withIssuer("ADMIN")
                 .build();
+
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
+
+        this.verificationTimer = Timer.builder("jwt.verification")
+                .description("Time spent verifying and decoding access tokens missing from the cache")
+                .register(meterRegistry);
+    }
+
+    public DecodedJWT validateAccessToken(String token) throws JWTVerificationException {
         return verifier.verify(token);
     }
 
+    /**
+     * Returns the principal of a valid token. Tokens seen before are served from a cache keyed
+     * by their SHA-256 digest until they expire, skipping the HMAC check and JSON decoding.
+     */
+    public TokenPrincipal verifyAccessToken(String token) throws JWTVerificationException {
+        return verifiedTokens.get(digest(token), key -> verificationTimer.record(() -> decode(token)));
+    }
+
     public String generateAccessToken(Long id, String username, String role) {
-        System.out.println("generateAccessToken successfully started");
         Date expirationDate = Date.from(ZonedDateTime.now().plusMinutes(60).toInstant());
 
-        String token = JWT.create()
+        return JWT.create()
                 .withSubject("User details")
                 .withClaim("id", id)
                 .withClaim("username", username)
@@ -37,9 +76,44 @@ public class JWTUtil {
                 .withIssuedAt(new Date())
                 .withIssuer("ADMIN")
                 .withExpiresAt(expirationDate)
-                .sign(Algorithm.HMAC256(secret));
+                .sign(algorithm);
+    }
+
+    private TokenPrincipal decode(String token) {
+        DecodedJWT decodedJWT = verifier.verify(token);
+        Instant expiresAt = decodedJWT.getExpiresAtAsInstant();
+
+        return new TokenPrincipal(
+                decodedJWT.getClaim("id").asLong(),
+                decodedJWT.getClaim("username").asString(),
+                decodedJWT.getClaim("role").asString(),
+                expiresAt != null ? expiresAt : Instant.now().plus(DEFAULT_TTL)
+        );
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class TokenExpiry implements Expiry<String, TokenPrincipal> {
+        @Override
+        public long expireAfterCreate(String key, TokenPrincipal value, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), value.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, TokenPrincipal value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
 
-        System.out.println("Generated token: " + token);
-        return token;
+        @Override
+        public long expireAfterRead(String key, TokenPrincipal value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
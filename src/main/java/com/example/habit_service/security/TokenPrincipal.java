@@ -0,0 +1,9 @@
+package com.example.habit_service.security;
+
+import java.time.Instant;
+
+/**
+ * Claims of a verified access token, kept in the verified-token cache until the token expires.
+ */
+public record TokenPrincipal(Long id, String username, String role, Instant expiresAt) {
+}
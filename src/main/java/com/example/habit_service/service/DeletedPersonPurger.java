@@ -0,0 +1,150 @@
+package com.example.habit_service.service;
+
+import com.example.habit_service.repository.DeletedPersonRepository;
+import com.example.habit_service.repository.HabitCompletionRepository;
+import com.example.habit_service.repository.HabitCompletionRollupRepository;
+import com.example.habit_service.repository.HabitRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Second phase of removing deleted users. Every interval it deletes at most {@code chunks-per-run} chunks
+ * of {@code chunk-size} rows, each in its own short transaction: completions first, then their rollups,
+ * then habits, then the tombstone. Interval, chunk size and chunk budget together cap the delete rate.
+ * All state lives in the tables, so a restart simply continues with the oldest tombstone.
+ */
+@Component
+@ConditionalOnProperty(prefix = "habit.purge", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DeletedPersonPurger {
+    private final DeletedPersonRepository deletedPersonRepository;
+    private final HabitRepository habitRepository;
+    private final HabitCompletionRepository habitCompletionRepository;
+    private final HabitCompletionRollupRepository habitCompletionRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int chunksPerRun;
+
+    private final AtomicLong pendingUsers = new AtomicLong();
+    private final Counter purgedHabits;
+    private final Counter purgedCompletions;
+    private final Counter purgedRollups;
+    private final Counter purgedUsers;
+    private final Timer chunkTimer;
+    private final Logger logger = LoggerFactory.getLogger(DeletedPersonPurger.class);
+
+    public DeletedPersonPurger(DeletedPersonRepository deletedPersonRepository,
+                               HabitRepository habitRepository,
+                               HabitCompletionRepository habitCompletionRepository,
+                               HabitCompletionRollupRepository habitCompletionRollupRepository,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${habit.purge.chunk-size:1000}") int chunkSize,
+                               @Value("${habit.purge.chunks-per-run:10}") int chunksPerRun) {
+        this.deletedPersonRepository = deletedPersonRepository;
+        this.habitRepository = habitRepository;
+        this.habitCompletionRepository = habitCompletionRepository;
+        this.habitCompletionRollupRepository = habitCompletionRollupRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.chunksPerRun = chunksPerRun;
+
+        Gauge.builder("user.purge.pending", pendingUsers, AtomicLong::get)
+                .description("Deleted users whose rows are still being purged")
+                .register(meterRegistry);
+        this.purgedHabits = Counter.builder("user.purge.rows")
+                .description("Rows removed by the deleted-user purger")
+                .tag("table", "habit")
+                .register(meterRegistry);
+        this.purgedCompletions = Counter.builder("user.purge.rows")
+                .description("Rows removed by the deleted-user purger")
+                .tag("table", "habit_completion")
+                .register(meterRegistry);
+        this.purgedRollups = Counter.builder("user.purge.rows")
+                .description("Rows removed by the deleted-user purger")
+                .tag("table", "habit_completion_rollup")
+                .register(meterRegistry);
+        this.purgedUsers = Counter.builder("user.purge.users")
+                .description("Deleted users whose rows are fully purged")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("user.purge.chunk")
+                .description("Time spent deleting one chunk of a deleted user's rows")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${habit.purge.interval:1s}")
+    public void purge() {
+        try {
+            purgeChunks();
+        } catch (RuntimeException e) {
+            logger.warn("Purge of deleted users failed, it resumes on the next run: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Runs up to the per-run chunk budget and returns the number of chunks used.
+     */
+    public int purgeChunks() {
+        int chunks = 0;
+        List<Long> personIds = deletedPersonRepository.findOldestPersonIds(Limit.of(chunksPerRun));
+        pendingUsers.set(deletedPersonRepository.count());
+
+        for (Long personId : personIds) {
+            while (chunks < chunksPerRun) {
+                chunks++;
+                if (purgeChunk(personId)) {
+                    purgedUsers.increment();
+                    pendingUsers.decrementAndGet();
+                    logger.info("Purged all rows of deleted user {}", personId);
+                    break;
+                }
+            }
+            if (chunks >= chunksPerRun) {
+                break;
+            }
+        }
+        return chunks;
+    }
+
+    // Returns true once nothing of the user is left and the tombstone is gone
+    private boolean purgeChunk(long personId) {
+        ChunkResult result = chunkTimer.record(() -> transactionTemplate.execute(status -> {
+            int completions = habitCompletionRepository.deleteChunkByPersonId(personId, chunkSize);
+            if (completions == chunkSize) {
+                return new ChunkResult(completions, 0, 0, false);
+            }
+            int rollups = habitCompletionRollupRepository.deleteChunkByPersonId(personId, chunkSize - completions);
+            if (completions + rollups == chunkSize) {
+                return new ChunkResult(completions, rollups, 0, false);
+            }
+            int habits = habitRepository.deleteChunkByPersonId(personId, chunkSize - completions - rollups);
+            if (completions + rollups + habits == chunkSize) {
+                return new ChunkResult(completions, rollups, habits, false);
+            }
+            deletedPersonRepository.deleteById(personId);
+            return new ChunkResult(completions, rollups, habits, true);
+        }));
+        if (result == null) {
+            return false;
+        }
+        purgedCompletions.increment(result.completions());
+        purgedRollups.increment(result.rollups());
+        purgedHabits.increment(result.habits());
+        return result.done();
+    }
+
+    private record ChunkResult(int completions, int rollups, int habits, boolean done) {
+    }
+}
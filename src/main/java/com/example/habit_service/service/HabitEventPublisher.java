@@ -1,34 +1,59 @@
 package com.example.habit_service.service;
 
+import com.example.habit_service.dto.HabitEvent;
+import com.example.habit_service.dto.HabitEventType;
+import com.example.habit_service.entity.OutboxEvent;
+import com.example.habit_service.repository.OutboxEventRepository;
+import com.example.habit_service.util.HabitEventCodec;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+
+/**
+ * Records habit events in the outbox table as part of the caller's transaction.
+ * {@link OutboxRelay} ships them to Kafka once the transaction has committed.
+ * Events are keyed by person id, so all events of one user land on one partition in order.
+ */
 @Service
+@Timed(value = "habit.events.enqueue", description = "Time spent writing habit events to the outbox")
 public class HabitEventPublisher {
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    public static final String TOPIC = "habit-events";
+
+    private final OutboxEventRepository outboxEventRepository;
     private final Logger logger = LoggerFactory.getLogger(HabitEventPublisher.class);
 
-    public HabitEventPublisher(KafkaTemplate<String, String> kafkaTemplate) {
-        this.kafkaTemplate = kafkaTemplate;
+    public HabitEventPublisher(OutboxEventRepository outboxEventRepository) {
+        this.outboxEventRepository = outboxEventRepository;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishHabitCompleted(long habitId, long personId) {
+        enqueue(new HabitEvent(HabitEventType.COMPLETED, habitId, personId, Instant.now()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void habitDeleted(long habitId, long personId) {
+        enqueue(new HabitEvent(HabitEventType.DELETED, habitId, personId, Instant.now()));
     }
 
-    public void publishHabitCompleted(Long habitId) {
-        String message = "Habit completed: " + habitId;
-        kafkaTemplate.send("habit-events", message);
-        logger.info("Sent to Kafka: {}", message);
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void habitUpdated(long habitId, long personId) {
+        enqueue(new HabitEvent(HabitEventType.UPDATED, habitId, personId, Instant.now()));
     }
 
-    public void habitDeleted(Long habitId) {
-        String message = "Habit deleted: " + habitId;
-        kafkaTemplate.send("habit-events", message);
-        logger.info("Sent to Kafka: {}", message);
+    // Stamped with the time it was due rather than sent, which together with the habit id identifies the reminder
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reminderDue(long habitId, long personId, Instant dueAt) {
+        enqueue(new HabitEvent(HabitEventType.REMINDER_DUE, habitId, personId, dueAt));
     }
 
-    public void habitUpdated(Long habitId) {
-        String message = "Habit updated: " + habitId;
-        kafkaTemplate.send("habit-events", message);
-        logger.info("Sent to Kafka: {}", message);
+    private void enqueue(HabitEvent event) {
+        outboxEventRepository.save(new OutboxEvent(TOPIC, Long.toString(event.getPersonId()), HabitEventCodec.encode(event)));
+        logger.debug("Added to outbox: {}", event);
     }
 }
@@ -0,0 +1,113 @@
+package com.example.habit_service.service;
+
+import com.example.habit_service.dto.HabitImportErrorDTO;
+import com.example.habit_service.dto.HabitImportResultDTO;
+import com.example.habit_service.dto.HabitRequestDTO;
+import com.example.habit_service.util.HabitImportReader;
+import com.example.habit_service.util.HabitImportReader.Row;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports an upload of habits while it is still arriving. Rows are validated against the
+ * {@link HabitRequestDTO} constraints one by one and the valid ones are stored in chunks of
+ * {@code habit.import.chunk-size}, each in its own transaction, so memory and transaction size stay
+ * bounded however large the upload is. A rejected row or a failed chunk is reported and the import goes on.
+ */
+@Service
+public class HabitImportService {
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final HabitService habitService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final Logger logger = LoggerFactory.getLogger(HabitImportService.class);
+
+    public HabitImportService(HabitService habitService, Validator validator, ObjectMapper objectMapper,
+                              @Value("${habit.import.chunk-size:1000}") int chunkSize) {
+        this.habitService = habitService;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    public HabitImportResultDTO importHabits(long personId, Reader upload, HabitImportReader.Format format) throws IOException {
+        HabitImportReader reader = new HabitImportReader(upload, format, objectMapper);
+        Result result = new Result();
+        List<HabitRequestDTO> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+
+        Row row;
+        while ((row = reader.next()) != null) {
+            String error = row.error() != null ? row.error() : validate(row.habit());
+            if (error != null) {
+                result.fail(row.line(), error);
+                continue;
+            }
+            chunk.add(row.habit());
+            chunkLines.add(row.line());
+            if (chunk.size() == chunkSize) {
+                store(personId, chunk, chunkLines, result);
+            }
+        }
+        store(personId, chunk, chunkLines, result);
+
+        logger.info("Imported {} habits for person {}, {} rows failed", result.imported, personId, result.failed);
+        return new HabitImportResultDTO(result.imported, result.failed, result.errors);
+    }
+
+    private void store(long personId, List<HabitRequestDTO> chunk, List<Long> chunkLines, Result result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            result.imported += habitService.importHabits(personId, List.copyOf(chunk));
+        } catch (DataAccessException e) {
+            logger.warn("Import chunk of {} habits for person {} failed: {}", chunk.size(), personId, e.getMessage());
+            String error = "Could not store row: " + e.getMostSpecificCause().getMessage();
+            chunkLines.forEach(line -> result.fail(line, error));
+        }
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    private String validate(HabitRequestDTO habit) {
+        Set<ConstraintViolation<HabitRequestDTO>> violations = validator.validate(habit);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .collect(Collectors.joining("; "));
+    }
+
+    // Counts every failure but keeps only the first MAX_REPORTED_ERRORS, so a broken upload cannot grow the response without bound
+    private static final class Result {
+        private int imported;
+        private int failed;
+        private final List<HabitImportErrorDTO> errors = new ArrayList<>();
+
+        private void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new HabitImportErrorDTO(line, message));
+            }
+        }
+    }
+}
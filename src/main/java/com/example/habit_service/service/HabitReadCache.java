@@ -0,0 +1,112 @@
+package com.example.habit_service.service;
+
+import com.example.habit_service.dto.HabitResponseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * In-process cache of each person's habits, keyed by person id and indexed by habit id inside an entry,
+ * so both {@code /all-habits} and {@code /{id}} are served from one entry.
+ * Bounded by the total number of cached habits and by a TTL.
+ * <p>
+ * Writers evict the owner's entry after their transaction commits. Caffeine blocks an eviction until
+ * a load of the same key has finished, so a load that read the old rows can never outlive the eviction.
+ */
+@Component
+public class HabitReadCache {
+    private final Cache<Long, PersonHabits> habitsByPerson;
+
+    public HabitReadCache(@Value("${habit.cache.max-habits:100000}") long maxHabits,
+                          @Value("${habit.cache.ttl:5m}") Duration ttl,
+                          MeterRegistry meterRegistry) {
+        this.habitsByPerson = Caffeine.newBuilder()
+                .maximumWeight(maxHabits)
+                .<Long, PersonHabits>weigher((personId, habits) -> habits.byId.size() + 1)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, habitsByPerson, "habits.by-person");
+    }
+
+    /**
+     * Returns the cached entry, reloading it if it is older than {@code minVersion}. That only happens
+     * between a writer's commit and its eviction, when a caller has already seen the newer version.
+     */
+    public PersonHabits get(long personId, long minVersion, LongFunction<PersonHabits> loader) {
+        PersonHabits habits = habitsByPerson.get(personId, loader::apply);
+        if (habits.getVersion() < minVersion) {
+            habitsByPerson.invalidate(personId);
+            habits = habitsByPerson.get(personId, loader::apply);
+        }
+        return habits;
+    }
+
+    public PersonHabits getIfPresent(long personId) {
+        return habitsByPerson.getIfPresent(personId);
+    }
+
+    public void evict(long personId) {
+        afterCommit(() -> habitsByPerson.invalidate(personId));
+    }
+
+    public void evictAll(Collection<Long> personIds) {
+        afterCommit(() -> habitsByPerson.invalidateAll(personIds));
+    }
+
+    public void clear() {
+        habitsByPerson.invalidateAll();
+    }
+
+    private static void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+
+    /**
+     * A person's habits together with the aggregate version they were read at. The version is read
+     * before the rows, so it never claims more than the list contains and can safely back an ETag.
+     */
+    public static final class PersonHabits {
+        private final long version;
+        private final Map<Long, HabitResponseDTO> byId;
+
+        public PersonHabits(long version, List<HabitResponseDTO> habits) {
+            this.version = version;
+            this.byId = new LinkedHashMap<>();
+            habits.forEach(habit -> byId.put(habit.getId(), habit));
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public List<HabitResponseDTO> getHabits() {
+            return List.copyOf(byId.values());
+        }
+
+        public HabitResponseDTO getHabit(long habitId) {
+            return byId.get(habitId);
+        }
+    }
+}
@@ -1,93 +1,476 @@
 package com.example.habit_service.service;
 
+import com.example.habit_service.dto.HabitBulkRequestDTO;
+import com.example.habit_service.dto.HabitCompletionDTO;
+import com.example.habit_service.dto.HabitPageDTO;
 import com.example.habit_service.dto.HabitRequestDTO;
 import com.example.habit_service.dto.HabitResponseDTO;
+import com.example.habit_service.dto.HabitSearchPageDTO;
+import com.example.habit_service.dto.HabitSearchResultDTO;
+import com.example.habit_service.dto.HabitStreakDTO;
+import com.example.habit_service.dto.StatsGranularity;
 import com.example.habit_service.dto.HabitUpdateDTO;
 import com.example.habit_service.entity.Habit;
+import com.example.habit_service.entity.HabitCompletion;
+import com.example.habit_service.exception.BadRequestException;
+import com.example.habit_service.exception.ConflictException;
+import com.example.habit_service.exception.PreconditionFailedException;
 import com.example.habit_service.mapper.HabitMapper;
+import com.example.habit_service.repository.HabitBulkLoader;
+import com.example.habit_service.repository.HabitCompletionRepository;
+import com.example.habit_service.repository.HabitCompletionRollupRepository;
+import com.example.habit_service.repository.HabitOwnerVersionRepository;
 import com.example.habit_service.repository.HabitRepository;
+import com.example.habit_service.security.HabitSecurity;
 import com.example.habit_service.security.JWTFilter;
-import jakarta.persistence.EntityNotFoundException;
-import jakarta.ws.rs.BadRequestException;
+import com.example.habit_service.service.HabitReadCache.PersonHabits;
+import com.example.habit_service.util.CursorCodec;
+import com.example.habit_service.util.ReminderTimes;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authorization.AuthorizationDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 @Service
+@Timed(value = "habit.service", description = "Time spent in HabitService methods")
 public class HabitService {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int DEFAULT_SEARCH_LIMIT = 20;
+    public static final int MAX_QUERY_LENGTH = 100;
+
     private final HabitRepository habitRepository;
+    private final HabitCompletionRepository habitCompletionRepository;
+    private final HabitCompletionRollupRepository habitCompletionRollupRepository;
+    private final HabitOwnerVersionRepository habitOwnerVersionRepository;
     private final HabitMapper habitMapper;
+    private final HabitSecurity habitSecurity;
+    private final HabitEventPublisher publisher;
+    private final HabitReadCache habitReadCache;
+    private final HabitBulkLoader habitBulkLoader;
+    private final ReplicaStalenessGuard stalenessGuard;
+    private final StreakLeaderboard streakLeaderboard;
+    private final TransactionTemplate readOnlyTransaction;
     private final Logger logger = LoggerFactory.getLogger(HabitService.class);
 
-    public HabitService(HabitRepository habitRepository, HabitMapper habitMapper) {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public HabitService(HabitRepository habitRepository, HabitCompletionRepository habitCompletionRepository,
+                        HabitCompletionRollupRepository habitCompletionRollupRepository,
+                        HabitOwnerVersionRepository habitOwnerVersionRepository, HabitMapper habitMapper, HabitSecurity habitSecurity, HabitEventPublisher publisher,
+                        HabitReadCache habitReadCache, HabitBulkLoader habitBulkLoader,
+                        ReplicaStalenessGuard stalenessGuard, StreakLeaderboard streakLeaderboard,
+                        PlatformTransactionManager transactionManager) {
         this.habitRepository = habitRepository;
+        this.habitCompletionRepository = habitCompletionRepository;
+        this.habitCompletionRollupRepository = habitCompletionRollupRepository;
+        this.habitOwnerVersionRepository = habitOwnerVersionRepository;
         this.habitMapper = habitMapper;
+        this.habitSecurity = habitSecurity;
+        this.publisher = publisher;
+        this.habitReadCache = habitReadCache;
+        this.habitBulkLoader = habitBulkLoader;
+        this.stalenessGuard = stalenessGuard;
+        this.streakLeaderboard = streakLeaderboard;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
-    @Transactional(readOnly = true)
     @PreAuthorize("isAuthenticated()")
     public List<HabitResponseDTO> getAllHabitsByPersonId(long personId) {
-        logger.info("getAllHabitsByPersonId started");
-        return habitRepository.findByPersonId(personId).stream().map(habitMapper::toResponseDTO).toList();
+        return getAllHabitsByPersonId(personId, 0L);
+    }
+
+    /**
+     * Returns the person's habits as of {@code minVersion} or later.
+     * Not transactional on purpose: a cache hit must not check out a database connection.
+     */
+    @PreAuthorize("isAuthenticated()")
+    public List<HabitResponseDTO> getAllHabitsByPersonId(long personId, long minVersion) {
+        logger.debug("Loading habits of person {} at version {} or later", personId, minVersion);
+        return habitReadCache.get(personId, minVersion, this::loadPersonHabits).getHabits();
+    }
+
+    /**
+     * Aggregate version of the person's habit list, answered from the cache or from a single
+     * scalar query, so a conditional GET that ends in 304 never loads a habit.
+     */
+    @PreAuthorize("isAuthenticated()")
+    public long getHabitsVersion(long personId) {
+        PersonHabits cached = habitReadCache.getIfPresent(personId);
+        return cached != null ? cached.getVersion() : readOnly(() -> habitOwnerVersionRepository.findVersion(personId)).orElse(0L);
+    }
+
+    /**
+     * Version of one of the current user's habits, empty if the habit is missing or not theirs.
+     */
+    @PreAuthorize("isAuthenticated()")
+    public Optional<Long> getHabitVersion(long habitId) {
+        long personId = habitSecurity.currentUserId();
+        HabitResponseDTO cached = findCachedHabit(personId, habitId);
+        return cached != null ? Optional.of(cached.getVersion())
+                : readOnly(() -> habitRepository.findVersionByIdAndPersonId(habitId, personId));
+    }
+
+    @Transactional(readOnly = true)
+    @PreAuthorize("isAuthenticated()")
+    public HabitPageDTO getHabitPage(long personId, String after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        long afterId = CursorCodec.decode(after);
+
+        // One extra row tells us whether another page exists without a count query
+        List<Habit> habits = habitRepository.findByPersonIdAndIdGreaterThanOrderByIdAsc(personId, afterId, Limit.of(limit + 1));
+        boolean hasMore = habits.size() > limit;
+        List<Habit> page = hasMore ? habits.subList(0, limit) : habits;
+
+        String nextCursor = hasMore ? CursorCodec.encode(page.get(page.size() - 1).getId()) : null;
+        return new HabitPageDTO(habitMapper.toResponseDTOList(page), nextCursor);
     }
 
+    /**
+     * A page of the person's habits whose name or description contains {@code query}, case-insensitively,
+     * best match first. Pages are keyed by match and id, so later pages cost no more than the first.
+     */
     @Transactional(readOnly = true)
-    @PreAuthorize("@habitSecurity.isOwner(#habitId)")
+    @PreAuthorize("isAuthenticated()")
+    public HabitSearchPageDTO searchHabits(long personId, String query, String after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        String term = query == null ? "" : query.strip().toLowerCase(Locale.ROOT);
+        if (term.isEmpty() || term.length() > MAX_QUERY_LENGTH) {
+            throw new BadRequestException("Query must be between 1 and " + MAX_QUERY_LENGTH + " characters");
+        }
+        CursorCodec.SearchPosition position = CursorCodec.decodeSearch(after);
+
+        String escaped = term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        List<HabitSearchResultDTO> results = habitRepository.search(personId, term, escaped + "%", "% " + escaped + "%",
+                "%" + escaped + "%", position.lastMatch(), position.lastId(), Limit.of(limit + 1));
+        boolean hasMore = results.size() > limit;
+        List<HabitSearchResultDTO> page = hasMore ? results.subList(0, limit) : results;
+
+        HabitSearchResultDTO last = hasMore ? page.get(page.size() - 1) : null;
+        return new HabitSearchPageDTO(page, last == null ? null : CursorCodec.encodeSearch(last.getMatch(), last.getId()));
+    }
+
+    /**
+     * Pushes every habit of the person to the sink while the JDBC cursor is open.
+     * Entities are detached as soon as they are mapped, so the persistence context stays empty.
+     */
+    @Transactional(readOnly = true)
+    @PreAuthorize("isAuthenticated()")
+    public void streamAllHabitsByPersonId(long personId, Consumer<HabitResponseDTO> sink) {
+        try (Stream<Habit> habits = habitRepository.streamByPersonIdOrderByIdAsc(personId)) {
+            habits.forEach(habit -> {
+                sink.accept(habitMapper.toResponseDTO(habit));
+                entityManager.detach(habit);
+            });
+        }
+    }
+
+    /**
+     * Pushes everything stored about the person to the sinks: habits first, then the completion history.
+     * Both come from server-side cursors as DTOs, so memory stays flat however long the history is,
+     * and REPEATABLE READ gives the two cursors one snapshot.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    @PreAuthorize("isAuthenticated()")
+    public void exportPersonData(long personId, Consumer<HabitResponseDTO> habitSink,
+                                 Consumer<HabitCompletionDTO> completionSink) {
+        try (Stream<HabitResponseDTO> habits = habitRepository.streamResponsesByPersonId(personId)) {
+            habits.forEach(habitSink);
+        }
+        try (Stream<HabitCompletionDTO> completions = habitCompletionRepository.streamByPersonId(personId)) {
+            completions.forEach(completionSink);
+        }
+    }
+
+    @PreAuthorize("isAuthenticated()")
     public HabitResponseDTO getHabitById(long habitId) {
-        Habit foundHabit = habitRepository.findById(habitId)
-                .orElseThrow(() -> new EntityNotFoundException("Habit with this id can't be found!"));
+        return getHabitById(habitId, 0L);
+    }
 
-        return habitMapper.toResponseDTO(foundHabit);
+    @PreAuthorize("isAuthenticated()")
+    public HabitResponseDTO getHabitById(long habitId, long minVersion) {
+        long personId = habitSecurity.currentUserId();
+        HabitResponseDTO cached = findCachedHabit(personId, habitId);
+        if (cached != null && cached.getVersion() >= minVersion) {
+            return cached;
+        }
+        return readOnly(() -> habitRepository.findResponseByIdAndPersonId(habitId, personId))
+                .orElseThrow(() -> new AuthorizationDeniedException("Access Denied"));
     }
 
     @Transactional
     @PreAuthorize("isAuthenticated()")
     public HabitResponseDTO createHabit(Long id, HabitRequestDTO dto) {
-        logger.info("Mapping HabitRequestDTO to Habit");
-        logger.debug("DTO name: {}", dto.getName());
         Habit habit = habitMapper.toEntity(dto);
-        logger.debug("habitRequestDTO successfully mapped to Habit in service.");
-        logger.info(habit.getName());
         habit.setCreatedAt(LocalDate.now());
         habit.setPersonId(id);
+        scheduleReminder(habit, Instant.now());
         habitRepository.save(habit);
-       logger.info("habit saved successfully in service");
+        touchOwner(id);
+        logger.info("Habit {} created for person {}", habit.getId(), id);
         return habitMapper.toResponseDTO(habit);
     }
 
+    /**
+     * Ids come from the pooled habit_id_seq, so the inserts are flushed as JDBC batches
+     * of hibernate.jdbc.batch_size rows instead of one round trip per habit.
+     */
+    @Transactional
+    @PreAuthorize("isAuthenticated()")
+    public List<HabitResponseDTO> createHabits(Long id, HabitBulkRequestDTO dto) {
+        LocalDate createdAt = LocalDate.now();
+        Instant now = Instant.now();
+        List<Habit> habits = dto.getHabits().stream()
+                .map(habitDto -> {
+                    Habit habit = habitMapper.toEntity(habitDto);
+                    habit.setCreatedAt(createdAt);
+                    habit.setPersonId(id);
+                    scheduleReminder(habit, now);
+                    return habit;
+                })
+                .toList();
+
+        List<Habit> saved = habitRepository.saveAll(habits);
+        touchOwner(id);
+        logger.debug("{} habits saved for person {}", saved.size(), id);
+        return habitMapper.toResponseDTOList(saved);
+    }
+
+    /**
+     * Stores one chunk of an import in its own transaction, through COPY on PostgreSQL.
+     * The rows must already be validated.
+     */
     @Transactional
-    @PreAuthorize("@habitSecurity.isOwner(#habitId)")
+    @PreAuthorize("isAuthenticated()")
+    public int importHabits(long personId, List<HabitRequestDTO> habits) {
+        int imported = habitBulkLoader.load(personId, habits, LocalDate.now());
+        touchOwner(personId);
+        return imported;
+    }
+
+    @Transactional
+    @PreAuthorize("isAuthenticated()")
     public void deleteHabit(long habitId) {
-        habitRepository.deleteById(habitId);
+        long personId = habitSecurity.currentUserId();
+        if (habitRepository.deleteByIdAndPersonId(habitId, personId) == 0) {
+            throw new AuthorizationDeniedException("Access Denied");
+        }
+        habitCompletionRepository.deleteAllByHabitId(habitId);
+        habitCompletionRollupRepository.deleteAllByHabitId(habitId);
+        streakLeaderboard.removeHabit(habitId);
+        touchOwner(personId);
+        publisher.habitDeleted(habitId, personId);
     }
 
     @Transactional
-    @PreAuthorize("@habitSecurity.isOwner(#habitId)")
+    @PreAuthorize("isAuthenticated()")
     public HabitResponseDTO updateHabit(long habitId, HabitUpdateDTO dto) {
-        Habit habitToUpdate = habitRepository.findById(habitId)
-                .orElseThrow(() -> new EntityNotFoundException("Habit with id " + habitId + " not found"));
+        return updateHabit(habitId, dto, null);
+    }
 
+    /**
+     * Patches the habit if it is at one of {@code acceptedVersions}, or at any version when that is null.
+     * Only the current version can match, so with several listed it is looked up and, if among them, becomes
+     * the expected version of the conditional UPDATE; a single one goes to the UPDATE as is.
+     */
+    @Transactional
+    @PreAuthorize("isAuthenticated()")
+    public HabitResponseDTO updateHabitIfMatches(long habitId, HabitUpdateDTO dto, List<Long> acceptedVersions) {
+        if (acceptedVersions == null || acceptedVersions.size() == 1) {
+            return updateHabit(habitId, dto, acceptedVersions == null ? null : acceptedVersions.get(0));
+        }
+        long currentVersion = habitRepository.findVersionByIdAndPersonId(habitId, habitSecurity.currentUserId())
+                .orElseThrow(() -> new AuthorizationDeniedException("Access Denied"));
+        if (!acceptedVersions.contains(currentVersion)) {
+            throw new PreconditionFailedException("Habit with id " + habitId + " is at version " + currentVersion
+                    + ", not any of " + acceptedVersions);
+        }
+        return updateHabit(habitId, dto, currentVersion);
+    }
+
+    /**
+     * Patches the habit with a single conditional UPDATE instead of read-modify-write.
+     * With {@code expectedVersion} set, a concurrent change fails the precondition instead of being overwritten;
+     * without it, only the fields present in the patch are written, so concurrent patches of different fields merge.
+     */
+    @Transactional
+    @PreAuthorize("isAuthenticated()")
+    public HabitResponseDTO updateHabit(long habitId, HabitUpdateDTO dto, Long expectedVersion) {
         boolean allFieldsNull = Stream.of(
                 dto.getName(),
                 dto.getDescription(),
                 dto.getActive(),
-                dto.getPersonId()
+                dto.getPersonId(),
+                dto.getReminderTime(),
+                dto.getReminderZone()
         ).allMatch(Objects::isNull);
 
         if (allFieldsNull) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Nothing to update");
         }
 
-        habitMapper.updateHabitFromDtoWithFixedFields(dto, habitToUpdate);
-        return habitMapper.toResponseDTO(habitRepository.save(habitToUpdate));
+        long personId = habitSecurity.currentUserId();
+        // Read before the UPDATE; only used if it is at the very version the UPDATE matched
+        HabitResponseDTO cached = findCachedHabit(personId, habitId);
+
+        int updated = habitRepository.updateIfVersionMatches(habitId, personId, expectedVersion,
+                dto.getName(), dto.getDescription(), dto.getActive(), dto.getPersonId(),
+                dto.getReminderTime(), dto.getReminderZone());
+        if (updated == 0) {
+            // Only failures pay for a second look, to tell a foreign habit from a stale version
+            long currentVersion = habitRepository.findVersionByIdAndPersonId(habitId, personId)
+                    .orElseThrow(() -> new AuthorizationDeniedException("Access Denied"));
+            throw new PreconditionFailedException("Habit with id " + habitId + " is at version " + currentVersion
+                    + ", not " + expectedVersion);
+        }
+
+        HabitResponseDTO response = toUpdatedResponse(habitId, dto, expectedVersion, cached);
+        if (dto.getReminderTime() != null || dto.getReminderZone() != null || dto.getActive() != null) {
+            rescheduleReminder(habitId, response);
+        }
+        touchOwner(personId);
+        if (response.getPersonId() != personId) {
+            // Completions and rollups carry the owner for the deleted-user purge and filter, so they move along
+            habitCompletionRepository.updatePersonIdByHabitId(habitId, response.getPersonId());
+            habitCompletionRollupRepository.updatePersonIdByHabitId(habitId, response.getPersonId());
+            touchOwner(response.getPersonId());
+        }
+        publisher.habitUpdated(habitId, response.getPersonId());
+        return response;
+    }
+
+    /**
+     * Records today's check-in and advances the streak counters kept on the habit row and the day, week
+     * and month rollups, so neither streaks nor statistics ever rescan the completion log.
+     */
+    @Transactional
+    @PreAuthorize("isAuthenticated()")
+    public HabitStreakDTO completeHabit(long habitId) {
+        Habit habit = habitRepository.findByIdAndPersonIdForUpdate(habitId, habitSecurity.currentUserId())
+                .orElseThrow(() -> new AuthorizationDeniedException("Access Denied"));
+
+        LocalDate today = LocalDate.now();
+        LocalDate lastCompletedOn = habit.getLastCompletedOn();
+        if (today.equals(lastCompletedOn)) {
+            throw new ConflictException("Habit with id " + habitId + " is already completed today");
+        }
+
+        int currentStreak = today.minusDays(1).equals(lastCompletedOn) ? habit.getCurrentStreak() + 1 : 1;
+        habit.setCurrentStreak(currentStreak);
+        habit.setLongestStreak(Math.max(habit.getLongestStreak(), currentStreak));
+        habit.setLastCompletedOn(today);
+
+        habitCompletionRepository.save(new HabitCompletion(habit.getId(), habit.getPersonId(), today));
+        for (StatsGranularity granularity : StatsGranularity.values()) {
+            habitCompletionRollupRepository.increment(habit.getId(), granularity.name(), granularity.periodStart(today), habit.getPersonId());
+        }
+        streakLeaderboard.recordCompletion(habit.getId(), habit.getPersonId(), currentStreak, today);
+        touchOwner(habit.getPersonId());
+        publisher.publishHabitCompleted(habitId, habit.getPersonId());
+        return toStreakDTO(habit, today);
+    }
+
+    @Transactional(readOnly = true)
+    @PreAuthorize("isAuthenticated()")
+    public HabitStreakDTO getStreak(long habitId) {
+        Habit habit = findOwnedHabit(habitId);
+
+        return toStreakDTO(habit, LocalDate.now());
+    }
+
+    // Version first: the rows read afterwards are at least as new as it, so the pair can back an ETag.
+    // One transaction, so both come from the same database even when reads go to replicas.
+    private PersonHabits loadPersonHabits(long personId) {
+        return readOnly(() -> {
+            long version = habitOwnerVersionRepository.findVersion(personId).orElse(0L);
+            return new PersonHabits(version, habitRepository.findResponsesByPersonId(personId));
+        });
+    }
+
+    // Read paths that skip @Transactional so cache hits stay connection-free; a miss still reads read-only
+    private <T> T readOnly(Supplier<T> query) {
+        return readOnlyTransaction.execute(status -> query.get());
+    }
+
+    // A cached copy at the expected version is exactly the row the UPDATE matched, so the patch can be replayed on it
+    private HabitResponseDTO toUpdatedResponse(long habitId, HabitUpdateDTO dto, Long expectedVersion,
+                                               HabitResponseDTO cached) {
+        if (cached != null && expectedVersion != null && cached.getVersion() == expectedVersion) {
+            HabitResponseDTO response = habitMapper.copy(cached);
+            habitMapper.applyUpdate(dto, response);
+            response.setVersion(expectedVersion + 1);
+            return response;
+        }
+        return habitRepository.findById(habitId)
+                .map(habitMapper::toResponseDTO)
+                .orElseThrow(() -> new AuthorizationDeniedException("Access Denied"));
+    }
+
+    private static void scheduleReminder(Habit habit, Instant now) {
+        habit.setNextReminderAt(ReminderTimes.next(habit.getReminderTime(), habit.getReminderZone(), habit.isActive(), now));
+    }
+
+    // Runs inside the update's transaction, so a half-configured reminder rolls the whole patch back
+    private void rescheduleReminder(long habitId, HabitResponseDTO habit) {
+        if ((habit.getReminderTime() == null) != (habit.getReminderZone() == null)) {
+            throw new BadRequestException("Reminder time and zone must be given together");
+        }
+        habitRepository.updateNextReminderAt(habitId, ReminderTimes.next(habit.getReminderTime(),
+                habit.getReminderZone(), habit.isActive(), Instant.now()));
+    }
+
+    private HabitResponseDTO findCachedHabit(long personId, long habitId) {
+        PersonHabits cached = habitReadCache.getIfPresent(personId);
+        return cached == null ? null : cached.getHabit(habitId);
+    }
+
+    // Every write to a person's habits moves their list version forward, drops their cached list
+    // and keeps their reads on the primary until replicas have caught up
+    private void touchOwner(long personId) {
+        habitOwnerVersionRepository.increment(personId);
+        habitReadCache.evict(personId);
+        stalenessGuard.recordWrite(personId);
+    }
+
+    // Missing and foreign habits are indistinguishable here, both are reported as access denied
+    private Habit findOwnedHabit(long habitId) {
+        return habitRepository.findByIdAndPersonId(habitId, habitSecurity.currentUserId())
+                .orElseThrow(() -> new AuthorizationDeniedException("Access Denied"));
+    }
+
+    // The stored streak is only advanced on check-in, so a missed day is applied when reading
+    private static HabitStreakDTO toStreakDTO(Habit habit, LocalDate today) {
+        LocalDate lastCompletedOn = habit.getLastCompletedOn();
+        boolean alive = lastCompletedOn != null && !lastCompletedOn.isBefore(today.minusDays(1));
+
+        return new HabitStreakDTO(habit.getId(), alive ? habit.getCurrentStreak() : 0,
+                habit.getLongestStreak(), lastCompletedOn);
     }
 }
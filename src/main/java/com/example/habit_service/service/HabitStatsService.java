@@ -0,0 +1,119 @@
+package com.example.habit_service.service;
+
+import com.example.habit_service.dto.HabitStatsDTO;
+import com.example.habit_service.dto.HabitStatsPeriodDTO;
+import com.example.habit_service.dto.StatsGranularity;
+import com.example.habit_service.entity.HabitCompletionRollup;
+import com.example.habit_service.exception.BadRequestException;
+import com.example.habit_service.repository.HabitCompletionRollupRepository;
+import com.example.habit_service.repository.HabitRepository;
+import com.example.habit_service.security.HabitSecurity;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authorization.AuthorizationDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Completion statistics answered from the rollups {@link HabitService#completeHabit} maintains, never from
+ * the completion log. Periods wholly inside the range come from the rollup of the requested granularity;
+ * the range cuts at most the first and the last period, and those are summed from day rollups.
+ * Any range thus costs at most three index range reads.
+ */
+@Service
+@Timed(value = "habit.stats", description = "Time spent computing habit statistics")
+public class HabitStatsService {
+    public static final int MAX_PERIODS = 366;
+
+    private final HabitRepository habitRepository;
+    private final HabitCompletionRollupRepository rollupRepository;
+    private final HabitSecurity habitSecurity;
+
+    public HabitStatsService(HabitRepository habitRepository, HabitCompletionRollupRepository rollupRepository,
+                             HabitSecurity habitSecurity) {
+        this.habitRepository = habitRepository;
+        this.rollupRepository = rollupRepository;
+        this.habitSecurity = habitSecurity;
+    }
+
+    /**
+     * Days before the habit was created or after today are not counted, so they cannot drag the rate down.
+     * A range with no such day at all, one lying wholly in the future or before the habit, has no periods.
+     */
+    @Transactional(readOnly = true)
+    @PreAuthorize("isAuthenticated()")
+    public HabitStatsDTO getStats(long habitId, LocalDate from, LocalDate to, String granularity) {
+        StatsGranularity periodLength = parseGranularity(granularity);
+        if (from.isAfter(to)) {
+            throw new BadRequestException("from must not be after to");
+        }
+        LocalDate createdAt = habitRepository.findCreatedAtByIdAndPersonId(habitId, habitSecurity.currentUserId())
+                .orElseThrow(() -> new AuthorizationDeniedException("Access Denied"));
+
+        LocalDate start = createdAt.isAfter(from) ? createdAt : from;
+        LocalDate today = LocalDate.now();
+        LocalDate end = today.isBefore(to) ? today : to;
+        if (start.isAfter(end)) {
+            return new HabitStatsDTO(habitId, from, to, periodLength, List.of());
+        }
+
+        List<Period> periods = new ArrayList<>();
+        for (LocalDate periodStart = periodLength.periodStart(start); !periodStart.isAfter(end);
+             periodStart = periodLength.periodEnd(periodStart).plusDays(1)) {
+            if (periods.size() == MAX_PERIODS) {
+                throw new BadRequestException("The range spans more than " + MAX_PERIODS + " periods, "
+                        + "use a coarser granularity or a shorter range");
+            }
+            LocalDate periodEnd = periodLength.periodEnd(periodStart);
+            periods.add(new Period(periodStart, periodEnd,
+                    periodStart.isBefore(start) ? start : periodStart,
+                    periodEnd.isAfter(end) ? end : periodEnd));
+        }
+
+        List<Period> whole = periods.stream().filter(Period::isWhole).toList();
+        Map<LocalDate, Integer> wholeCompletions = whole.isEmpty() ? Map.of()
+                : rollupRepository.findPeriods(habitId, periodLength, whole.get(0).start(), whole.get(whole.size() - 1).start())
+                .stream()
+                .collect(Collectors.toMap(HabitCompletionRollup::getPeriodStart, HabitCompletionRollup::getCompletions));
+
+        List<HabitStatsPeriodDTO> result = periods.stream()
+                .map(period -> new HabitStatsPeriodDTO(period.from(), period.to(),
+                        period.isWhole() ? wholeCompletions.getOrDefault(period.start(), 0) : countDays(habitId, period),
+                        period.days()))
+                .toList();
+        return new HabitStatsDTO(habitId, from, to, periodLength, result);
+    }
+
+    private int countDays(long habitId, Period period) {
+        return rollupRepository.findPeriods(habitId, StatsGranularity.DAY, period.from(), period.to()).stream()
+                .mapToInt(HabitCompletionRollup::getCompletions)
+                .sum();
+    }
+
+    private static StatsGranularity parseGranularity(String granularity) {
+        try {
+            return StatsGranularity.valueOf(granularity.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Granularity must be one of " + Arrays.toString(StatsGranularity.values()));
+        }
+    }
+
+    // A calendar period and the part of it the statistics count
+    private record Period(LocalDate start, LocalDate end, LocalDate from, LocalDate to) {
+        boolean isWhole() {
+            return from.equals(start) && to.equals(end);
+        }
+
+        int days() {
+            return Math.toIntExact(to.toEpochDay() - from.toEpochDay() + 1);
+        }
+    }
+}
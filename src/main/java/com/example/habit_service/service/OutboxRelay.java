@@ -0,0 +1,131 @@
+package com.example.habit_service.service;
+
+import com.example.habit_service.entity.OutboxEvent;
+import com.example.habit_service.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox table to Kafka. Every linger interval it sends pending events in batches,
+ * waits for the broker to acknowledge the whole batch and deletes it in one statement.
+ * A failed batch stays in the table and is retried on the next run, so delivery is at least once.
+ * <p>
+ * Each batch first takes a database-wide advisory lock, so with several instances only one of them relays at a
+ * time and events go out strictly in id order, which keeps every person's events in order on their partition.
+ */
+@Component
+@ConditionalOnProperty(prefix = "habit.outbox.relay", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration sendTimeout;
+
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter relayedEvents;
+    private final DistributionSummary batchSizes;
+    private final Timer sendTimer;
+    private final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       KafkaTemplate<String, byte[]> kafkaTemplate,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${habit.outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${habit.outbox.relay.send-timeout:10s}") Duration sendTimeout) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+
+        Gauge.builder("outbox.relay.lag", lagMillis, value -> value.get() / 1000.0)
+                .description("Age of the oldest event waiting in the outbox")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.relayedEvents = Counter.builder("outbox.relay.events")
+                .description("Events sent to Kafka by the outbox relay")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("outbox.relay.batch.size")
+                .description("Number of events sent per relay batch")
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("outbox.relay.send")
+                .description("Time from sending a relay batch to Kafka until the broker acknowledged all of it")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${habit.outbox.relay.linger:200ms}")
+    public void relay() {
+        try {
+            int sent;
+            do {
+                sent = relayBatch();
+            } while (sent == batchSize);
+        } catch (RuntimeException e) {
+            logger.warn("Outbox relay failed, pending events will be retried: {}", e.getMessage());
+        }
+    }
+
+    public int relayBatch() {
+        Integer sent = transactionTemplate.execute(status -> {
+            if (!outboxEventRepository.tryLockForRelay()) {
+                logger.debug("Another instance is relaying the outbox");
+                return 0;
+            }
+            List<OutboxEvent> batch = outboxEventRepository.findBatchForRelay(Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                lagMillis.set(0);
+                return 0;
+            }
+            lagMillis.set(Duration.between(batch.get(0).getCreatedAt(), Instant.now()).toMillis());
+
+            sendTimer.record(() -> awaitAcks(batch.stream()
+                    .<CompletableFuture<?>>map(event -> kafkaTemplate.send(event.getTopic(), event.getEventKey(), event.getPayload()))
+                    .toList()));
+
+            outboxEventRepository.deleteAllByIdInBatch(batch.stream().map(OutboxEvent::getId).toList());
+            return batch.size();
+        });
+
+        if (sent != null && sent > 0) {
+            relayedEvents.increment(sent);
+            batchSizes.record(sent);
+            logger.debug("Relayed {} outbox events", sent);
+        }
+        return sent == null ? 0 : sent;
+    }
+
+    private void awaitAcks(List<CompletableFuture<?>> acks) {
+        try {
+            CompletableFuture.allOf(acks.toArray(CompletableFuture[]::new))
+                    .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Kafka acknowledgements", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Kafka did not acknowledge the outbox batch", e);
+        }
+    }
+}
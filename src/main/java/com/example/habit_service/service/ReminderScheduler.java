@@ -0,0 +1,198 @@
+package com.example.habit_service.service;
+
+import com.example.habit_service.dto.HabitReminderDTO;
+import com.example.habit_service.repository.HabitRepository;
+import com.example.habit_service.util.ReminderTimes;
+import com.example.habit_service.util.TimerWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fires habit reminders. Every slice it loads the reminders of its shard due within the next two slices
+ * into an in-memory {@link TimerWheel}; every tick it takes what the wheel has expired and, batch by batch
+ * in one transaction each, moves every reminder's due time forward with a compare-and-set and records a
+ * REMINDER_DUE event in the outbox, which {@link OutboxRelay} ships to Kafka in batches.
+ * <p>
+ * Instances pick their shard through {@code habit.reminders.shard} and {@code shard-count}. Nothing else
+ * is shared between them: the compare-and-set lets exactly one firing through even while shards overlap
+ * during a redeploy, and the due times in the table survive restarts. Reminders that come up later than
+ * {@code max-lateness}, for instance because their shard had no instance, are moved on without an event.
+ */
+@Component
+@ConditionalOnProperty(prefix = "habit.reminders", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ReminderScheduler {
+    static final int WHEEL_SIZE = 64;
+    static final int WHEEL_LEVELS = 3;
+
+    private final HabitRepository habitRepository;
+    private final HabitEventPublisher publisher;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration slice;
+    private final Duration maxLateness;
+    private final int batchSize;
+    private final int loadLimit;
+    private final int shard;
+    private final int shardCount;
+
+    private final TimerWheel<HabitReminderDTO> wheel;
+    // Due time each loaded habit sits in the wheel with, so reloading the same slice adds nothing twice
+    private final Map<Long, Instant> scheduled = new HashMap<>();
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Counter firedReminders;
+    private final Counter lateReminders;
+    private final Counter supersededReminders;
+    private final Logger logger = LoggerFactory.getLogger(ReminderScheduler.class);
+
+    public ReminderScheduler(HabitRepository habitRepository,
+                             HabitEventPublisher publisher,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${habit.reminders.tick:1s}") Duration tick,
+                             @Value("${habit.reminders.slice:1m}") Duration slice,
+                             @Value("${habit.reminders.max-lateness:15m}") Duration maxLateness,
+                             @Value("${habit.reminders.batch-size:500}") int batchSize,
+                             @Value("${habit.reminders.load-limit:50000}") int loadLimit,
+                             @Value("${habit.reminders.shard:0}") int shard,
+                             @Value("${habit.reminders.shard-count:1}") int shardCount) {
+        if (shardCount < 1 || shard < 0 || shard >= shardCount) {
+            throw new IllegalArgumentException("Reminder shard must be between 0 and shard-count - 1, got "
+                    + shard + " of " + shardCount);
+        }
+        this.habitRepository = habitRepository;
+        this.publisher = publisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.slice = slice;
+        this.maxLateness = maxLateness;
+        this.batchSize = batchSize;
+        this.loadLimit = loadLimit;
+        this.shard = shard;
+        this.shardCount = shardCount;
+
+        this.wheel = new TimerWheel<>(tick.toMillis(), WHEEL_SIZE, WHEEL_LEVELS, System.currentTimeMillis());
+        if (wheel.getHorizonMillis() <= slice.multipliedBy(2).toMillis()) {
+            throw new IllegalArgumentException("Reminder slice " + slice + " is too long for a tick of " + tick);
+        }
+
+        Gauge.builder("habit.reminders.pending", pending, AtomicInteger::get)
+                .description("Reminders loaded into the timer wheel and not yet due")
+                .register(meterRegistry);
+        this.firedReminders = Counter.builder("habit.reminders")
+                .description("Reminders taken from the timer wheel, by what became of them")
+                .tag("outcome", "fired")
+                .register(meterRegistry);
+        this.lateReminders = Counter.builder("habit.reminders")
+                .description("Reminders taken from the timer wheel, by what became of them")
+                .tag("outcome", "late")
+                .register(meterRegistry);
+        this.supersededReminders = Counter.builder("habit.reminders")
+                .description("Reminders taken from the timer wheel, by what became of them")
+                .tag("outcome", "superseded")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${habit.reminders.slice:1m}")
+    public void load() {
+        try {
+            loadSlice(Instant.now());
+        } catch (RuntimeException e) {
+            logger.warn("Loading reminders failed, they are picked up by the next slice: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${habit.reminders.tick:1s}")
+    public void tick() {
+        try {
+            fireDue(Instant.now());
+        } catch (RuntimeException e) {
+            logger.warn("Firing reminders failed, they are reloaded with the next slice: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the shard's reminders due before {@code now} plus two slices and returns how many were new to the wheel.
+     * Reads may go to a replica: a stale row at worst loads a reminder whose compare-and-set then fails.
+     */
+    public synchronized int loadSlice(Instant now) {
+        Instant horizon = now.plus(slice.multipliedBy(2));
+        List<HabitReminderDTO> reminders = readOnlyTransaction.execute(status ->
+                habitRepository.findDueReminders(horizon, shardCount, shard, Limit.of(loadLimit)));
+        int added = 0;
+        for (HabitReminderDTO reminder : reminders == null ? List.<HabitReminderDTO>of() : reminders) {
+            if (reminder.getDueAt().equals(scheduled.put(reminder.getHabitId(), reminder.getDueAt()))) {
+                continue;
+            }
+            wheel.schedule(reminder, reminder.getDueAt().toEpochMilli());
+            added++;
+        }
+        pending.set(wheel.size());
+        logger.debug("Loaded {} reminders of shard {}/{} due before {}", added, shard, shardCount, horizon);
+        return added;
+    }
+
+    /**
+     * Fires what the wheel has expired by {@code now} and returns the number of events recorded.
+     */
+    public synchronized int fireDue(Instant now) {
+        List<HabitReminderDTO> due = wheel.advance(now.toEpochMilli());
+        pending.set(wheel.size());
+        due.forEach(reminder -> scheduled.remove(reminder.getHabitId(), reminder.getDueAt()));
+
+        int fired = 0;
+        for (int from = 0; from < due.size(); from += batchSize) {
+            fired += fireBatch(due.subList(from, Math.min(from + batchSize, due.size())), now);
+        }
+        return fired;
+    }
+
+    private int fireBatch(List<HabitReminderDTO> batch, Instant now) {
+        Outcome outcome = transactionTemplate.execute(status -> {
+            int fired = 0;
+            int late = 0;
+            for (HabitReminderDTO reminder : batch) {
+                Instant next = ReminderTimes.next(reminder.getReminderTime(), reminder.getReminderZone(), true, now);
+                if (habitRepository.advanceReminder(reminder.getHabitId(), reminder.getDueAt(), next) == 0) {
+                    continue;
+                }
+                if (Duration.between(reminder.getDueAt(), now).compareTo(maxLateness) > 0) {
+                    late++;
+                    continue;
+                }
+                publisher.reminderDue(reminder.getHabitId(), reminder.getPersonId(), reminder.getDueAt());
+                fired++;
+            }
+            return new Outcome(fired, late, batch.size() - fired - late);
+        });
+        if (outcome == null) {
+            return 0;
+        }
+        firedReminders.increment(outcome.fired());
+        lateReminders.increment(outcome.late());
+        supersededReminders.increment(outcome.superseded());
+        return outcome.fired();
+    }
+
+    // Superseded: another instance fired it first, or the user changed or switched off the reminder
+    private record Outcome(int fired, int late, int superseded) {
+    }
+}
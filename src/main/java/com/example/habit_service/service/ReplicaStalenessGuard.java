@@ -0,0 +1,66 @@
+package com.example.habit_service.service;
+
+import com.example.habit_service.security.PersonDetails;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Read-your-writes for replica routing: for {@code habit.datasource.replica.stickiness} after a write to a
+ * person's habits commits, that person's read-only transactions stay on the primary. The window must be
+ * longer than the replication lag, otherwise a read right after it can still miss the write.
+ * Without replicas configured nothing is recorded and no one is ever pinned.
+ */
+@Component
+public class ReplicaStalenessGuard {
+    private final boolean enabled;
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReplicaStalenessGuard(@Value("${habit.datasource.replica.enabled:false}") boolean enabled,
+                                 @Value("${habit.datasource.replica.stickiness:5s}") Duration stickiness,
+                                 @Value("${habit.datasource.replica.max-pinned-users:100000}") long maxPinnedUsers) {
+        this.enabled = enabled;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxPinnedUsers)
+                .expireAfterWrite(stickiness)
+                .build();
+    }
+
+    /**
+     * Pins the person to the primary once the current transaction commits, so the window is measured
+     * from the moment the write became visible there.
+     */
+    public void recordWrite(long personId) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recentWriters.put(personId, Boolean.TRUE);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(personId, Boolean.TRUE);
+            }
+        });
+    }
+
+    public boolean isPinned(long personId) {
+        return recentWriters.getIfPresent(personId) != null;
+    }
+
+    // Users only ever read their own habits, so the authenticated user is the one whose writes matter
+    public boolean isCurrentUserPinned() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.getPrincipal() instanceof PersonDetails user
+                && user.getId() != null && isPinned(user.getId());
+    }
+}
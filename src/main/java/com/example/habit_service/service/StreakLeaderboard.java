@@ -0,0 +1,216 @@
+package com.example.habit_service.service;
+
+import com.example.habit_service.dto.LeaderboardEntryDTO;
+import com.example.habit_service.exception.BadRequestException;
+import com.example.habit_service.repository.HabitRepository;
+import com.example.habit_service.repository.LeaderboardSnapshotRepository;
+import com.example.habit_service.util.StreakRanking;
+import com.example.habit_service.util.StreakRanking.Entry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Leaderboards of the longest current streaks. The global one is served from memory: a {@link StreakRanking}
+ * of the best {@code 2 * habit.leaderboard.size} streaks, which every check-in on this instance updates once
+ * it has committed, so a read costs only the entries it returns and never reaches the database.
+ * <p>
+ * {@link #sync} re-reads the ranked habits and those in the snapshot table by primary key, drops deleted habits
+ * and ended streaks, refills from the current_streak index only when too few entries are left, and writes the
+ * result to the snapshot table. Other instances pick up this instance's check-ins from there within one sync,
+ * and a restarted instance starts from the snapshot instead of ranking the habit table.
+ * <p>
+ * The friends leaderboard ranks the caller's own habits, read by one indexed query, among those of the given
+ * people that are on the global leaderboard.
+ */
+@Component
+public class StreakLeaderboard {
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_FRIENDS = 1000;
+
+    private final HabitRepository habitRepository;
+    private final LeaderboardSnapshotRepository snapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int size;
+    private final StreakRanking ranking;
+    private final Timer syncTimer;
+    private final Counter refills;
+
+    public StreakLeaderboard(HabitRepository habitRepository,
+                             LeaderboardSnapshotRepository snapshotRepository,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${habit.leaderboard.size:100}") int size) {
+        this.habitRepository = habitRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.size = size;
+        // Twice what is served, so a few streaks ending between syncs do not force a refill
+        this.ranking = new StreakRanking(size * 2);
+
+        Gauge.builder("habit.leaderboard.entries", ranking, StreakRanking::size)
+                .description("Habits held in the in-memory streak ranking")
+                .register(meterRegistry);
+        this.syncTimer = Timer.builder("habit.leaderboard.sync")
+                .description("Time spent reconciling the streak ranking with the database and writing its snapshot")
+                .register(meterRegistry);
+        this.refills = Counter.builder("habit.leaderboard.refills")
+                .description("Times the streak ranking was refilled from the habit table")
+                .register(meterRegistry);
+    }
+
+    // Called inside the check-in's transaction; a rolled back check-in never reaches the ranking
+    public void recordCompletion(long habitId, long personId, int currentStreak, LocalDate completedOn) {
+        afterCommit(() -> ranking.offer(new Entry(habitId, personId, currentStreak, completedOn)));
+    }
+
+    public void removeHabit(long habitId) {
+        afterCommit(() -> ranking.remove(habitId));
+    }
+
+    public void removePersons(Collection<Long> personIds) {
+        Set<Long> removed = Set.copyOf(personIds);
+        afterCommit(() -> ranking.removeIf(entry -> removed.contains(entry.personId())));
+    }
+
+    @PreAuthorize("isAuthenticated()")
+    public List<LeaderboardEntryDTO> getGlobal(int limit) {
+        checkLimit(limit);
+        return ranked(ranking.top(limit, LocalDate.now()).stream().map(StreakLeaderboard::toDTO).toList());
+    }
+
+    /**
+     * Longest streaks among the habits of the caller and the given people. Friendships are not kept in this
+     * service, so nothing checks that the ids are friends of the caller, and anyone may pass any ids. Other
+     * people's habits are therefore only taken from the global leaderboard, which every signed-in user can
+     * read anyway: a friend's streak that is not among its {@code habit.leaderboard.size} entries is left out.
+     */
+    @PreAuthorize("isAuthenticated()")
+    public List<LeaderboardEntryDTO> getFriends(long personId, Collection<Long> friendIds, int limit) {
+        checkLimit(limit);
+        if (friendIds.size() > MAX_FRIENDS) {
+            throw new BadRequestException("At most " + MAX_FRIENDS + " friends can be ranked at once");
+        }
+        LocalDate today = LocalDate.now();
+        Set<Long> friends = new HashSet<>(friendIds);
+        friends.remove(personId);
+        List<Entry> entries = new ArrayList<>(toEntries(readOnlyTransaction.execute(status ->
+                habitRepository.findTopStreaksByPersonId(personId, today.minusDays(1), Limit.of(limit)))));
+        ranking.top(size, today).stream()
+                .filter(entry -> friends.contains(entry.personId()))
+                .forEach(entries::add);
+        return ranked(entries.stream()
+                .sorted(StreakRanking.ORDER)
+                .limit(limit)
+                .map(StreakLeaderboard::toDTO)
+                .collect(Collectors.toCollection(ArrayList::new)));
+    }
+
+    /**
+     * Brings the ranking up to date with the database and writes it to the snapshot table; returns the number
+     * of entries written. Reads the primary: a lagging replica would drop habits whose check-in it has not seen.
+     */
+    public synchronized int sync(LocalDate today) {
+        return syncTimer.record(() -> {
+            List<LeaderboardEntryDTO> snapshot = transactionTemplate.execute(status -> snapshotRepository.findRanked());
+            // Every sync refills a ranking with fewer than size entries before writing it, so a shorter
+            // snapshot was written by a ranking that held every live streak
+            if (!ranking.isSeeded() && !snapshot.isEmpty()) {
+                ranking.refill(toEntries(snapshot), snapshot.size() < size);
+            }
+            Set<Long> habitIds = new HashSet<>(ranking.habitIds());
+            snapshot.forEach(entry -> habitIds.add(entry.getHabitId()));
+            if (!habitIds.isEmpty()) {
+                List<LeaderboardEntryDTO> current = transactionTemplate.execute(status ->
+                        habitRepository.findLeaderboardEntries(habitIds));
+                ranking.reconcile(habitIds, toEntries(current), today);
+            }
+
+            if (ranking.needsRefill(size, today)) {
+                int capacity = ranking.getCapacity();
+                List<LeaderboardEntryDTO> best = transactionTemplate.execute(status ->
+                        habitRepository.findTopStreaks(today.minusDays(1), Limit.of(capacity)));
+                ranking.refill(toEntries(best), best.size() < capacity);
+                refills.increment();
+            }
+
+            List<Entry> served = ranking.top(ranking.getCapacity(), today);
+            transactionTemplate.executeWithoutResult(status -> writeSnapshot(served));
+            return served.size();
+        });
+    }
+
+    public void clear() {
+        ranking.clear();
+    }
+
+    // Rows go in habit id order, so instances writing their snapshots at the same time lock them in the same order
+    private void writeSnapshot(List<Entry> served) {
+        served.stream()
+                .sorted(Comparator.comparingLong(Entry::habitId))
+                .forEach(entry -> snapshotRepository.upsert(entry.habitId(), entry.personId(),
+                        entry.currentStreak(), entry.lastCompletedOn()));
+        if (served.isEmpty()) {
+            snapshotRepository.deleteAllInBatch();
+        } else {
+            snapshotRepository.deleteAllExcept(served.stream().map(Entry::habitId).toList());
+        }
+    }
+
+    private void checkLimit(int limit) {
+        if (limit < 1 || limit > size) {
+            throw new BadRequestException("Limit must be between 1 and " + size);
+        }
+    }
+
+    private static List<LeaderboardEntryDTO> ranked(List<LeaderboardEntryDTO> entries) {
+        for (int i = 0; i < entries.size(); i++) {
+            entries.get(i).setRank(i + 1);
+        }
+        return entries;
+    }
+
+    private static LeaderboardEntryDTO toDTO(Entry entry) {
+        return new LeaderboardEntryDTO(entry.habitId(), entry.personId(), entry.currentStreak(), entry.lastCompletedOn());
+    }
+
+    private static List<Entry> toEntries(List<LeaderboardEntryDTO> rows) {
+        return rows.stream()
+                .map(row -> new Entry(row.getHabitId(), row.getPersonId(), row.getCurrentStreak(), row.getLastCompletedOn()))
+                .toList();
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.habit_service.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Runs {@link StreakLeaderboard#sync} on a fixed delay. The first run comes right at startup, so a restarted
+ * instance serves the leaderboard from the snapshot table before any check-in has arrived.
+ */
+@Component
+@ConditionalOnProperty(prefix = "habit.leaderboard.sync", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class StreakLeaderboardSync {
+    private final StreakLeaderboard leaderboard;
+    private final Logger logger = LoggerFactory.getLogger(StreakLeaderboardSync.class);
+
+    public StreakLeaderboardSync(StreakLeaderboard leaderboard) {
+        this.leaderboard = leaderboard;
+    }
+
+    @Scheduled(fixedDelayString = "${habit.leaderboard.sync.interval:1m}")
+    public void sync() {
+        try {
+            int entries = leaderboard.sync(LocalDate.now());
+            logger.debug("Synced the streak leaderboard, {} entries in the snapshot", entries);
+        } catch (RuntimeException e) {
+            logger.warn("Syncing the streak leaderboard failed, it is retried on the next run: {}", e.getMessage());
+        }
+    }
+}
@@ -1,38 +1,88 @@
 package com.example.habit_service.service;
 
 import com.example.habit_service.dto.UserDeletedEvent;
-import com.example.habit_service.repository.HabitRepository;
+import com.example.habit_service.repository.DeletedPersonRepository;
+import com.example.habit_service.repository.HabitOwnerVersionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * First phase of removing deleted users: consumes whole poll batches and records a tombstone per user.
+ * The tombstone hides the user's habits from every query at once; {@link DeletedPersonPurger}
+ * deletes the rows afterwards in small chunks, so no batch turns into one huge transaction.
+ */
 @Component
 public class UserDeletionListener {
     private final Logger logger = LoggerFactory.getLogger(UserDeletionListener.class);
-    @Autowired
-    private HabitRepository habitRepository;
+    private final DeletedPersonRepository deletedPersonRepository;
+    private final HabitOwnerVersionRepository habitOwnerVersionRepository;
+    private final HabitReadCache habitReadCache;
+    private final StreakLeaderboard streakLeaderboard;
+
+    private final Timer batchTimer;
+    private final Counter deletedUsers;
+    private final DistributionSummary batchSizes;
+
+    public UserDeletionListener(DeletedPersonRepository deletedPersonRepository,
+                                HabitOwnerVersionRepository habitOwnerVersionRepository,
+                                HabitReadCache habitReadCache,
+                                StreakLeaderboard streakLeaderboard,
+                                MeterRegistry meterRegistry) {
+        this.deletedPersonRepository = deletedPersonRepository;
+        this.habitOwnerVersionRepository = habitOwnerVersionRepository;
+        this.habitReadCache = habitReadCache;
+        this.streakLeaderboard = streakLeaderboard;
+        this.batchTimer = Timer.builder("user.deletion.batch")
+                .description("Time spent marking one batch of deleted users")
+                .register(meterRegistry);
+        this.deletedUsers = Counter.builder("user.deletion.users")
+                .description("Deleted users marked for purging")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("user.deletion.batch.size")
+                .description("Number of user-deleted events per consumed batch")
+                .register(meterRegistry);
+    }
 
     @PostConstruct
     public void init() {
         logger.info("✅ UserDeletionListener initialized");
     }
 
-    @KafkaListener(topics = "user-deleted", groupId = "habit-group")
+    @KafkaListener(topics = "user-deleted", groupId = "habit-group", batch = "true")
     @Transactional
-    public void handleUserDeleted(UserDeletedEvent event) {
-        Long personId = event.getPersonId();
-        logger.debug("Received delete event for personId = {}", personId);
-
-        var habits = habitRepository.findByPersonId(personId);
-        logger.debug("Found {}", habits.size() + " habits before deletion.");
+    public void handleUserDeleted(List<UserDeletedEvent> events) {
+        List<Long> personIds = events.stream()
+                .filter(Objects::nonNull)
+                .map(UserDeletedEvent::getPersonId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        batchSizes.record(events.size());
+        if (personIds.isEmpty()) {
+            return;
+        }
 
-        habitRepository.deleteAllByPersonId(personId);
+        batchTimer.record(() -> {
+            Instant deletedAt = Instant.now();
+            personIds.forEach(personId -> deletedPersonRepository.markDeleted(personId, deletedAt));
+            habitOwnerVersionRepository.incrementAll(personIds);
+            habitReadCache.evictAll(personIds);
+            streakLeaderboard.removePersons(personIds);
+        });
 
-        var after = habitRepository.findByPersonId(personId);
-        logger.debug("Remaining {}", after.size() + " habits after deletion.");
+        deletedUsers.increment(personIds.size());
+        logger.info("Marked {} deleted users for purging", personIds.size());
     }
 }
@@ -0,0 +1,70 @@
+package com.example.habit_service.util;
+
+import com.example.habit_service.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the last seen habit id into an opaque cursor for keyset pagination. Search cursors also carry the
+ * match of that habit, because search results are ordered by match before id.
+ */
+public final class CursorCodec {
+    private static final String PREFIX = "h:";
+    private static final String SEARCH_PREFIX = "s:";
+
+    private CursorCodec() {
+    }
+
+    public static String encode(long lastId) {
+        return encodeRaw(PREFIX + lastId);
+    }
+
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(decodeRaw(cursor, PREFIX));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    public static String encodeSearch(int lastMatch, long lastId) {
+        return encodeRaw(SEARCH_PREFIX + lastMatch + ":" + lastId);
+    }
+
+    /**
+     * Position after which the next search page starts; before every match for a missing cursor.
+     */
+    public static SearchPosition decodeSearch(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new SearchPosition(-1, 0L);
+        }
+        try {
+            String[] parts = decodeRaw(cursor, SEARCH_PREFIX).split(":", -1);
+            if (parts.length != 2) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new SearchPosition(Integer.parseInt(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String decodeRaw(String cursor, String prefix) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+        if (!raw.startsWith(prefix)) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        return raw.substring(prefix.length());
+    }
+
+    public record SearchPosition(int lastMatch, long lastId) {
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.habit_service.util;
+
+import com.example.habit_service.exception.PreconditionFailedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Strong entity tags for habits: {@code "h<habitId>.v<version>"} for one habit and
+ * {@code "p<personId>.v<version>"} for a person's habit list.
+ */
+public final class HabitETags {
+    // One element of an entity-tag list, with the separating comma and the whitespace around it
+    private static final Pattern ENTITY_TAG = Pattern.compile("\\s*(W/)?\"([^\"]*)\"\\s*(?:,|$)");
+
+    private HabitETags() {
+    }
+
+    public static String forHabits(long personId, long version) {
+        return "p" + personId + ".v" + version;
+    }
+
+    public static String forHabit(long habitId, long version) {
+        return "h" + habitId + ".v" + version;
+    }
+
+    /**
+     * Extracts the versions an If-Match header accepts for the habit, or null when any version will do.
+     * The header may list several tags. Weak tags and tags of anything else never match under the strong
+     * comparison If-Match uses, so they are skipped; when nothing is left, the precondition fails.
+     */
+    public static List<Long> expectedVersions(long habitId, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefix = "h" + habitId + ".v";
+        List<Long> versions = new ArrayList<>();
+        Matcher tag = ENTITY_TAG.matcher(ifMatch);
+        int end = 0;
+        while (tag.find() && tag.start() == end) {
+            end = tag.end();
+            String opaque = tag.group(2);
+            if (tag.group(1) == null && opaque.startsWith(prefix)) {
+                try {
+                    versions.add(Long.parseLong(opaque.substring(prefix.length())));
+                } catch (NumberFormatException e) {
+                    // Not one of ours after all, so it cannot match
+                }
+            }
+        }
+        if (end != ifMatch.length() || versions.isEmpty()) {
+            throw new PreconditionFailedException("If-Match does not match habit " + habitId);
+        }
+        return versions;
+    }
+}
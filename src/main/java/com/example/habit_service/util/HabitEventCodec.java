@@ -0,0 +1,75 @@
+package com.example.habit_service.util;
+
+import com.example.habit_service.dto.HabitEvent;
+import com.example.habit_service.dto.HabitEventType;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Binary wire format of {@link HabitEvent}:
+ * <pre>
+ * version:u8 | type:u8 | habitId:varint | personId:varint | occurredAt epoch millis:varint
+ * </pre>
+ * Varints are unsigned LEB128, so a typical event takes 10-14 bytes. Later versions may only append fields;
+ * a decoder ignores trailing bytes it does not know about and rejects versions newer than it understands.
+ */
+public final class HabitEventCodec {
+    public static final byte VERSION = 1;
+
+    private static final int MAX_SIZE = 2 + 3 * 10;
+
+    private HabitEventCodec() {
+    }
+
+    public static byte[] encode(HabitEvent event) {
+        byte[] buffer = new byte[MAX_SIZE];
+        buffer[0] = VERSION;
+        buffer[1] = event.getType().getCode();
+        int position = 2;
+        position = writeVarLong(buffer, position, event.getHabitId());
+        position = writeVarLong(buffer, position, event.getPersonId());
+        position = writeVarLong(buffer, position, event.getOccurredAt().toEpochMilli());
+        return Arrays.copyOf(buffer, position);
+    }
+
+    public static HabitEvent decode(byte[] data) {
+        if (data == null || data.length < 2) {
+            throw new IllegalArgumentException("Habit event is too short");
+        }
+        byte version = data[0];
+        if (version < 1 || version > VERSION) {
+            throw new IllegalArgumentException("Unsupported habit event version: " + version);
+        }
+        HabitEventType type = HabitEventType.fromCode(data[1]);
+        int[] position = {2};
+        long habitId = readVarLong(data, position);
+        long personId = readVarLong(data, position);
+        long occurredAt = readVarLong(data, position);
+        return new HabitEvent(type, habitId, personId, Instant.ofEpochMilli(occurredAt));
+    }
+
+    private static int writeVarLong(byte[] buffer, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    private static long readVarLong(byte[] data, int[] position) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position[0] >= data.length) {
+                throw new IllegalArgumentException("Habit event is truncated");
+            }
+            byte b = data[position[0]++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in habit event");
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.habit_service.util;
+
+import com.example.habit_service.dto.HabitEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+public class HabitEventDeserializer implements Deserializer<HabitEvent> {
+    @Override
+    public HabitEvent deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return HabitEventCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Cannot decode habit event from topic " + topic, e);
+        }
+    }
+}
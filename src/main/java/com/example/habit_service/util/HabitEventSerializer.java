@@ -0,0 +1,11 @@
+package com.example.habit_service.util;
+
+import com.example.habit_service.dto.HabitEvent;
+import org.apache.kafka.common.serialization.Serializer;
+
+public class HabitEventSerializer implements Serializer<HabitEvent> {
+    @Override
+    public byte[] serialize(String topic, HabitEvent event) {
+        return event == null ? null : HabitEventCodec.encode(event);
+    }
+}
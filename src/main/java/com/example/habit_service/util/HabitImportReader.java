@@ -0,0 +1,159 @@
+package com.example.habit_service.util;
+
+import com.example.habit_service.dto.HabitRequestDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads an import upload one line at a time, so only the current line is ever held in memory.
+ * JSON lines carry one {@link HabitRequestDTO} object each; CSV starts with a header naming the
+ * {@code name}, {@code description} and {@code active} columns in any order. Blank lines are skipped.
+ * A line that cannot be parsed becomes a row with an error instead of ending the read.
+ */
+public final class HabitImportReader {
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    public record Row(long line, HabitRequestDTO habit, String error) {
+    }
+
+    private static final List<String> CSV_COLUMNS = List.of("name", "description", "active");
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final ObjectReader jsonReader;
+    private Map<String, Integer> csvColumns;
+    private boolean badHeader;
+    private long line;
+
+    public HabitImportReader(Reader reader, Format format, ObjectMapper objectMapper) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        this.format = format;
+        this.jsonReader = objectMapper.readerFor(HabitRequestDTO.class);
+    }
+
+    /**
+     * Returns the next row, or null at the end of the upload.
+     */
+    public Row next() throws IOException {
+        String text;
+        while (!badHeader && (text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            if (format == Format.NDJSON) {
+                return parseJson(text);
+            }
+            if (csvColumns == null) {
+                Row headerError = parseCsvHeader(text);
+                if (headerError != null) {
+                    return headerError;
+                }
+                continue;
+            }
+            return parseCsv(text);
+        }
+        return null;
+    }
+
+    private Row parseJson(String text) {
+        try {
+            HabitRequestDTO habit = jsonReader.readValue(text);
+            return habit != null ? new Row(line, habit, null) : new Row(line, null, "Expected a JSON object");
+        } catch (JsonProcessingException e) {
+            return new Row(line, null, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    // A broken header makes every following row unreadable, so it is reported once and the read ends
+    private Row parseCsvHeader(String text) {
+        List<String> header = splitCsv(text);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; header != null && i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (header == null || !columns.keySet().containsAll(List.of("name", "active"))) {
+            badHeader = true;
+            return new Row(line, null, "CSV header must name the columns " + CSV_COLUMNS
+                    + ", description is optional");
+        }
+        csvColumns = columns;
+        return null;
+    }
+
+    private Row parseCsv(String text) {
+        List<String> fields = splitCsv(text);
+        if (fields == null) {
+            return new Row(line, null, "Malformed CSV: unbalanced quotes");
+        }
+        if (fields.size() != csvColumns.size()) {
+            return new Row(line, null, "Expected " + csvColumns.size() + " fields but found " + fields.size());
+        }
+
+        HabitRequestDTO habit = new HabitRequestDTO();
+        habit.setName(field(fields, "name"));
+        habit.setDescription(field(fields, "description"));
+        String active = field(fields, "active");
+        if (active != null) {
+            if (!active.equalsIgnoreCase("true") && !active.equalsIgnoreCase("false")) {
+                return new Row(line, null, "active: must be true or false");
+            }
+            habit.setActive(Boolean.parseBoolean(active));
+        }
+        return new Row(line, habit, null);
+    }
+
+    // Empty fields stand for missing values, like an absent property in a JSON line
+    private String field(List<String> fields, String column) {
+        Integer index = csvColumns.get(column);
+        if (index == null) {
+            return null;
+        }
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    // RFC 4180 fields on a single line: quoted fields may hold commas and "" for a quote, not line breaks
+    static List<String> splitCsv(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.habit_service.util;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Turns a habit's daily reminder time in the user's zone into the instant it next fires.
+ * On a day where the time falls into a DST gap the reminder fires just after the gap.
+ */
+public final class ReminderTimes {
+    private ReminderTimes() {
+    }
+
+    /**
+     * Next firing strictly after {@code after}, or null if the habit has no reminder or is inactive.
+     */
+    public static Instant next(LocalTime reminderTime, String reminderZone, boolean active, Instant after) {
+        if (reminderTime == null || reminderZone == null || !active) {
+            return null;
+        }
+        ZoneId zone = ZoneId.of(reminderZone);
+        ZonedDateTime candidate = ZonedDateTime.of(after.atZone(zone).toLocalDate(), reminderTime, zone);
+        if (!candidate.toInstant().isAfter(after)) {
+            candidate = ZonedDateTime.of(candidate.toLocalDate().plusDays(1), reminderTime, zone);
+        }
+        return candidate.toInstant();
+    }
+
+    public static boolean isValidZone(String reminderZone) {
+        try {
+            ZoneId.of(reminderZone);
+            return true;
+        } catch (DateTimeException e) {
+            return false;
+        }
+    }
+}
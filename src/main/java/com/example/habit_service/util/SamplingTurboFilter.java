@@ -0,0 +1,62 @@
+package com.example.habit_service.util;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets one in {@code every} events of the configured logger (and its children) through, at
+ * {@code maxLevel} and below. Runs before the message is formatted, so dropped events cost a
+ * counter increment. With the default {@code maxLevel} of INFO, WARN and ERROR always pass.
+ * <pre>
+ * &lt;turboFilter class="com.example.habit_service.util.SamplingTurboFilter"&gt;
+ *     &lt;loggerName&gt;com.example.habit_service.controller&lt;/loggerName&gt;
+ *     &lt;every&gt;100&lt;/every&gt;
+ * &lt;/turboFilter&gt;
+ * </pre>
+ */
+public class SamplingTurboFilter extends TurboFilter {
+    private final AtomicLong counter = new AtomicLong();
+    private String loggerName;
+    private int every = 1;
+    private Level maxLevel = Level.INFO;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // isXxxEnabled() checks arrive without a format and must not consume a sample
+        if (!isStarted() || format == null || every <= 1 || level.toInt() > maxLevel.toInt() || !matches(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        return counter.getAndIncrement() % every == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean matches(String name) {
+        return name.startsWith(loggerName)
+                && (name.length() == loggerName.length() || name.charAt(loggerName.length()) == '.');
+    }
+
+    @Override
+    public void start() {
+        if (loggerName == null || loggerName.isBlank()) {
+            addError("No loggerName set for " + getName());
+            return;
+        }
+        super.start();
+    }
+
+    public void setLoggerName(String loggerName) {
+        this.loggerName = loggerName;
+    }
+
+    public void setEvery(int every) {
+        this.every = every;
+    }
+
+    public void setMaxLevel(String maxLevel) {
+        this.maxLevel = Level.toLevel(maxLevel, Level.INFO);
+    }
+}
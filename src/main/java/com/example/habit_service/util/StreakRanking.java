@@ -0,0 +1,193 @@
+package com.example.habit_service.util;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * The longest current streaks, for the leaderboard. Holds at most {@code capacity} habits in a tree ordered
+ * by streak, longest first, ties by habit id, plus an index by habit id, so taking a new streak costs
+ * O(log capacity) however many habits there are. Every change publishes an immutable copy of the order,
+ * so reads never lock and cost only the entries they return.
+ * <p>
+ * A habit pushed out of the tree, or never seen, may outrank a kept one once that one's streak is reset.
+ * The best of them is remembered as the floor: only entries ranked above it are known to be in their place
+ * and are served. {@link #refill} from the database resets the floor. Writes are synchronized.
+ */
+public final class StreakRanking {
+    public static final Comparator<Entry> ORDER = Comparator.comparingInt(Entry::currentStreak).reversed()
+            .thenComparingLong(Entry::habitId);
+
+    // Ranks above any habit: until the first refill nothing is known to be in its place
+    private static final Entry UNKNOWN = new Entry(Long.MIN_VALUE, 0, Integer.MAX_VALUE, null);
+
+    private final int capacity;
+    private final TreeSet<Entry> order = new TreeSet<>(ORDER);
+    private final Map<Long, Entry> byHabitId = new HashMap<>();
+    private Entry floor = UNKNOWN;
+    private volatile List<Entry> served = List.of();
+
+    public StreakRanking(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Takes a habit's streak as of its last completion, unless an entry from a later completion is already held.
+     */
+    public synchronized void offer(Entry entry) {
+        Entry floorBefore = floor;
+        if (put(entry) || floor != floorBefore) {
+            publish();
+        }
+    }
+
+    public synchronized void remove(long habitId) {
+        Entry held = byHabitId.remove(habitId);
+        if (held != null) {
+            order.remove(held);
+            publish();
+        }
+    }
+
+    public synchronized void removeIf(Predicate<Entry> filter) {
+        if (order.removeIf(filter)) {
+            byHabitId.values().removeIf(filter);
+            publish();
+        }
+    }
+
+    /**
+     * Brings the given habits up to date: those in {@code current} and still alive {@code today} are offered,
+     * the others are dropped, because they were deleted or their streak has ended.
+     */
+    public synchronized void reconcile(Set<Long> habitIds, Collection<Entry> current, LocalDate today) {
+        Map<Long, Entry> alive = new HashMap<>();
+        current.stream().filter(entry -> entry.isAlive(today)).forEach(entry -> alive.put(entry.habitId(), entry));
+        for (long habitId : habitIds) {
+            Entry entry = alive.get(habitId);
+            if (entry != null) {
+                put(entry);
+            } else {
+                Entry held = byHabitId.remove(habitId);
+                if (held != null) {
+                    order.remove(held);
+                }
+            }
+        }
+        publish();
+    }
+
+    /**
+     * Takes the best streaks in rank order. {@code complete} says that no habit left out of {@code best} outranks
+     * any of them, which only holds for a query that returned fewer rows than it asked for. Otherwise only the given
+     * entries and whatever ranks above them are known to be in place.
+     */
+    public synchronized void refill(List<Entry> best, boolean complete) {
+        if (best.isEmpty() && !complete) {
+            return;
+        }
+        floor = null;
+        best.forEach(this::put);
+        if (!complete) {
+            Entry last = best.get(best.size() - 1);
+            raiseFloorTo(new Entry(last.habitId() + 1, 0, last.currentStreak(), null));
+        }
+        publish();
+    }
+
+    /**
+     * Up to {@code limit} entries still alive {@code today}, best first.
+     */
+    public List<Entry> top(int limit, LocalDate today) {
+        List<Entry> top = new ArrayList<>(Math.min(limit, capacity));
+        for (Entry entry : served) {
+            if (top.size() == limit) {
+                break;
+            }
+            if (entry.isAlive(today)) {
+                top.add(entry);
+            }
+        }
+        return top;
+    }
+
+    /**
+     * True while fewer than {@code wanted} alive entries are known to be in place and the database may hold more.
+     */
+    public synchronized boolean needsRefill(int wanted, LocalDate today) {
+        return floor != null && top(wanted, today).size() < wanted;
+    }
+
+    public synchronized boolean isSeeded() {
+        return floor != UNKNOWN;
+    }
+
+    public synchronized List<Long> habitIds() {
+        return List.copyOf(byHabitId.keySet());
+    }
+
+    public synchronized int size() {
+        return order.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized void clear() {
+        order.clear();
+        byHabitId.clear();
+        floor = UNKNOWN;
+        publish();
+    }
+
+    // Returns whether the tree changed; an entry that does not make it in still raises the floor
+    private boolean put(Entry entry) {
+        Entry held = byHabitId.get(entry.habitId());
+        if (held != null) {
+            if (entry.lastCompletedOn().isBefore(held.lastCompletedOn())) {
+                return false;
+            }
+            order.remove(held);
+        } else if (order.size() == capacity && ORDER.compare(entry, order.last()) > 0) {
+            raiseFloorTo(entry);
+            return false;
+        }
+        order.add(entry);
+        byHabitId.put(entry.habitId(), entry);
+        if (order.size() > capacity) {
+            Entry dropped = order.pollLast();
+            byHabitId.remove(dropped.habitId());
+            raiseFloorTo(dropped);
+        }
+        return true;
+    }
+
+    // The floor only moves up the ranking between refills: it is the best habit that may be missing
+    private void raiseFloorTo(Entry missing) {
+        if (floor == null || ORDER.compare(missing, floor) < 0) {
+            floor = missing;
+        }
+    }
+
+    private void publish() {
+        served = List.copyOf(floor == null ? order : order.headSet(floor, false));
+    }
+
+    public record Entry(long habitId, long personId, int currentStreak, LocalDate lastCompletedOn) {
+        // The stored streak only moves on check-in, so it has ended once a whole day passed without one
+        public boolean isAlive(LocalDate today) {
+            return lastCompletedOn != null && !lastCompletedOn.isBefore(today.minusDays(1));
+        }
+    }
+}
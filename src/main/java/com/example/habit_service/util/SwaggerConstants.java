@@ -21,4 +21,67 @@ public class SwaggerConstants {
 
     public static final String MESSAGE_DESC = "Field for any messages.";
     public static final String MESSAGE_EXAMPLE = "Habit with id 5 successfully removed.";
+
+    public static final String ITEMS_DESC = "Habits on the current page, ordered by ID.";
+
+    public static final String NEXT_CURSOR_DESC = "Opaque cursor for the next page. Null when there are no more habits.";
+    public static final String NEXT_CURSOR_EXAMPLE = "aDoxMjM";
+
+    public static final String CURRENT_STREAK_DESC = "Number of consecutive days, ending today or yesterday, on which the habit was completed.";
+    public static final String CURRENT_STREAK_EXAMPLE = "7";
+
+    public static final String LONGEST_STREAK_DESC = "Longest run of consecutive completion days ever recorded for the habit.";
+    public static final String LONGEST_STREAK_EXAMPLE = "21";
+    public static final String VERSION_DESC = "Version of the habit, increased by every change. Also sent as the ETag of GET /{id}.";
+    public static final String VERSION_EXAMPLE = "3";
+
+    public static final String LAST_COMPLETED_ON_DESC = "Date of the most recent completion. Null if the habit was never completed.";
+    public static final String LAST_COMPLETED_ON_EXAMPLE = "2025-04-25";
+
+    public static final String COMPLETED_ON_DESC = "Day on which the habit was completed.";
+    public static final String COMPLETED_ON_EXAMPLE = "2025-04-25";
+
+    public static final String REMINDER_TIME_DESC = "Local time of the daily reminder, HH:mm. Requires reminderZone. Inactive habits are not reminded.";
+    public static final String REMINDER_TIME_EXAMPLE = "07:30";
+    public static final String REMINDER_ZONE_DESC = "IANA time zone the reminder time is given in. Requires reminderTime.";
+    public static final String REMINDER_ZONE_EXAMPLE = "Europe/Berlin";
+
+    public static final String GRANULARITY_DESC = "Length of the periods the range is split into: DAY, WEEK (ISO, from Monday) or MONTH.";
+    public static final String GRANULARITY_EXAMPLE = "WEEK";
+    public static final String STATS_FROM_DESC = "First day of the range, inclusive.";
+    public static final String STATS_FROM_EXAMPLE = "2025-04-01";
+    public static final String STATS_TO_DESC = "Last day of the range, inclusive.";
+    public static final String STATS_TO_EXAMPLE = "2025-04-30";
+    public static final String PERIOD_START_DESC = "First day of the period counted, clipped to the range and the habit's lifetime.";
+    public static final String PERIOD_START_EXAMPLE = "2025-04-07";
+    public static final String PERIOD_END_DESC = "Last day of the period counted, clipped to the range and to today.";
+    public static final String PERIOD_END_EXAMPLE = "2025-04-13";
+    public static final String COMPLETIONS_DESC = "Number of days on which the habit was completed.";
+    public static final String COMPLETIONS_EXAMPLE = "5";
+    public static final String DAYS_DESC = "Number of days counted: those within the range on which the habit existed, up to today.";
+    public static final String DAYS_EXAMPLE = "7";
+    public static final String COMPLETION_RATE_DESC = "Completions divided by days, 0 when no day is counted.";
+    public static final String COMPLETION_RATE_EXAMPLE = "0.7142857142857143";
+    public static final String PERIODS_DESC = "The range split into periods of the requested granularity, oldest first.";
+
+    public static final String RANK_DESC = "Position on the leaderboard, starting at 1 for the longest current streak.";
+    public static final String RANK_EXAMPLE = "1";
+
+    public static final String MATCH_DESC = "How the habit matched the search, best first: 0 the name is the query, "
+            + "1 the name starts with it, 2 a word of the name starts with it, 3 the name contains it, "
+            + "4 only the description contains it.";
+    public static final String MATCH_EXAMPLE = "1";
+    public static final String SEARCH_ITEMS_DESC = "Matching habits on the current page, best match first, then by ID.";
+
+    public static final String HABITS_DESC = "Habits to create. Must contain between 1 and 500 items.";
+
+    public static final String IMPORTED_DESC = "Number of rows stored as new habits.";
+    public static final String IMPORTED_EXAMPLE = "1998";
+    public static final String FAILED_DESC = "Number of rows that were rejected or could not be stored.";
+    public static final String FAILED_EXAMPLE = "2";
+    public static final String IMPORT_ERRORS_DESC = "Reason per rejected row, for at most the first 1000 of them.";
+    public static final String LINE_DESC = "Line of the upload the error refers to, starting at 1.";
+    public static final String LINE_EXAMPLE = "17";
+    public static final String IMPORT_ERROR_MESSAGE_DESC = "Why the row was not imported.";
+    public static final String IMPORT_ERROR_MESSAGE_EXAMPLE = "name: The name of the habit should not be empty";
 }
@@ -0,0 +1,114 @@
+package com.example.habit_service.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timer wheel. Level 0 has one slot per tick, every level above has slots as wide as
+ * the whole level below it, so scheduling and expiry cost O(1) however many timers are pending and
+ * however far ahead they lie. Timers in a higher level cascade down as time reaches their slot.
+ * Deadlines are rounded up to the next tick, so a timer never expires early. Not thread-safe.
+ */
+public final class TimerWheel<T> {
+    private final long tickMillis;
+    private final int wheelSize;
+    private final List<List<Timer<T>>>[] levels;
+    private final long horizonTicks;
+    private List<T> overdue = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMillis, int wheelSize, int levelCount, long startMillis) {
+        if (tickMillis < 1 || wheelSize < 2 || levelCount < 1) {
+            throw new IllegalArgumentException("Tick, wheel size and level count must be positive, wheel size at least 2");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levels = new List[levelCount];
+        for (int level = 0; level < levelCount; level++) {
+            List<List<Timer<T>>> slots = new ArrayList<>(wheelSize);
+            for (int slot = 0; slot < wheelSize; slot++) {
+                slots.add(new ArrayList<>());
+            }
+            levels[level] = slots;
+        }
+        this.horizonTicks = Math.multiplyExact(span(levelCount - 1), wheelSize);
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    /**
+     * Adds a timer; one whose deadline has already passed expires on the next {@link #advance}.
+     */
+    public void schedule(T item, long deadlineMillis) {
+        long deadlineTick = Math.ceilDiv(deadlineMillis, tickMillis);
+        if (deadlineTick - currentTick >= horizonTicks) {
+            throw new IllegalArgumentException("Deadline is beyond the wheel's horizon of " + horizonTicks * tickMillis + " ms");
+        }
+        size++;
+        if (deadlineTick <= currentTick) {
+            overdue.add(item);
+            return;
+        }
+        place(new Timer<>(item, deadlineTick));
+    }
+
+    /**
+     * Moves the wheel forward to {@code nowMillis} and returns the timers that expired on the way, in deadline order.
+     */
+    public List<T> advance(long nowMillis) {
+        List<T> expired = overdue;
+        overdue = new ArrayList<>();
+        long nowTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < nowTick) {
+            currentTick++;
+            for (int level = levels.length - 1; level > 0; level--) {
+                if (currentTick % span(level) == 0) {
+                    List<Timer<T>> slot = levels[level].get(slotIndex(currentTick, level));
+                    List<Timer<T>> cascading = new ArrayList<>(slot);
+                    slot.clear();
+                    cascading.forEach(this::place);
+                }
+            }
+            List<Timer<T>> slot = levels[0].get(slotIndex(currentTick, 0));
+            slot.forEach(timer -> expired.add(timer.item()));
+            slot.clear();
+        }
+        size -= expired.size();
+        return expired;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getHorizonMillis() {
+        return horizonTicks * tickMillis;
+    }
+
+    // Lowest level whose slots still reach the deadline; delta 0 only occurs while cascading and lands in the current slot
+    private void place(Timer<T> timer) {
+        long delta = timer.deadlineTick() - currentTick;
+        int level = 0;
+        while (level < levels.length - 1 && delta >= span(level + 1)) {
+            level++;
+        }
+        levels[level].get(slotIndex(timer.deadlineTick(), level)).add(timer);
+    }
+
+    private int slotIndex(long tick, int level) {
+        return (int) Math.floorMod(tick / span(level), (long) wheelSize);
+    }
+
+    // Ticks covered by one slot of the level
+    private long span(int level) {
+        long span = 1;
+        for (int i = 0; i < level; i++) {
+            span *= wheelSize;
+        }
+        return span;
+    }
+
+    private record Timer<T>(T item, long deadlineTick) {
+    }
+}
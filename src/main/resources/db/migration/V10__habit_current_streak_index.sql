@@ -0,0 +1,5 @@
+-- Refilling the leaderboard walks the longest stored streaks down until it has found enough that are still
+-- alive. The included columns let it check aliveness and fill the entry from the index alone. Built
+-- CONCURRENTLY, so Flyway runs the script outside a transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS habit_current_streak_idx
+    ON habit USING btree (current_streak DESC, id) INCLUDE (last_completed_on, person_id);
@@ -0,0 +1,6 @@
+-- GET /search filters a user's habits with lower(name) LIKE '%q%' OR lower(description) LIKE '%q%'.
+-- pg_trgm lets a GIN index answer those infix patterns, which no btree can; btree_gin lets the same
+-- index lead with person_id. Both ship with Postgres and are trusted, so the database owner may create
+-- them. The index is built CONCURRENTLY by the next script, which Flyway will not mix with this one.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS btree_gin;
@@ -0,0 +1,5 @@
+-- One index for both sides of the search's OR, each scan reading only the caller's entries. Queries under
+-- three characters have no trigram to look up and are served by the (person_id, id) index instead.
+-- Built CONCURRENTLY, so Flyway runs the script outside a transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS habit_search_trgm_idx
+    ON habit USING gin (person_id, lower(name) gin_trgm_ops, lower(description) gin_trgm_ops);
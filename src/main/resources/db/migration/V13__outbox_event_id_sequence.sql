@@ -0,0 +1,4 @@
+-- Outbox ids are taken one nextval at a time instead of in pooled blocks of 50, so they follow the order events
+-- are written in across instances and the relay can send them in id order. Ids already handed out stay below
+-- everything nextval returns from here on.
+ALTER SEQUENCE outbox_event_id_seq INCREMENT BY 1;
@@ -0,0 +1,15 @@
+-- Schema as originally shipped in db-init/init.sql. Databases created from that script are baselined at
+-- this version and get every later script applied, so nothing may be added here: changes go in V2 and up.
+
+CREATE TABLE habit (
+    id bigint NOT NULL,
+    name character varying(255) NOT NULL,
+    description character varying(255),
+    created_at date NOT NULL,
+    active boolean,
+    person_id bigint NOT NULL,
+    CONSTRAINT habit_pkey PRIMARY KEY (id)
+);
+
+CREATE SEQUENCE habit_id_seq START WITH 1 INCREMENT BY 1 OWNED BY habit.id;
+ALTER TABLE habit ALTER COLUMN id SET DEFAULT nextval('habit_id_seq');
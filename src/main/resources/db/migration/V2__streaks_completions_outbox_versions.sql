@@ -0,0 +1,43 @@
+-- Everything the service grew between the shipped schema and its first migration: streaks and the
+-- optimistic-lock version on habit, check-ins, per-user list versions and the event outbox.
+ALTER TABLE habit ADD COLUMN current_streak integer DEFAULT 0 NOT NULL;
+ALTER TABLE habit ADD COLUMN longest_streak integer DEFAULT 0 NOT NULL;
+ALTER TABLE habit ADD COLUMN last_completed_on date;
+ALTER TABLE habit ADD COLUMN version bigint DEFAULT 0 NOT NULL;
+
+-- Habit ids come from Hibernate's pooled optimizer with allocationSize 50: each nextval reserves the 50 ids
+-- ending at the value returned. Existing ids are all at or below the current value, so the first block
+-- handed out after this change starts right above them.
+ALTER SEQUENCE habit_id_seq INCREMENT BY 50;
+
+CREATE TABLE habit_owner_version (
+    person_id bigint NOT NULL,
+    version bigint NOT NULL,
+    CONSTRAINT habit_owner_version_pkey PRIMARY KEY (person_id)
+);
+
+CREATE TABLE habit_completion (
+    id bigint NOT NULL,
+    habit_id bigint NOT NULL,
+    person_id bigint NOT NULL,
+    completed_on date NOT NULL,
+    created_at timestamp without time zone NOT NULL,
+    CONSTRAINT habit_completion_pkey PRIMARY KEY (id),
+    CONSTRAINT habit_completion_habit_day_key UNIQUE (habit_id, completed_on)
+);
+
+CREATE SEQUENCE habit_completion_id_seq START WITH 1 INCREMENT BY 1 OWNED BY habit_completion.id;
+ALTER TABLE habit_completion ALTER COLUMN id SET DEFAULT nextval('habit_completion_id_seq');
+
+CREATE INDEX habit_completion_person_id_idx ON habit_completion USING btree (person_id);
+
+CREATE TABLE outbox_event (
+    id bigint NOT NULL,
+    topic character varying(255) NOT NULL,
+    event_key character varying(255),
+    payload bytea NOT NULL,
+    created_at timestamp with time zone NOT NULL,
+    CONSTRAINT outbox_event_pkey PRIMARY KEY (id)
+);
+
+CREATE SEQUENCE outbox_event_id_seq START WITH 1 INCREMENT BY 50 OWNED BY outbox_event.id;
@@ -0,0 +1,9 @@
+-- Every habit query filters on person_id and most of them order or seek by id:
+-- findByPersonId, the keyset page (id > :afterId order by id), the export stream,
+-- findByIdAndPersonId and the per-user delete. One (person_id, id) index serves all of them.
+-- Built CONCURRENTLY so writes to a live table are not blocked; Flyway runs this script
+-- outside a transaction because every statement in it is non-transactional.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS habit_person_id_id_idx ON habit USING btree (person_id, id);
+
+-- Lookups that only concern habits a user still tracks stay off the inactive rows.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS habit_active_person_id_idx ON habit USING btree (person_id, id) WHERE active;
@@ -0,0 +1,8 @@
+-- Tombstones for users whose user-deleted event has been consumed. Their habits are hidden
+-- as soon as the row exists; DeletedPersonPurger removes the data in chunks and then the tombstone,
+-- so a purge interrupted by a restart resumes from whatever is still listed here.
+CREATE TABLE deleted_person (
+    person_id bigint NOT NULL,
+    deleted_at timestamp with time zone NOT NULL,
+    CONSTRAINT deleted_person_pkey PRIMARY KEY (person_id)
+);
@@ -0,0 +1,7 @@
+-- The export reads a person's whole completion history ordered by habit and day. With this index
+-- the cursor walks it in order and the first rows go out at once, instead of after a sort of the
+-- entire history. Its person_id prefix also serves the purge, so the single-column index goes.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS habit_completion_person_habit_day_idx
+    ON habit_completion USING btree (person_id, habit_id, completed_on);
+
+DROP INDEX CONCURRENTLY IF EXISTS habit_completion_person_id_idx;
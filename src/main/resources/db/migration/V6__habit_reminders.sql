@@ -0,0 +1,7 @@
+-- Daily reminders: the time in the user's zone, and the instant the next one is due, which
+-- ReminderScheduler moves forward with a compare-and-set each time it fires. Adding nullable columns
+-- without defaults only changes the catalog. The index on the due instant is built CONCURRENTLY by the
+-- next script, because Flyway will not mix that with transactional statements in one script.
+ALTER TABLE habit ADD COLUMN IF NOT EXISTS reminder_time time without time zone;
+ALTER TABLE habit ADD COLUMN IF NOT EXISTS reminder_zone character varying(64);
+ALTER TABLE habit ADD COLUMN IF NOT EXISTS next_reminder_at timestamp with time zone;
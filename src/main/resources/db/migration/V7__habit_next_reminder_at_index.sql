@@ -0,0 +1,5 @@
+-- Only habits with a reminder have a due time, so the partial index stays as small as the set of
+-- reminders and the scheduler's "due before" range scan never touches the other rows. Built
+-- CONCURRENTLY so writes to a live table are not blocked; Flyway runs this script outside a transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS habit_next_reminder_at_idx
+    ON habit USING btree (next_reminder_at) WHERE next_reminder_at IS NOT NULL;
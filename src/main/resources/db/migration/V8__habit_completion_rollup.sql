@@ -0,0 +1,26 @@
+-- Completions per habit and day, ISO week or month, incremented in the same transaction as every
+-- check-in, so statistics over any range read a handful of rows instead of the completion log.
+-- The person_id index serves the chunked purge of deleted users.
+CREATE TABLE habit_completion_rollup (
+    habit_id bigint NOT NULL,
+    granularity character varying(5) NOT NULL,
+    period_start date NOT NULL,
+    person_id bigint NOT NULL,
+    completions integer NOT NULL,
+    CONSTRAINT habit_completion_rollup_pkey PRIMARY KEY (habit_id, granularity, period_start)
+);
+
+CREATE INDEX habit_completion_rollup_person_id_idx ON habit_completion_rollup USING btree (person_id);
+
+-- Existing history, rolled up once; from here on the application keeps the rows current
+INSERT INTO habit_completion_rollup (habit_id, granularity, period_start, person_id, completions)
+SELECT habit_id, 'DAY', completed_on, max(person_id), count(*)
+FROM habit_completion GROUP BY habit_id, completed_on;
+
+INSERT INTO habit_completion_rollup (habit_id, granularity, period_start, person_id, completions)
+SELECT habit_id, 'WEEK', date_trunc('week', completed_on)::date, max(person_id), count(*)
+FROM habit_completion GROUP BY habit_id, date_trunc('week', completed_on);
+
+INSERT INTO habit_completion_rollup (habit_id, granularity, period_start, person_id, completions)
+SELECT habit_id, 'MONTH', date_trunc('month', completed_on)::date, max(person_id), count(*)
+FROM habit_completion GROUP BY habit_id, date_trunc('month', completed_on);
@@ -0,0 +1,9 @@
+-- The streak leaderboard lives in memory; this table is its snapshot, a few hundred rows each instance
+-- rewrites every sync. Restarted instances start from it and instances learn each other's check-ins through it.
+CREATE TABLE IF NOT EXISTS streak_leaderboard_snapshot (
+    habit_id bigint NOT NULL,
+    person_id bigint NOT NULL,
+    current_streak integer NOT NULL,
+    last_completed_on date NOT NULL,
+    CONSTRAINT streak_leaderboard_snapshot_pkey PRIMARY KEY (habit_id)
+);
@@ -0,0 +1,53 @@
+package com.example.habit_service.benchmark;
+
+import com.example.habit_service.dto.HabitEvent;
+import com.example.habit_service.dto.HabitEventType;
+import com.example.habit_service.util.HabitEventCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip of the binary habit event against the free-text messages it replaces.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HabitEventCodecBenchmark {
+    private HabitEvent event;
+    private byte[] binary;
+    private byte[] text;
+
+    @Setup
+    public void setUp() {
+        event = new HabitEvent(HabitEventType.COMPLETED, 421_337L, 98_765L, Instant.now());
+        binary = HabitEventCodec.encode(event);
+        text = ("Habit completed: " + event.getHabitId()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return HabitEventCodec.encode(event);
+    }
+
+    @Benchmark
+    public HabitEvent decodeBinary() {
+        return HabitEventCodec.decode(binary);
+    }
+
+    @Benchmark
+    public byte[] encodeText() {
+        return ("Habit completed: " + event.getHabitId()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public long decodeText() {
+        String message = new String(text, StandardCharsets.UTF_8);
+        return Long.parseLong(message.substring(message.lastIndexOf(' ') + 1));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.habit_service.benchmark;
+
+import com.example.habit_service.entity.OutboxEvent;
+import com.example.habit_service.repository.OutboxEventRepository;
+import com.example.habit_service.service.HabitEventPublisher;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost the publisher adds to a write transaction before the row reaches Hibernate:
+ * building the event, encoding it and wrapping it in an outbox entity.
+ * The repository is a proxy that keeps the last entity instead of writing it to the database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HabitEventPublisherBenchmark {
+    private HabitEventPublisher publisher;
+    private long habitId;
+    private OutboxEvent saved;
+
+    @Setup
+    public void setUp() {
+        OutboxEventRepository repository = (OutboxEventRepository) Proxy.newProxyInstance(
+                OutboxEventRepository.class.getClassLoader(),
+                new Class<?>[]{OutboxEventRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("save") && args[0] instanceof OutboxEvent event) {
+                        saved = event;
+                        return event;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        publisher = new HabitEventPublisher(repository);
+    }
+
+    @Benchmark
+    public OutboxEvent publishHabitCompleted() {
+        publisher.publishHabitCompleted(++habitId, 98_765L);
+        return saved;
+    }
+
+    @Benchmark
+    public OutboxEvent habitUpdated() {
+        publisher.habitUpdated(++habitId, 98_765L);
+        return saved;
+    }
+}
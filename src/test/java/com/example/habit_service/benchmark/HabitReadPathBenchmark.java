@@ -0,0 +1,111 @@
+package com.example.habit_service.benchmark;
+
+import com.example.habit_service.dto.HabitResponseDTO;
+import com.example.habit_service.entity.Habit;
+import com.example.habit_service.mapper.HabitMapper;
+import com.example.habit_service.mapper.HabitMapperImpl;
+import com.example.habit_service.repository.HabitRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths of GET /all-habits and GET /{id} against in-memory H2: managed entities mapped by MapStruct
+ * against the JPQL constructor projection. Sessions are read-only, like the Spring Data read transactions,
+ * so the difference is hydration and persistence-context bookkeeping. Allocation per operation comes
+ * from the gc profiler the benchmark profile enables (gc.alloc.rate.norm).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HabitReadPathBenchmark {
+    private static final long PERSON_ID = 98_765L;
+    private static final String ENTITY_LIST = "from Habit h where h.personId = :personId order by h.id";
+    private static final String ENTITY_SINGLE = "from Habit h where h.id = :id and h.personId = :personId";
+    private static final String PROJECTION_LIST = HabitRepository.RESPONSE_PROJECTION + "where h.personId = :personId order by h.id";
+    private static final String PROJECTION_SINGLE = HabitRepository.RESPONSE_PROJECTION + "where h.id = :id and h.personId = :personId";
+
+    @Param({"1", "50", "500"})
+    private int habits;
+
+    private SessionFactory sessionFactory;
+    private HabitMapper mapper;
+    private long habitId;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Habit.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:read-path-" + habits + ";DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.JAKARTA_JDBC_USER, "sa")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .buildSessionFactory();
+        mapper = new HabitMapperImpl();
+
+        sessionFactory.inTransaction(session -> {
+            for (int i = 0; i < habits; i++) {
+                Habit habit = new Habit();
+                habit.setName("Habit " + i);
+                habit.setDescription("Ten minutes of something useful, every day");
+                habit.setCreatedAt(LocalDate.of(2025, 1, 1).plusDays(i % 365));
+                habit.setActive(i % 3 != 0);
+                habit.setPersonId(PERSON_ID);
+                session.persist(habit);
+            }
+        });
+        habitId = sessionFactory.fromTransaction(session -> session
+                .createSelectionQuery("select min(h.id) from Habit h", Long.class)
+                .getSingleResult());
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public List<HabitResponseDTO> listViaEntities() {
+        return sessionFactory.fromTransaction(session -> {
+            session.setDefaultReadOnly(true);
+            return mapper.toResponseDTOList(session.createSelectionQuery(ENTITY_LIST, Habit.class)
+                    .setParameter("personId", PERSON_ID)
+                    .getResultList());
+        });
+    }
+
+    @Benchmark
+    public List<HabitResponseDTO> listViaProjection() {
+        return sessionFactory.fromTransaction(session -> session
+                .createSelectionQuery(PROJECTION_LIST, HabitResponseDTO.class)
+                .setParameter("personId", PERSON_ID)
+                .getResultList());
+    }
+
+    @Benchmark
+    public HabitResponseDTO singleViaEntity() {
+        return sessionFactory.fromTransaction(session -> {
+            session.setDefaultReadOnly(true);
+            return mapper.toResponseDTO(session.createSelectionQuery(ENTITY_SINGLE, Habit.class)
+                    .setParameter("id", habitId)
+                    .setParameter("personId", PERSON_ID)
+                    .getSingleResult());
+        });
+    }
+
+    @Benchmark
+    public HabitResponseDTO singleViaProjection() {
+        return sessionFactory.fromTransaction(session -> session
+                .createSelectionQuery(PROJECTION_SINGLE, HabitResponseDTO.class)
+                .setParameter("id", habitId)
+                .setParameter("personId", PERSON_ID)
+                .getSingleResult());
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.habit_service.benchmark;
+
+import com.example.habit_service.config.JacksonConfig;
+import com.example.habit_service.dto.HabitResponseDTO;
+import com.example.habit_service.entity.Habit;
+import com.example.habit_service.mapper.HabitMapper;
+import com.example.habit_service.mapper.HabitMapperImpl;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response side of GET /all-habits: entities to DTOs through the generated mapper,
+ * then DTOs to JSON through the application's ObjectMapper.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HabitResponseBenchmark {
+    @Param({"1", "50", "500"})
+    private int habits;
+
+    private HabitMapper mapper;
+    private ObjectMapper objectMapper;
+    private List<Habit> entities;
+    private List<HabitResponseDTO> responses;
+
+    @Setup
+    public void setUp() {
+        mapper = new HabitMapperImpl();
+        objectMapper = new JacksonConfig().objectMapper();
+        entities = new ArrayList<>(habits);
+        for (int i = 0; i < habits; i++) {
+            Habit habit = new Habit();
+            habit.setId((long) i + 1);
+            habit.setName("Habit " + i);
+            habit.setDescription("Ten minutes of something useful, every day");
+            habit.setCreatedAt(LocalDate.of(2025, 1, 1).plusDays(i % 365));
+            habit.setActive(i % 3 != 0);
+            habit.setPersonId(98_765L);
+            habit.setVersion(i % 7);
+            entities.add(habit);
+        }
+        responses = mapper.toResponseDTOList(entities);
+    }
+
+    @Benchmark
+    public HabitResponseDTO toResponseDTO() {
+        return mapper.toResponseDTO(entities.get(0));
+    }
+
+    @Benchmark
+    public List<HabitResponseDTO> toResponseDTOList() {
+        return mapper.toResponseDTOList(entities);
+    }
+
+    @Benchmark
+    public byte[] serializeResponses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(mapper.toResponseDTOList(entities));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.habit_service.benchmark;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.habit_service.security.JWTUtil;
+import com.example.habit_service.security.TokenPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token check: the full HMAC verification and claim decoding of
+ * {@code validateAccessToken} against the digest-keyed cache behind {@code verifyAccessToken}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JWTUtilBenchmark {
+    private JWTUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JWTUtil("internship", 10_000, new SimpleMeterRegistry());
+        token = jwtUtil.generateAccessToken(98_765L, "testuser", "ROLE_USER");
+    }
+
+    @Benchmark
+    public DecodedJWT validateAccessToken() {
+        return jwtUtil.validateAccessToken(token);
+    }
+
+    @Benchmark
+    public TokenPrincipal verifyAccessTokenCached() {
+        return jwtUtil.verifyAccessToken(token);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.habit_service.benchmark;
+
+import com.example.habit_service.util.StreakRanking;
+import com.example.habit_service.util.StreakRanking.Entry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The streak leaderboard at one million habits: a check-in offered to the in-memory ranking and a read of
+ * its top entries, against ranking every habit per request, which is what an ORDER BY over the habit table
+ * costs before any I/O. Streaks are spread like real ones, most short and few long.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StreakRankingBenchmark {
+    private static final int HABITS = 1_000_000;
+    private static final int LEADERBOARD_SIZE = 100;
+    private static final LocalDate TODAY = LocalDate.of(2025, 4, 25);
+
+    private final SplittableRandom random = new SplittableRandom(42);
+    private int[] streaks;
+    private StreakRanking ranking;
+
+    @Setup
+    public void setUp() {
+        streaks = new int[HABITS];
+        ranking = new StreakRanking(LEADERBOARD_SIZE * 2);
+        ranking.refill(List.of(), true);
+        for (int habitId = 0; habitId < HABITS; habitId++) {
+            streaks[habitId] = (int) Math.min(365, -Math.log(1 - random.nextDouble()) * 10);
+            ranking.offer(new Entry(habitId, habitId, streaks[habitId], TODAY));
+        }
+    }
+
+    @Benchmark
+    public int checkIn() {
+        int habitId = random.nextInt(HABITS);
+        int streak = ++streaks[habitId];
+        ranking.offer(new Entry(habitId, habitId, streak, TODAY));
+        return streak;
+    }
+
+    @Benchmark
+    public List<Entry> top10() {
+        return ranking.top(10, TODAY);
+    }
+
+    @Benchmark
+    public List<Entry> top100() {
+        return ranking.top(LEADERBOARD_SIZE, TODAY);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public PriorityQueue<Integer> rankAllHabitsForTop100() {
+        PriorityQueue<Integer> top = new PriorityQueue<>(LEADERBOARD_SIZE + 1,
+                (a, b) -> streaks[a] != streaks[b] ? Integer.compare(streaks[a], streaks[b]) : Integer.compare(b, a));
+        for (int habitId = 0; habitId < HABITS; habitId++) {
+            top.offer(habitId);
+            if (top.size() > LEADERBOARD_SIZE) {
+                top.poll();
+            }
+        }
+        return top;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.habit_service.benchmark;
+
+import com.example.habit_service.HabitServiceApplication;
+import com.example.habit_service.entity.Habit;
+import com.example.habit_service.integration.controller.TestKafkaConfig;
+import com.example.habit_service.repository.HabitRepository;
+import com.example.habit_service.security.JWTUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * GET /{id}/streak under high concurrency, served by the whole application on its embedded Tomcat: the JWT
+ * filter, the controller, the read-only transaction and the habit query through the Hikari pool. The two
+ * settings of {@code spring.threads.virtual.enabled} are compared with Tomcat's and Hikari's defaults, which
+ * application.yml keeps: 200 request threads against one virtual thread per request, both sharing 10
+ * connections. Each operation sends {@code requests} requests, {@code concurrency} of them in flight at once.
+ * <p>
+ * The database is in-memory H2 unless {@code -p jdbcUrl=jdbc:postgresql://...} points it at a Postgres, where
+ * requests wait on the network the way they do in production. Results depend on that choice, so quote them
+ * together with it.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ThreadingModelBenchmark {
+    private static final long PERSON_ID = 98_765L;
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    @Param({"2000"})
+    private int requests;
+
+    @Param({"1000"})
+    private int concurrency;
+
+    @Param({"jdbc:h2:mem:threading-model"})
+    private String jdbcUrl;
+
+    @Param({"sa"})
+    private String jdbcUser;
+
+    @Param({""})
+    private String jdbcPassword;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private ExecutorService clientThreads;
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() {
+        boolean postgres = jdbcUrl.startsWith("jdbc:postgresql:");
+        // Arguments rather than default properties, so they take precedence over the test profile
+        context = new SpringApplicationBuilder(HabitServiceApplication.class, TestKafkaConfig.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=" + jdbcUrl,
+                        "--spring.datasource.username=" + jdbcUser,
+                        "--spring.datasource.password=" + jdbcPassword,
+                        "--spring.datasource.driver-class-name=" + (postgres ? "org.postgresql.Driver" : "org.h2.Driver"),
+                        "--spring.jpa.properties.hibernate.dialect=" + (postgres
+                                ? "org.hibernate.dialect.PostgreSQLDialect" : "org.hibernate.dialect.H2Dialect"),
+                        "--spring.jpa.show-sql=false",
+                        "--eureka.client.enabled=false",
+                        "--logging.level.root=WARN");
+
+        Habit habit = new Habit();
+        habit.setName("Read");
+        habit.setActive(true);
+        habit.setCreatedAt(LocalDate.now());
+        habit.setPersonId(PERSON_ID);
+        long habitId = context.getBean(HabitRepository.class).save(habit).getId();
+        String token = context.getBean(JWTUtil.class).generateAccessToken(PERSON_ID, "benchmark", "ROLE_USER");
+        String port = context.getEnvironment().getRequiredProperty("local.server.port");
+
+        // The load generator runs on virtual threads in both modes, so only the server side changes
+        clientThreads = Executors.newVirtualThreadPerTaskExecutor();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientThreads)
+                .build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/" + habitId + "/streak"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        clientThreads.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int streakRequests() throws Exception {
+        Semaphore inFlight = new Semaphore(concurrency);
+        List<Future<Integer>> results = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            results.add(clientThreads.submit(() -> {
+                try {
+                    return send();
+                } finally {
+                    inFlight.release();
+                }
+            }));
+        }
+        int completed = 0;
+        for (Future<Integer> result : results) {
+            completed += result.get();
+        }
+        return completed;
+    }
+
+    private int send() throws Exception {
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + request.uri() + " answered " + response.statusCode());
+        }
+        return 1;
+    }
+}
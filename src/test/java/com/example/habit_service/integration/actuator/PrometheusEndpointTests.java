@@ -0,0 +1,55 @@
+package com.example.habit_service.integration.actuator;
+
+import com.example.habit_service.HabitServiceApplication;
+import com.example.habit_service.integration.controller.TestKafkaConfig;
+import com.example.habit_service.security.JWTUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(classes = {HabitServiceApplication.class, TestKafkaConfig.class})
+@TestPropertySource(properties = "management.endpoints.web.exposure.include=health,prometheus")
+public class PrometheusEndpointTests {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private JWTUtil jwtUtil;
+
+    @MockBean
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Test
+    void prometheus_shouldExposeLatencyPerLayer_afterRequest() throws Exception {
+        String token = jwtUtil.generateAccessToken(123L, "testuser", "ROLE_USER");
+
+        mockMvc.perform(get("/all-habits")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(allOf(
+                        containsString("http_server_requests_seconds_bucket{"),
+                        containsString("uri=\"/all-habits\""),
+                        containsString("habit_service_seconds_bucket{"),
+                        containsString("method=\"getAllHabitsByPersonId\""),
+                        containsString("spring_data_repository_invocations_seconds_bucket{"),
+                        containsString("repository=\"HabitOwnerVersionRepository\""))));
+    }
+}
@@ -1,14 +1,33 @@
 package com.example.habit_service.integration.controller;
 
 import com.example.habit_service.HabitServiceApplication;
+import com.example.habit_service.dto.HabitEvent;
+import com.example.habit_service.dto.HabitEventType;
+import com.example.habit_service.dto.StatsGranularity;
+import com.example.habit_service.dto.UserDeletedEvent;
 import com.example.habit_service.entity.Habit;
+import com.example.habit_service.entity.HabitCompletion;
+import com.example.habit_service.entity.OutboxEvent;
+import com.example.habit_service.repository.DeletedPersonRepository;
+import com.example.habit_service.repository.HabitCompletionRepository;
+import com.example.habit_service.repository.HabitCompletionRollupRepository;
+import com.example.habit_service.repository.HabitOwnerVersionRepository;
 import com.example.habit_service.repository.HabitRepository;
+import com.example.habit_service.repository.LeaderboardSnapshotRepository;
+import com.example.habit_service.repository.OutboxEventRepository;
 import com.example.habit_service.security.HabitSecurity;
 import com.example.habit_service.security.JWTUtil;
 import com.example.habit_service.security.Person;
 import com.example.habit_service.security.PersonDetails;
+import com.example.habit_service.service.DeletedPersonPurger;
 import com.example.habit_service.service.HabitEventPublisher;
+import com.example.habit_service.service.HabitReadCache;
 import com.example.habit_service.service.HabitService;
+import com.example.habit_service.service.StreakLeaderboard;
+import com.example.habit_service.service.UserDeletionListener;
+import com.example.habit_service.util.HabitEventCodec;
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,15 +36,27 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
-
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.Mockito.*;
@@ -43,14 +74,33 @@ public class HabitControllerTests {
     @Autowired private JWTUtil jwtUtil;
 
     @MockBean
-    private KafkaTemplate<String, String> kafkaTemplate;
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
 
     @Autowired
     private HabitEventPublisher habitEventPublisher;
 
+    @Autowired private HabitCompletionRepository habitCompletionRepository;
+    @Autowired private OutboxEventRepository outboxEventRepository;
+    @Autowired private HabitReadCache habitReadCache;
+    @Autowired private HabitOwnerVersionRepository habitOwnerVersionRepository;
+    @Autowired private DeletedPersonRepository deletedPersonRepository;
+    @Autowired private HabitCompletionRollupRepository habitCompletionRollupRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private LeaderboardSnapshotRepository leaderboardSnapshotRepository;
+    @Autowired private StreakLeaderboard streakLeaderboard;
+
     @AfterEach
     void clearDatabase() {
+        // Tombstones go first, they hide habits from the entity-based deleteAll below
+        deletedPersonRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+        habitCompletionRepository.deleteAll();
+        habitCompletionRollupRepository.deleteAll();
         habitRepository.deleteAll();
+        habitOwnerVersionRepository.deleteAll();
+        leaderboardSnapshotRepository.deleteAll();
+        habitReadCache.clear();
+        streakLeaderboard.clear();
     }
 
 
@@ -83,6 +133,69 @@ public class HabitControllerTests {
                     .andExpect(jsonPath("$[0].active").value(true));
         }
 
+        @Test
+        void allHabits_shouldIncludeNewHabit_whenCreatedAfterCachedRead() throws Exception {
+            Authentication auth = new UsernamePasswordAuthenticationToken(personDetails, null, personDetails.getAuthorities());
+            SecurityContextHolder.getContext().setAuthentication(auth);
+
+            mockMvc.perform(get("/all-habits")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(jsonPath("$.length()").value(1));
+
+            mockMvc.perform(post("/create-habit")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("""
+                                    {
+                                        "name": "Evening Walk",
+                                        "active": true
+                                    }
+                                    """)
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk());
+
+            mockMvc.perform(get("/all-habits")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(2))
+                    .andExpect(jsonPath("$[1].name").value("Evening Walk"));
+        }
+
+        @Test
+        void allHabits_shouldReturn304_whenETagMatches_andNewETagAfterChange() throws Exception {
+            Authentication auth = new UsernamePasswordAuthenticationToken(personDetails, null, personDetails.getAuthorities());
+            SecurityContextHolder.getContext().setAuthentication(auth);
+
+            String etag = mockMvc.perform(get("/all-habits")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(header().exists(HttpHeaders.ETAG))
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+            mockMvc.perform(get("/all-habits")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                            .header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+
+            mockMvc.perform(post("/create-habit")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("""
+                                    {
+                                        "name": "Evening Walk",
+                                        "active": true
+                                    }
+                                    """)
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk());
+
+            mockMvc.perform(get("/all-habits")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                            .header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, Matchers.not(etag)))
+                    .andExpect(jsonPath("$.length()").value(2));
+        }
+
         @Test
         void allHabits_shouldReturn403_whenTokenIsMissing() throws Exception {
             SecurityContextHolder.clearContext();
@@ -130,6 +243,217 @@ public class HabitControllerTests {
         }
     }
 
+    @Nested
+    class habitPageTests {
+        private String token;
+
+        @BeforeEach
+        void setUp() {
+            Person person = createSamplePerson(123L, "testuser", "ROLE_USER");
+            PersonDetails personDetails = new PersonDetails(person);
+            token = jwtUtil.generateAccessToken(person.getId(), person.getUsername(), person.getRole());
+
+            habitRepository.save(createSampleHabit(123L, "First", true, "first"));
+            habitRepository.save(createSampleHabit(123L, "Second", true, "second"));
+            habitRepository.save(createSampleHabit(123L, "Third", false, "third"));
+            habitRepository.save(createSampleHabit(555L, "Alien Habit", true, "not for this user"));
+
+            Authentication auth = new UsernamePasswordAuthenticationToken(personDetails, null, personDetails.getAuthorities());
+            SecurityContextHolder.getContext().setAuthentication(auth);
+        }
+
+        @Test
+        void habitPage_shouldWalkAllPages_whenFollowingNextCursor() throws Exception {
+            String body = mockMvc.perform(get("/all-habits/page")
+                            .param("limit", "2")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items.length()").value(2))
+                    .andExpect(jsonPath("$.items[0].name").value("First"))
+                    .andExpect(jsonPath("$.items[1].name").value("Second"))
+                    .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                    .andReturn().getResponse().getContentAsString();
+
+            String nextCursor = JsonPath.read(body, "$.nextCursor");
+
+            mockMvc.perform(get("/all-habits/page")
+                            .param("limit", "2")
+                            .param("after", nextCursor)
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items.length()").value(1))
+                    .andExpect(jsonPath("$.items[0].name").value("Third"))
+                    .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        }
+
+        @Test
+        void habitPage_shouldReturn400_whenCursorIsMalformed() throws Exception {
+            mockMvc.perform(get("/all-habits/page")
+                            .param("after", "not-a-cursor")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.error").value("Invalid cursor"));
+        }
+
+        @Test
+        void habitPage_shouldReturn400_whenLimitIsOutOfRange() throws Exception {
+            mockMvc.perform(get("/all-habits/page")
+                            .param("limit", "0")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        void streamAllHabits_shouldWriteOnlyOwnHabitsAsJsonArray() throws Exception {
+            mockMvc.perform(get("/all-habits/stream")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.length()").value(3))
+                    .andExpect(jsonPath("$[0].name").value("First"))
+                    .andExpect(jsonPath("$[2].active").value(false));
+        }
+    }
+
+    @Nested
+    class exportTests {
+        private String token;
+        private Habit first;
+
+        @BeforeEach
+        void setUp() {
+            token = jwtUtil.generateAccessToken(123L, "testuser", "ROLE_USER");
+
+            first = habitRepository.save(createSampleHabit(123L, "First", true, "first"));
+            Habit second = habitRepository.save(createSampleHabit(123L, "Second", false, "second"));
+            Habit alien = habitRepository.save(createSampleHabit(555L, "Alien Habit", true, "not for this user"));
+            habitCompletionRepository.save(new HabitCompletion(second.getId(), 123L, LocalDate.of(2025, 4, 2)));
+            habitCompletionRepository.save(new HabitCompletion(first.getId(), 123L, LocalDate.of(2025, 4, 2)));
+            habitCompletionRepository.save(new HabitCompletion(first.getId(), 123L, LocalDate.of(2025, 4, 1)));
+            habitCompletionRepository.save(new HabitCompletion(alien.getId(), 555L, LocalDate.of(2025, 4, 1)));
+        }
+
+        @Test
+        void export_shouldStreamOwnHabitsThenCompletionsAsNdjson() throws Exception {
+            String body = mockMvc.perform(get("/export")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                    .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("habits-export.ndjson")))
+                    .andReturn().getResponse().getContentAsString();
+
+            assertExport(body);
+        }
+
+        @Test
+        void export_shouldGzipBody_whenClientAcceptsGzip() throws Exception {
+            byte[] body = mockMvc.perform(get("/export")
+                            .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1, gzip;q=0.8")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                    .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            assertExport(gunzip(body));
+        }
+
+        @Test
+        void export_shouldNotGzip_whenGzipIsRefused() throws Exception {
+            mockMvc.perform(get("/export")
+                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        }
+
+        private void assertExport(String body) {
+            List<String> lines = body.lines().toList();
+            Assertions.assertEquals(5, lines.size());
+            Assertions.assertEquals("First", JsonPath.read(lines.get(0), "$.habit.name"));
+            Assertions.assertEquals("Second", JsonPath.read(lines.get(1), "$.habit.name"));
+            Assertions.assertEquals("completion", JsonPath.read(lines.get(2), "$.type"));
+            Assertions.assertEquals(first.getId().intValue(), (int) JsonPath.read(lines.get(2), "$.completion.habitId"));
+            Assertions.assertEquals(List.of(2025, 4, 1), JsonPath.read(lines.get(2), "$.completion.completedOn"));
+            Assertions.assertEquals(List.of(2025, 4, 2), JsonPath.read(lines.get(3), "$.completion.completedOn"));
+            Assertions.assertTrue(body.endsWith("\n"));
+        }
+
+        private String gunzip(byte[] body) {
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Nested
+    class importTests {
+        private String token;
+
+        @BeforeEach
+        void setUp() {
+            token = jwtUtil.generateAccessToken(123L, "testuser", "ROLE_USER");
+        }
+
+        @Test
+        void import_shouldStoreValidJsonLines_andReportInvalidRows() throws Exception {
+            mockMvc.perform(post("/import")
+                            .contentType(MediaType.APPLICATION_NDJSON)
+                            .content("""
+                                    {"name": "Walk", "description": "Outside", "active": true}
+                                    {"name": "X", "active": true}
+                                    not json
+                                    {"name": "Read", "active": false}
+                                    """)
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.imported").value(2))
+                    .andExpect(jsonPath("$.failed").value(2))
+                    .andExpect(jsonPath("$.errors[0].line").value(2))
+                    .andExpect(jsonPath("$.errors[1].line").value(3));
+
+            mockMvc.perform(get("/all-habits")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(2))
+                    .andExpect(jsonPath("$[0].name").value("Walk"))
+                    .andExpect(jsonPath("$[0].personId").value(123))
+                    .andExpect(jsonPath("$[1].active").value(false));
+        }
+
+        @Test
+        void import_shouldStoreCsvRows() throws Exception {
+            mockMvc.perform(post("/import")
+                            .contentType("text/csv")
+                            .content("""
+                                    name,description,active
+                                    "Walk, slowly",,true
+                                    Read,Before bed,false
+                                    """)
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.imported").value(2))
+                    .andExpect(jsonPath("$.failed").value(0));
+
+            List<Habit> habits = habitRepository.findByPersonId(123L);
+            Assertions.assertEquals(2, habits.size());
+            Assertions.assertTrue(habits.stream().anyMatch(habit -> habit.getName().equals("Walk, slowly")
+                    && habit.getDescription() == null));
+        }
+
+        @Test
+        void import_shouldReturn415_whenUploadIsNotJsonLinesOrCsv() throws Exception {
+            mockMvc.perform(post("/import")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("[]")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isUnsupportedMediaType());
+        }
+    }
+
     @Nested
     class getHabitTests {
         @Test
@@ -154,6 +478,43 @@ public class HabitControllerTests {
                     .andExpect(jsonPath("$.active").value(true));
         }
 
+        @Test
+        void getHabitById_shouldReturn304_whenETagMatches() throws Exception {
+            Person person = createSamplePerson(123L, "testuser", "ROLE_USER");
+            PersonDetails personDetails = new PersonDetails(person);
+            String token = jwtUtil.generateAccessToken(person.getId(), person.getUsername(), person.getRole());
+
+            Habit habit = habitRepository.save(createSampleHabit(123L, "Reading", true, "Read every morning"));
+
+            Authentication auth = new UsernamePasswordAuthenticationToken(personDetails, null, personDetails.getAuthorities());
+            SecurityContextHolder.getContext().setAuthentication(auth);
+
+            mockMvc.perform(get("/" + habit.getId())
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"h" + habit.getId() + ".v0\""))
+                    .andExpect(jsonPath("$.version").value(0));
+
+            mockMvc.perform(get("/" + habit.getId())
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                            .header(HttpHeaders.IF_NONE_MATCH, "\"h" + habit.getId() + ".v0\""))
+                    .andExpect(status().isNotModified());
+
+            mockMvc.perform(patch("/update/" + habit.getId())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\": \"Reading more\"}")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.version").value(1));
+
+            mockMvc.perform(get("/" + habit.getId())
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                            .header(HttpHeaders.IF_NONE_MATCH, "\"h" + habit.getId() + ".v0\""))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"h" + habit.getId() + ".v1\""))
+                    .andExpect(jsonPath("$.name").value("Reading more"));
+        }
+
         @Test
         void getHabitById_shouldReturn403_whenUserIsNotOwner() throws Exception {
             SecurityContextHolder.clearContext();
@@ -243,6 +604,61 @@ public class HabitControllerTests {
                     .andExpect(jsonPath("$.error", Matchers.containsString("name - Product name must be between 2 and 255 characters;")));
         }
 
+        @Test
+        void createHabit_shouldScheduleNextReminder_whenReminderGiven() throws Exception {
+            Person person = createSamplePerson(123L, "testuser", "ROLE_USER");
+            PersonDetails personDetails = new PersonDetails(person);
+            String token = jwtUtil.generateAccessToken(person.getId(), person.getUsername(), person.getRole());
+
+            Authentication auth = new UsernamePasswordAuthenticationToken(personDetails, null, personDetails.getAuthorities());
+            SecurityContextHolder.getContext().setAuthentication(auth);
+
+            mockMvc.perform(post("/create-habit")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("""
+                                    {
+                                        "name": "Morning Workout",
+                                        "active": true,
+                                        "reminderTime": "07:30",
+                                        "reminderZone": "Asia/Tokyo"
+                                    }
+                                    """)
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.reminderTime").value("07:30"))
+                    .andExpect(jsonPath("$.reminderZone").value("Asia/Tokyo"));
+
+            Habit saved = habitRepository.findByPersonId(123L).get(0);
+            ZonedDateTime next = saved.getNextReminderAt().atZone(ZoneId.of("Asia/Tokyo"));
+            Assertions.assertEquals(LocalTime.of(7, 30), next.toLocalTime());
+            Assertions.assertTrue(saved.getNextReminderAt().isAfter(Instant.now()));
+            Assertions.assertTrue(saved.getNextReminderAt().isBefore(Instant.now().plus(Duration.ofDays(1))));
+        }
+
+        @Test
+        void createHabit_shouldReturn400_whenReminderZoneIsInvalid() throws Exception {
+            Person person = createSamplePerson(123L, "testuser", "ROLE_USER");
+            PersonDetails personDetails = new PersonDetails(person);
+            String token = jwtUtil.generateAccessToken(person.getId(), person.getUsername(), person.getRole());
+
+            Authentication auth = new UsernamePasswordAuthenticationToken(personDetails, null, personDetails.getAuthorities());
+            SecurityContextHolder.getContext().setAuthentication(auth);
+
+            mockMvc.perform(post("/create-habit")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("""
+                                    {
+                                        "name": "Morning Workout",
+                                        "active": true,
+                                        "reminderTime": "07:30",
+                                        "reminderZone": "Mars/Olympus"
+                                    }
+                                    """)
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.error", Matchers.containsString("Reminder time and zone must be given together")));
+        }
+
         @Test
         void createHabit_shouldReturn403_whenTokenIsMissing() throws Exception {
             SecurityContextHolder.clearContext();
@@ -285,65 +701,143 @@ public class HabitControllerTests {
     }
 
     @Nested
-    class DeleteHabitTests {
+    class newHabitsTests {
         @Test
-        void deleteHabit_shouldReturn200_whenUserIsOwner() throws Exception {
-            // Подготовка пользователя и привычки
+        void createHabits_shouldCreateAllHabits_whenDataIsValid() throws Exception {
             Long personId = 123L;
             Person person = createSamplePerson(personId, "testuser", "ROLE_USER");
             PersonDetails personDetails = new PersonDetails(person);
             String token = jwtUtil.generateAccessToken(person.getId(), person.getUsername(), person.getRole());
 
-            Habit habit = createSampleHabit(personId, "Test Habit", true, "desc");
-            habitRepository.save(habit);
-
-            // Устанавливаем аутентификацию
             Authentication auth = new UsernamePasswordAuthenticationToken(personDetails, null, personDetails.getAuthorities());
             SecurityContextHolder.getContext().setAuthentication(auth);
 
-            mockMvc.perform(delete("/delete/" + habit.getId())
+            mockMvc.perform(post("/create-habits")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("""
+                                    {
+                                        "habits": [
+                                            { "name": "Morning Workout", "description": "15-minute stretch", "active": true },
+                                            { "name": "Read", "active": true },
+                                            { "name": "Meditate", "active": false }
+                                        ]
+                                    }
+                                    """)
                             .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
                     .andExpect(status().isOk())
-                    .andExpect(jsonPath("$.message").value("Habit with id " + habit.getId() + " successfully removed."));
+                    .andExpect(jsonPath("$.length()").value(3))
+                    .andExpect(jsonPath("$[0].id").isNumber())
+                    .andExpect(jsonPath("$[1].name").value("Read"))
+                    .andExpect(jsonPath("$[2].personId").value(personId));
 
-            // Проверка, что событие отправлено
-            verify(kafkaTemplate, times(1)).send("habit-events", "Habit deleted: " + habit.getId());
+            Assertions.assertEquals(3, habitRepository.findByPersonId(personId).size());
         }
 
         @Test
-        void deleteHabit_shouldReturn403_whenUserIsNotOwner() throws Exception {
+        void createHabits_shouldReturn400AndCreateNothing_whenOneHabitIsInvalid() throws Exception {
             Long personId = 123L;
-            Person person = createSamplePerson(personId, "user", "ROLE_USER");
+            Person person = createSamplePerson(personId, "testuser", "ROLE_USER");
+            PersonDetails personDetails = new PersonDetails(person);
             String token = jwtUtil.generateAccessToken(person.getId(), person.getUsername(), person.getRole());
 
-            Habit habit = createSampleHabit(999L, "Alien Habit", true, "not yours");
-            habitRepository.save(habit);
-
-            Authentication auth = new UsernamePasswordAuthenticationToken(
-                    new PersonDetails(person), null, List.of(() -> "ROLE_USER"));
+            Authentication auth = new UsernamePasswordAuthenticationToken(personDetails, null, personDetails.getAuthorities());
             SecurityContextHolder.getContext().setAuthentication(auth);
 
-            mockMvc.perform(delete("/delete/" + habit.getId())
+            mockMvc.perform(post("/create-habits")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("""
+                                    {
+                                        "habits": [
+                                            { "name": "Read", "active": true },
+                                            { "name": "M", "active": true }
+                                        ]
+                                    }
+                                    """)
                             .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
-                    .andExpect(status().isForbidden())
-                    .andExpect(jsonPath("$.status").value(403))
-                    .andExpect(jsonPath("$.path").value("/delete/" + habit.getId()));
-        }
-
-        @Test
-        void deleteHabit_shouldReturn403_whenTokenIsMissing() throws Exception {
-            SecurityContextHolder.clearContext();
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.error", containsString("habits[1].name - Product name must be between 2 and 255 characters;")));
 
-            mockMvc.perform(delete("/delete/1"))
-                    .andExpect(status().isForbidden());
+            Assertions.assertTrue(habitRepository.findByPersonId(personId).isEmpty());
         }
 
         @Test
-        void deleteHabit_shouldReturn403_whenPathVariableIsInvalid() throws Exception {
-            Person person = createSamplePerson(1L, "user", "ROLE_USER");
+        void createHabits_shouldReturn400_whenListIsEmpty() throws Exception {
+            Person person = createSamplePerson(123L, "testuser", "ROLE_USER");
+            PersonDetails personDetails = new PersonDetails(person);
             String token = jwtUtil.generateAccessToken(person.getId(), person.getUsername(), person.getRole());
 
-            mockMvc.perform(delete("/delete/abc")
+            Authentication auth = new UsernamePasswordAuthenticationToken(personDetails, null, personDetails.getAuthorities());
+            SecurityContextHolder.getContext().setAuthentication(auth);
+
+            mockMvc.perform(post("/create-habits")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{ \"habits\": [] }")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.error", containsString("habits - The list of habits should not be empty;")));
+        }
+    }
+
+    @Nested
+    class DeleteHabitTests {
+        @Test
+        void deleteHabit_shouldReturn200_whenUserIsOwner() throws Exception {
+            // Подготовка пользователя и привычки
+            Long personId = 123L;
+            Person person = createSamplePerson(personId, "testuser", "ROLE_USER");
+            PersonDetails personDetails = new PersonDetails(person);
+            String token = jwtUtil.generateAccessToken(person.getId(), person.getUsername(), person.getRole());
+
+            Habit habit = createSampleHabit(personId, "Test Habit", true, "desc");
+            habitRepository.save(habit);
+
+            // Устанавливаем аутентификацию
+            Authentication auth = new UsernamePasswordAuthenticationToken(personDetails, null, personDetails.getAuthorities());
+            SecurityContextHolder.getContext().setAuthentication(auth);
+
+            mockMvc.perform(delete("/delete/" + habit.getId())
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.message").value("Habit with id " + habit.getId() + " successfully removed."));
+
+            // Проверка, что событие записано в outbox
+            assertSingleOutboxEvent(HabitEventType.DELETED, habit);
+        }
+
+        @Test
+        void deleteHabit_shouldReturn403_whenUserIsNotOwner() throws Exception {
+            Long personId = 123L;
+            Person person = createSamplePerson(personId, "user", "ROLE_USER");
+            String token = jwtUtil.generateAccessToken(person.getId(), person.getUsername(), person.getRole());
+
+            Habit habit = createSampleHabit(999L, "Alien Habit", true, "not yours");
+            habitRepository.save(habit);
+
+            Authentication auth = new UsernamePasswordAuthenticationToken(
+                    new PersonDetails(person), null, List.of(() -> "ROLE_USER"));
+            SecurityContextHolder.getContext().setAuthentication(auth);
+
+            mockMvc.perform(delete("/delete/" + habit.getId())
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isForbidden())
+                    .andExpect(jsonPath("$.status").value(403))
+                    .andExpect(jsonPath("$.path").value("/delete/" + habit.getId()));
+        }
+
+        @Test
+        void deleteHabit_shouldReturn403_whenTokenIsMissing() throws Exception {
+            SecurityContextHolder.clearContext();
+
+            mockMvc.perform(delete("/delete/1"))
+                    .andExpect(status().isForbidden());
+        }
+
+        @Test
+        void deleteHabit_shouldReturn403_whenPathVariableIsInvalid() throws Exception {
+            Person person = createSamplePerson(1L, "user", "ROLE_USER");
+            String token = jwtUtil.generateAccessToken(person.getId(), person.getUsername(), person.getRole());
+
+            mockMvc.perform(delete("/delete/abc")
                             .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
                     .andExpect(status().isBadRequest())
                     .andExpect(jsonPath("$.path").value("/delete/abc"));
@@ -383,8 +877,100 @@ public class HabitControllerTests {
                     .andExpect(jsonPath("$.description").value("Old description"))
                     .andExpect(jsonPath("$.active").value(true));
 
-            // Проверка отправки события
-            verify(kafkaTemplate, times(1)).send("habit-events", "Habit updated: " + habit.getId());
+            // Проверка, что событие записано в outbox
+            assertSingleOutboxEvent(HabitEventType.UPDATED, habit);
+        }
+
+        @Test
+        void updateHabit_shouldApplyChange_whenIfMatchIsCurrent() throws Exception {
+            Person person = createSamplePerson(123L, "testuser", "ROLE_USER");
+            PersonDetails personDetails = new PersonDetails(person);
+            String token = jwtUtil.generateAccessToken(person.getId(), person.getUsername(), person.getRole());
+
+            Habit habit = habitRepository.save(createSampleHabit(123L, "Old Name", true, "Old description"));
+
+            Authentication auth = new UsernamePasswordAuthenticationToken(personDetails, null, personDetails.getAuthorities());
+            SecurityContextHolder.getContext().setAuthentication(auth);
+
+            mockMvc.perform(patch("/update/" + habit.getId())
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                            .header(HttpHeaders.IF_MATCH, "\"h" + habit.getId() + ".v0\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\": \"Updated Name\"}"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"h" + habit.getId() + ".v1\""))
+                    .andExpect(jsonPath("$.name").value("Updated Name"))
+                    .andExpect(jsonPath("$.description").value("Old description"))
+                    .andExpect(jsonPath("$.version").value(1));
+        }
+
+        @Test
+        void updateHabit_shouldApplyChange_whenAnyTagOfIfMatchListIsCurrent() throws Exception {
+            Person person = createSamplePerson(123L, "testuser", "ROLE_USER");
+            PersonDetails personDetails = new PersonDetails(person);
+            String token = jwtUtil.generateAccessToken(person.getId(), person.getUsername(), person.getRole());
+
+            Habit habit = habitRepository.save(createSampleHabit(123L, "Old Name", true, "Old description"));
+
+            Authentication auth = new UsernamePasswordAuthenticationToken(personDetails, null, personDetails.getAuthorities());
+            SecurityContextHolder.getContext().setAuthentication(auth);
+
+            mockMvc.perform(patch("/update/" + habit.getId())
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                            .header(HttpHeaders.IF_MATCH, "\"h" + habit.getId() + ".v3\", \"h" + habit.getId() + ".v0\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\": \"Updated Name\"}"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"h" + habit.getId() + ".v1\""))
+                    .andExpect(jsonPath("$.version").value(1));
+
+            // Weak tags never match under If-Match, even at the current version
+            mockMvc.perform(patch("/update/" + habit.getId())
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                            .header(HttpHeaders.IF_MATCH, "W/\"h" + habit.getId() + ".v1\", \"h" + habit.getId() + ".v0\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\": \"From tablet\"}"))
+                    .andExpect(status().isPreconditionFailed())
+                    .andExpect(jsonPath("$.error").value("Habit with id " + habit.getId() + " is at version 1, not 0"));
+
+            Assertions.assertEquals("Updated Name", habitRepository.findById(habit.getId()).orElseThrow().getName());
+        }
+
+        @Test
+        void updateHabit_shouldReturn412_whenIfMatchIsStale() throws Exception {
+            Person person = createSamplePerson(123L, "testuser", "ROLE_USER");
+            PersonDetails personDetails = new PersonDetails(person);
+            String token = jwtUtil.generateAccessToken(person.getId(), person.getUsername(), person.getRole());
+
+            Habit habit = habitRepository.save(createSampleHabit(123L, "Old Name", true, "Old description"));
+
+            Authentication auth = new UsernamePasswordAuthenticationToken(personDetails, null, personDetails.getAuthorities());
+            SecurityContextHolder.getContext().setAuthentication(auth);
+
+            // The first device wins and moves the habit to version 1
+            mockMvc.perform(patch("/update/" + habit.getId())
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                            .header(HttpHeaders.IF_MATCH, "\"h" + habit.getId() + ".v0\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\": \"From phone\"}"))
+                    .andExpect(status().isOk());
+
+            mockMvc.perform(patch("/update/" + habit.getId())
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                            .header(HttpHeaders.IF_MATCH, "\"h" + habit.getId() + ".v0\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\": \"From tablet\"}"))
+                    .andExpect(status().isPreconditionFailed())
+                    .andExpect(jsonPath("$.error").value("Habit with id " + habit.getId() + " is at version 1, not 0"));
+
+            mockMvc.perform(patch("/update/" + habit.getId())
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                            .header(HttpHeaders.IF_MATCH, "\"something-else\"")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\": \"From tablet\"}"))
+                    .andExpect(status().isPreconditionFailed());
+
+            Assertions.assertEquals("From phone", habitRepository.findById(habit.getId()).orElseThrow().getName());
         }
 
         @Test
@@ -411,6 +997,8 @@ public class HabitControllerTests {
                     .andExpect(status().isForbidden())
                     .andExpect(jsonPath("$.status").value(403))
                     .andExpect(jsonPath("$.path").value("/update/" + habit.getId()));
+
+            Assertions.assertEquals(0, outboxEventRepository.count());
         }
 
         @Test
@@ -493,6 +1081,486 @@ public class HabitControllerTests {
         }
     }
 
+    @Nested
+    class CompleteHabitTests {
+        @Test
+        void completeHabit_shouldStartStreakAndSendEvent_whenUserIsOwner() throws Exception {
+            Long personId = 123L;
+            Person person = createSamplePerson(personId, "testuser", "ROLE_USER");
+            PersonDetails personDetails = new PersonDetails(person);
+            String token = jwtUtil.generateAccessToken(person.getId(), person.getUsername(), person.getRole());
+
+            Habit habit = createSampleHabit(personId, "Reading", true, "Read every morning");
+            habitRepository.save(habit);
+
+            Authentication auth = new UsernamePasswordAuthenticationToken(personDetails, null, personDetails.getAuthorities());
+            SecurityContextHolder.getContext().setAuthentication(auth);
+
+            mockMvc.perform(post("/" + habit.getId() + "/complete")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.habitId").value(habit.getId()))
+                    .andExpect(jsonPath("$.currentStreak").value(1))
+                    .andExpect(jsonPath("$.longestStreak").value(1));
+
+            assertSingleOutboxEvent(HabitEventType.COMPLETED, habit);
+
+            mockMvc.perform(get("/" + habit.getId() + "/streak")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.currentStreak").value(1));
+        }
+
+        @Test
+        void completeHabit_shouldReturn409_whenAlreadyCompletedToday() throws Exception {
+            Long personId = 123L;
+            Person person = createSamplePerson(personId, "testuser", "ROLE_USER");
+            PersonDetails personDetails = new PersonDetails(person);
+            String token = jwtUtil.generateAccessToken(person.getId(), person.getUsername(), person.getRole());
+
+            Habit habit = createSampleHabit(personId, "Reading", true, "Read every morning");
+            habit.setCurrentStreak(3);
+            habit.setLongestStreak(3);
+            habit.setLastCompletedOn(LocalDate.now());
+            habitRepository.save(habit);
+
+            Authentication auth = new UsernamePasswordAuthenticationToken(personDetails, null, personDetails.getAuthorities());
+            SecurityContextHolder.getContext().setAuthentication(auth);
+
+            mockMvc.perform(post("/" + habit.getId() + "/complete")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isConflict())
+                    .andExpect(jsonPath("$.error").value("Habit with id " + habit.getId() + " is already completed today"));
+        }
+
+        @Test
+        void completeHabit_shouldReturn403_whenUserIsNotOwner() throws Exception {
+            Person person = createSamplePerson(123L, "testuser", "ROLE_USER");
+            PersonDetails personDetails = new PersonDetails(person);
+            String token = jwtUtil.generateAccessToken(person.getId(), person.getUsername(), person.getRole());
+
+            Habit habit = createSampleHabit(999L, "Alien Habit", true, "not yours");
+            habitRepository.save(habit);
+
+            Authentication auth = new UsernamePasswordAuthenticationToken(personDetails, null, personDetails.getAuthorities());
+            SecurityContextHolder.getContext().setAuthentication(auth);
+
+            mockMvc.perform(post("/" + habit.getId() + "/complete")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isForbidden())
+                    .andExpect(jsonPath("$.status").value(403));
+        }
+    }
+
+    @Nested
+    class StatsTests {
+        private String token;
+        private Habit habit;
+
+        @BeforeEach
+        void setUp() {
+            Person person = createSamplePerson(123L, "testuser", "ROLE_USER");
+            PersonDetails personDetails = new PersonDetails(person);
+            token = jwtUtil.generateAccessToken(person.getId(), person.getUsername(), person.getRole());
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(personDetails, null, personDetails.getAuthorities()));
+
+            habit = createSampleHabit(123L, "Reading", true, "Read every morning");
+            habit.setCreatedAt(LocalDate.of(2025, 3, 1));
+            habitRepository.save(habit);
+            for (String day : List.of("2025-03-03", "2025-03-04", "2025-03-10", "2025-03-31", "2025-04-01")) {
+                recordCompletion(LocalDate.parse(day));
+            }
+        }
+
+        @Test
+        void stats_shouldSplitRangeIntoWeeks_clippingFirstAndLast() throws Exception {
+            mockMvc.perform(get("/" + habit.getId() + "/stats")
+                            .param("from", "2025-03-04")
+                            .param("to", "2025-04-01")
+                            .param("granularity", "week")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.granularity").value("WEEK"))
+                    .andExpect(jsonPath("$.completions").value(4))
+                    .andExpect(jsonPath("$.days").value(29))
+                    .andExpect(jsonPath("$.periods.length()").value(5))
+                    .andExpect(jsonPath("$.periods[0].completions").value(1))
+                    .andExpect(jsonPath("$.periods[0].days").value(6))
+                    .andExpect(jsonPath("$.periods[1].completions").value(1))
+                    .andExpect(jsonPath("$.periods[1].completionRate").value(1.0 / 7))
+                    .andExpect(jsonPath("$.periods[4].completions").value(2))
+                    .andExpect(jsonPath("$.periods[4].days").value(2));
+        }
+
+        @Test
+        void stats_shouldNotCountDaysBeforeHabitWasCreated() throws Exception {
+            mockMvc.perform(get("/" + habit.getId() + "/stats")
+                            .param("from", "2025-01-01")
+                            .param("to", "2025-04-30")
+                            .param("granularity", "MONTH")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.periods.length()").value(2))
+                    .andExpect(jsonPath("$.periods[0].completions").value(4))
+                    .andExpect(jsonPath("$.periods[0].days").value(31))
+                    .andExpect(jsonPath("$.periods[1].completions").value(1))
+                    .andExpect(jsonPath("$.completionRate").value(5.0 / 61));
+        }
+
+        @Test
+        void stats_shouldReturn400_whenGranularityIsUnknown() throws Exception {
+            mockMvc.perform(get("/" + habit.getId() + "/stats")
+                            .param("from", "2025-03-01")
+                            .param("to", "2025-03-31")
+                            .param("granularity", "year")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.error", containsString("Granularity must be one of")));
+        }
+
+        @Test
+        void stats_shouldReturn400_whenRangeIsMissing() throws Exception {
+            mockMvc.perform(get("/" + habit.getId() + "/stats")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isBadRequest());
+        }
+
+        private void recordCompletion(LocalDate day) {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (StatsGranularity granularity : StatsGranularity.values()) {
+                    habitCompletionRollupRepository.increment(habit.getId(), granularity.name(), granularity.periodStart(day), 123L);
+                }
+            });
+        }
+    }
+
+    private void assertSingleOutboxEvent(HabitEventType type, Habit habit) {
+        List<OutboxEvent> outbox = outboxEventRepository.findAll();
+        Assertions.assertEquals(1, outbox.size());
+        Assertions.assertEquals(String.valueOf(habit.getPersonId()), outbox.get(0).getEventKey());
+
+        HabitEvent event = HabitEventCodec.decode(outbox.get(0).getPayload());
+        Assertions.assertEquals(type, event.getType());
+        Assertions.assertEquals(habit.getId(), event.getHabitId());
+        Assertions.assertEquals(habit.getPersonId(), event.getPersonId());
+    }
+
+    @Nested
+    class SearchTests {
+        private String token;
+
+        @BeforeEach
+        void setUp() {
+            Person person = createSamplePerson(123L, "testuser", "ROLE_USER");
+            PersonDetails personDetails = new PersonDetails(person);
+            token = jwtUtil.generateAccessToken(person.getId(), person.getUsername(), person.getRole());
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(personDetails, null, personDetails.getAuthorities()));
+        }
+
+        @Test
+        void search_shouldRankMatches_andPageThroughThem() throws Exception {
+            Habit notes = habitRepository.save(createSampleHabit(123L, "Evening notes", true, "Went for a run after work"));
+            Habit longRun = habitRepository.save(createSampleHabit(123L, "Long run", true, null));
+            Habit brunch = habitRepository.save(createSampleHabit(123L, "Brunch with family", true, null));
+            Habit run = habitRepository.save(createSampleHabit(123L, "Run", true, "5 km"));
+            Habit running = habitRepository.save(createSampleHabit(123L, "Running", true, null));
+            habitRepository.save(createSampleHabit(123L, "Reading", true, "Twenty pages"));
+            habitRepository.save(createSampleHabit(456L, "Run", true, "not for this user"));
+
+            String cursor = JsonPath.read(mockMvc.perform(get("/search")
+                            .param("q", "RUN")
+                            .param("limit", "3")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items.length()").value(3))
+                    .andExpect(jsonPath("$.items[0].id").value(run.getId()))
+                    .andExpect(jsonPath("$.items[0].match").value(0))
+                    .andExpect(jsonPath("$.items[1].id").value(running.getId()))
+                    .andExpect(jsonPath("$.items[2].id").value(longRun.getId()))
+                    .andExpect(jsonPath("$.items[2].match").value(2))
+                    .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                    .andReturn().getResponse().getContentAsString(), "$.nextCursor");
+
+            mockMvc.perform(get("/search")
+                            .param("q", "RUN")
+                            .param("limit", "3")
+                            .param("after", cursor)
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items.length()").value(2))
+                    .andExpect(jsonPath("$.items[0].id").value(brunch.getId()))
+                    .andExpect(jsonPath("$.items[0].match").value(3))
+                    .andExpect(jsonPath("$.items[1].id").value(notes.getId()))
+                    .andExpect(jsonPath("$.items[1].match").value(4))
+                    .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        }
+
+        @Test
+        void search_shouldMatchWildcardsLiterally() throws Exception {
+            Habit percent = habitRepository.save(createSampleHabit(123L, "Save 10% of salary", true, null));
+            habitRepository.save(createSampleHabit(123L, "Save 100 euros", true, null));
+
+            mockMvc.perform(get("/search")
+                            .param("q", "10%")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items.length()").value(1))
+                    .andExpect(jsonPath("$.items[0].id").value(percent.getId()));
+        }
+
+        @Test
+        void search_shouldReturn400_whenQueryIsBlank() throws Exception {
+            mockMvc.perform(get("/search")
+                            .param("q", " ")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.error", containsString("Query must be between 1 and")));
+        }
+
+        @Test
+        void search_shouldReturn403_whenTokenIsMissing() throws Exception {
+            mockMvc.perform(get("/search").param("q", "run"))
+                    .andExpect(status().isForbidden());
+        }
+    }
+
+    @Nested
+    class LeaderboardTests {
+        @Autowired private MeterRegistry meterRegistry;
+
+        private String token;
+        private Habit reading;
+        private Habit running;
+
+        @BeforeEach
+        void setUp() {
+            Person person = createSamplePerson(123L, "testuser", "ROLE_USER");
+            PersonDetails personDetails = new PersonDetails(person);
+            token = jwtUtil.generateAccessToken(person.getId(), person.getUsername(), person.getRole());
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(personDetails, null, personDetails.getAuthorities()));
+
+            LocalDate today = LocalDate.now();
+            reading = habitRepository.save(createStreakHabit(123L, "Reading", 4, today.minusDays(1)));
+            running = habitRepository.save(createStreakHabit(123L, "Running", 2, today));
+            habitRepository.save(createStreakHabit(456L, "Swimming", 6, today));
+            habitRepository.save(createStreakHabit(789L, "Cycling", 3, today));
+            // Long stored streak, but it ended days ago
+            habitRepository.save(createStreakHabit(789L, "Chess", 50, today.minusDays(3)));
+        }
+
+        @Test
+        void leaderboard_shouldRankLiveStreaks_andTakeCheckInsAtOnce() throws Exception {
+            streakLeaderboard.sync(LocalDate.now());
+
+            mockMvc.perform(get("/leaderboard")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(4))
+                    .andExpect(jsonPath("$[0].personId").value(456))
+                    .andExpect(jsonPath("$[0].currentStreak").value(6))
+                    .andExpect(jsonPath("$[1].habitId").value(reading.getId()))
+                    .andExpect(jsonPath("$[3].habitId").value(running.getId()))
+                    .andExpect(jsonPath("$[3].rank").value(4));
+
+            mockMvc.perform(post("/" + reading.getId() + "/complete")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk());
+            mockMvc.perform(delete("/delete/" + running.getId())
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk());
+
+            mockMvc.perform(get("/leaderboard")
+                            .param("limit", "2")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(2))
+                    .andExpect(jsonPath("$[1].habitId").value(reading.getId()))
+                    .andExpect(jsonPath("$[1].currentStreak").value(5))
+                    .andExpect(jsonPath("$[1].rank").value(2));
+        }
+
+        @Test
+        void leaderboard_shouldRestartFromSnapshot_withoutRankingTheHabitTable() throws Exception {
+            Assertions.assertEquals(4, streakLeaderboard.sync(LocalDate.now()));
+            Assertions.assertEquals(4L, leaderboardSnapshotRepository.count());
+            double refills = meterRegistry.get("habit.leaderboard.refills").counter().count();
+
+            streakLeaderboard.clear();
+            streakLeaderboard.sync(LocalDate.now());
+
+            Assertions.assertEquals(refills, meterRegistry.get("habit.leaderboard.refills").counter().count());
+            mockMvc.perform(get("/leaderboard")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(4))
+                    .andExpect(jsonPath("$[0].currentStreak").value(6));
+        }
+
+        @Test
+        void friendsLeaderboard_shouldOnlyRankCallerAndFriends() throws Exception {
+            streakLeaderboard.sync(LocalDate.now());
+
+            mockMvc.perform(get("/leaderboard/friends")
+                            .param("friendIds", "456")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(3))
+                    .andExpect(jsonPath("$[0].personId").value(456))
+                    .andExpect(jsonPath("$[1].habitId").value(reading.getId()))
+                    .andExpect(jsonPath("$[2].habitId").value(running.getId()))
+                    .andExpect(jsonPath("$[2].rank").value(3));
+        }
+
+        @Test
+        void friendsLeaderboard_shouldLeaveOutFriendsStreaks_thatAreNotOnTheGlobalLeaderboard() throws Exception {
+            // Nothing synced yet, so the global leaderboard is empty and only the caller's own habits are ranked
+            mockMvc.perform(get("/leaderboard/friends")
+                            .param("friendIds", "456,789")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(2))
+                    .andExpect(jsonPath("$[0].habitId").value(reading.getId()))
+                    .andExpect(jsonPath("$[1].habitId").value(running.getId()));
+        }
+
+        @Test
+        void leaderboard_shouldReturn400_whenLimitIsOutOfRange() throws Exception {
+            mockMvc.perform(get("/leaderboard")
+                            .param("limit", "0")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.error", containsString("Limit must be between 1 and")));
+        }
+
+        private Habit createStreakHabit(Long personId, String name, int currentStreak, LocalDate lastCompletedOn) {
+            Habit habit = createSampleHabit(personId, name, true, null);
+            habit.setCurrentStreak(currentStreak);
+            habit.setLongestStreak(currentStreak);
+            habit.setLastCompletedOn(lastCompletedOn);
+            return habit;
+        }
+    }
+
+    @Nested
+    class DeletedUserTests {
+        @Autowired private UserDeletionListener userDeletionListener;
+        @Autowired private TransactionTemplate transactionTemplate;
+        @Autowired private JdbcTemplate jdbcTemplate;
+        @Autowired private MeterRegistry meterRegistry;
+
+        @Test
+        void deletedUser_shouldHideHabitsAtOnce_andPurgeThemInChunks() throws Exception {
+            Person person = createSamplePerson(123L, "testuser", "ROLE_USER");
+            PersonDetails personDetails = new PersonDetails(person);
+            String token = jwtUtil.generateAccessToken(person.getId(), person.getUsername(), person.getRole());
+
+            Habit habit = habitRepository.save(createSampleHabit(123L, "Read", true, "Ten pages"));
+            habitRepository.save(createSampleHabit(123L, "Run", true, "Five km"));
+            habitRepository.save(createSampleHabit(123L, "Stretch", false, null));
+            Habit other = habitRepository.save(createSampleHabit(456L, "Swim", true, null));
+
+            Authentication auth = new UsernamePasswordAuthenticationToken(personDetails, null, personDetails.getAuthorities());
+            SecurityContextHolder.getContext().setAuthentication(auth);
+
+            mockMvc.perform(post("/" + habit.getId() + "/complete")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk());
+            mockMvc.perform(get("/all-habits")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(jsonPath("$.length()").value(3));
+
+            userDeletionListener.handleUserDeleted(List.of(new UserDeletedEvent(123L)));
+
+            mockMvc.perform(get("/all-habits")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(0));
+            mockMvc.perform(get("/" + habit.getId())
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isForbidden());
+            Assertions.assertEquals("", mockMvc.perform(get("/export")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            Assertions.assertEquals(3L, jdbcTemplate.queryForObject(
+                    "select count(*) from habit where person_id = 123", Long.class));
+
+            // Two rows per chunk, two chunks per run: the completion and its day rollup, then the week and month
+            // rollups; the next run takes two habits, then the last one and drops the tombstone
+            DeletedPersonPurger purger = new DeletedPersonPurger(deletedPersonRepository, habitRepository,
+                    habitCompletionRepository, habitCompletionRollupRepository, transactionTemplate, meterRegistry, 2, 2);
+            Assertions.assertEquals(2, purger.purgeChunks());
+            Assertions.assertEquals(1L, deletedPersonRepository.count());
+            Assertions.assertEquals(2, purger.purgeChunks());
+            Assertions.assertEquals(0, purger.purgeChunks());
+
+            Assertions.assertEquals(0L, deletedPersonRepository.count());
+            Assertions.assertEquals(0L, jdbcTemplate.queryForObject(
+                    "select count(*) from habit where person_id = 123", Long.class));
+            Assertions.assertEquals(0L, jdbcTemplate.queryForObject(
+                    "select count(*) from habit_completion where person_id = 123", Long.class));
+            Assertions.assertEquals(0L, jdbcTemplate.queryForObject(
+                    "select count(*) from habit_completion_rollup where person_id = 123", Long.class));
+            Assertions.assertTrue(habitRepository.findById(other.getId()).isPresent());
+        }
+
+        @Test
+        void movedHabit_shouldKeepItsCompletionsWithTheNewOwner_whenEitherOwnerIsDeleted() throws Exception {
+            String oldOwnerToken = authenticate(123L);
+            Habit habit = habitRepository.save(createSampleHabit(123L, "Read", true, "Ten pages"));
+            mockMvc.perform(post("/" + habit.getId() + "/complete")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + oldOwnerToken))
+                    .andExpect(status().isOk());
+            mockMvc.perform(patch("/update/" + habit.getId())
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + oldOwnerToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"personId\": 456}"))
+                    .andExpect(status().isOk());
+
+            // The old owner leaving takes nothing of the habit along
+            userDeletionListener.handleUserDeleted(List.of(new UserDeletedEvent(123L)));
+            String newOwnerToken = authenticate(456L);
+            List<String> export = mockMvc.perform(get("/export")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + newOwnerToken))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString().lines().toList();
+            Assertions.assertEquals(2, export.size());
+            Assertions.assertEquals(habit.getId().intValue(), (int) JsonPath.read(export.get(1), "$.completion.habitId"));
+
+            DeletedPersonPurger purger = new DeletedPersonPurger(deletedPersonRepository, habitRepository,
+                    habitCompletionRepository, habitCompletionRollupRepository, transactionTemplate, meterRegistry, 10, 10);
+            purger.purgeChunks();
+            Assertions.assertEquals(0L, deletedPersonRepository.count());
+            Assertions.assertEquals(1L, countRowsOfHabit("habit_completion", habit));
+            Assertions.assertEquals(3L, countRowsOfHabit("habit_completion_rollup", habit));
+
+            // The new owner leaving takes the completions and rollups along with the habit
+            userDeletionListener.handleUserDeleted(List.of(new UserDeletedEvent(456L)));
+            purger.purgeChunks();
+            Assertions.assertEquals(0L, deletedPersonRepository.count());
+            Assertions.assertEquals(0L, countRowsOfHabit("habit", habit));
+            Assertions.assertEquals(0L, countRowsOfHabit("habit_completion", habit));
+            Assertions.assertEquals(0L, countRowsOfHabit("habit_completion_rollup", habit));
+        }
+
+        private String authenticate(long personId) {
+            Person person = createSamplePerson(personId, "user" + personId, "ROLE_USER");
+            PersonDetails personDetails = new PersonDetails(person);
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(personDetails, null, personDetails.getAuthorities()));
+            return jwtUtil.generateAccessToken(person.getId(), person.getUsername(), person.getRole());
+        }
+
+        private long countRowsOfHabit(String table, Habit habit) {
+            String column = table.equals("habit") ? "id" : "habit_id";
+            return jdbcTemplate.queryForObject("select count(*) from " + table + " where " + column + " = ?",
+                    Long.class, habit.getId());
+        }
+    }
+
     private Person createSamplePerson(Long id, String username, String role) {
         Person person = new Person();
         person.setId(id);
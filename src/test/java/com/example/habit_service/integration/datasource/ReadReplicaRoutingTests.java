@@ -0,0 +1,116 @@
+package com.example.habit_service.integration.datasource;
+
+import com.example.habit_service.HabitServiceApplication;
+import com.example.habit_service.entity.Habit;
+import com.example.habit_service.integration.controller.TestKafkaConfig;
+import com.example.habit_service.repository.HabitOwnerVersionRepository;
+import com.example.habit_service.repository.HabitRepository;
+import com.example.habit_service.security.JWTUtil;
+import com.example.habit_service.service.HabitReadCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The "replica" is the same in-memory database as the primary, so routing is observed
+ * through the per-target read counter rather than through differing data.
+ */
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@SpringBootTest(classes = {HabitServiceApplication.class, TestKafkaConfig.class})
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replicadb;DB_CLOSE_DELAY=-1",
+        "habit.datasource.replica.enabled=true",
+        "habit.datasource.replica.urls=jdbc:h2:mem:replicadb;DB_CLOSE_DELAY=-1",
+        "habit.datasource.replica.stickiness=1m"
+})
+public class ReadReplicaRoutingTests {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private JWTUtil jwtUtil;
+    @Autowired private MeterRegistry meterRegistry;
+    @Autowired private HabitRepository habitRepository;
+    @Autowired private HabitOwnerVersionRepository habitOwnerVersionRepository;
+    @Autowired private HabitReadCache habitReadCache;
+    @Autowired private DataSource dataSource;
+
+    @MockBean
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @AfterEach
+    void clearDatabase() {
+        habitRepository.deleteAll();
+        habitOwnerVersionRepository.deleteAll();
+        habitReadCache.clear();
+    }
+
+    @Test
+    void reads_shouldGoToReplica_untilUserWrites() throws Exception {
+        Habit habit = new Habit();
+        habit.setName("Read");
+        habit.setActive(true);
+        habit.setCreatedAt(LocalDate.now());
+        habit.setPersonId(321L);
+        habitRepository.save(habit);
+        String token = jwtUtil.generateAccessToken(321L, "reader", "ROLE_USER");
+
+        double replicaBefore = reads("replica");
+        double primaryBefore = reads("primary");
+        mockMvc.perform(get("/all-habits")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+        assertEquals(2, reads("replica") - replicaBefore, "version lookup and list load");
+        assertEquals(0, reads("primary") - primaryBefore);
+
+        mockMvc.perform(post("/create-habit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "name": "Write",
+                                    "active": true
+                                }
+                                """)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+
+        replicaBefore = reads("replica");
+        primaryBefore = reads("primary");
+        mockMvc.perform(get("/all-habits")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        assertEquals(0, reads("replica") - replicaBefore);
+        assertEquals(2, reads("primary") - primaryBefore);
+    }
+
+    @Test
+    void dataSource_shouldBeLazyProxyOverPrimary() {
+        assertInstanceOf(LazyConnectionDataSourceProxy.class, dataSource);
+    }
+
+    private double reads(String target) {
+        return meterRegistry.get("habit.datasource.reads").tag("target", target).counter().count();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.habit_service.integration.repository;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Applies the Flyway scripts to Postgres the two ways a production database meets them: empty, and created
+ * from db-init/init.sql and baselined at V1, as application.yml configures. Both must end up with the same
+ * schema. Entities are checked against that schema by {@link QueryPlanTests}, which starts with ddl-auto=validate.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class FlywayMigrationTests {
+    // Tables, columns, keys, indexes and sequences of the public schema, without Flyway's history. NOT NULL
+    // checks are left out: their names carry object ids, and is_nullable already covers them
+    private static final String DESCRIBE_SCHEMA =
+            "select 'column', table_name, column_name, data_type || ' ' || is_nullable || ' ' || coalesce(column_default, '') " +
+            "from information_schema.columns where table_schema = 'public' and table_name <> 'flyway_schema_history' " +
+            "union all select 'constraint', table_name, constraint_name, constraint_type " +
+            "from information_schema.table_constraints where table_schema = 'public' and constraint_type <> 'CHECK' " +
+            "and table_name <> 'flyway_schema_history' " +
+            "union all select 'index', tablename, indexname, indexdef " +
+            "from pg_indexes where schemaname = 'public' and tablename <> 'flyway_schema_history' " +
+            "union all select 'sequence', sequence_name, '', increment " +
+            "from information_schema.sequences where sequence_schema = 'public' " +
+            "order by 1, 2, 3";
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Test
+    void initScriptDatabase_shouldMigrateToTheSchemaOfAnEmptyDatabase() throws Exception {
+        createDatabase("empty");
+        createDatabase("from_init_script");
+        execute("from_init_script", Files.readString(Path.of("db-init/init.sql")));
+
+        MigrateResult fromEmpty = migrate("empty");
+        MigrateResult fromInitScript = migrate("from_init_script");
+
+        // The init script stands in for V1 and every later script runs on top of it
+        assertEquals(fromEmpty.targetSchemaVersion, fromInitScript.targetSchemaVersion);
+        assertEquals(fromEmpty.migrationsExecuted - 1, fromInitScript.migrationsExecuted);
+        assertEquals(describe("empty"), describe("from_init_script"));
+        // Hibernate checks it against the pooled allocationSize of Habit and refuses to start on a mismatch
+        assertEquals(List.of("50"), query("from_init_script",
+                "select increment from information_schema.sequences where sequence_name = 'habit_id_seq'"));
+    }
+
+    private MigrateResult migrate(String database) {
+        return Flyway.configure()
+                .dataSource(url(database), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load()
+                .migrate();
+    }
+
+    private List<String> describe(String database) throws SQLException {
+        return query(database, DESCRIBE_SCHEMA);
+    }
+
+    private static void createDatabase(String database) throws SQLException {
+        execute(POSTGRES.getDatabaseName(), "create database " + database);
+    }
+
+    private static void execute(String database, String sql) throws SQLException {
+        try (Connection connection = connect(database); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static List<String> query(String database, String sql) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (Connection connection = connect(database);
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            int columns = result.getMetaData().getColumnCount();
+            while (result.next()) {
+                List<String> row = new ArrayList<>(columns);
+                for (int i = 1; i <= columns; i++) {
+                    row.add(result.getString(i));
+                }
+                rows.add(String.join(" | ", row));
+            }
+        }
+        return rows;
+    }
+
+    private static Connection connect(String database) throws SQLException {
+        return DriverManager.getConnection(url(database), POSTGRES.getUsername(), POSTGRES.getPassword());
+    }
+
+    private static String url(String database) {
+        return "jdbc:postgresql://" + POSTGRES.getHost() + ":" + POSTGRES.getFirstMappedPort() + "/" + database;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.habit_service.integration.repository;
+
+import com.example.habit_service.HabitServiceApplication;
+import com.example.habit_service.dto.HabitRequestDTO;
+import com.example.habit_service.entity.Habit;
+import com.example.habit_service.integration.controller.TestKafkaConfig;
+import com.example.habit_service.repository.HabitBulkLoader;
+import com.example.habit_service.repository.HabitRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The COPY path only exists on PostgreSQL, so unlike the H2-backed tests this one needs a real server.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@ActiveProfiles("test")
+@SpringBootTest(classes = {HabitServiceApplication.class, TestKafkaConfig.class},
+        properties = {
+                "spring.flyway.enabled=true",
+                "spring.flyway.postgresql.transactional-lock=false",
+                "spring.jpa.hibernate.ddl-auto=none",
+                "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect"
+        })
+public class HabitBulkLoaderTests {
+    private static final long PERSON_ID = 9L;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driver-class-name", POSTGRES::getDriverClassName);
+    }
+
+    @Autowired private HabitBulkLoader habitBulkLoader;
+    @Autowired private HabitRepository habitRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Test
+    void load_shouldCopyRows_withIdsThatNeverCollideWithHibernateIds() {
+        habitRepository.save(habit("Saved before the import"));
+        List<HabitRequestDTO> rows = IntStream.range(0, 120)
+                .mapToObj(i -> request("Habit, \"" + i + "\"", i % 2 == 0 ? null : "", i % 3 == 0))
+                .toList();
+
+        Integer copied = transactionTemplate.execute(status -> habitBulkLoader.load(PERSON_ID, rows, LocalDate.of(2025, 1, 1)));
+        habitRepository.save(habit("Saved after the import"));
+
+        assertEquals(120, copied);
+        assertEquals(122, jdbcTemplate.queryForObject("select count(distinct id) from habit", Integer.class));
+        assertEquals(60, jdbcTemplate.queryForObject(
+                "select count(*) from habit where person_id = ? and description is null", Integer.class, PERSON_ID));
+        assertEquals(60, jdbcTemplate.queryForObject(
+                "select count(*) from habit where person_id = ? and description = ''", Integer.class, PERSON_ID));
+        assertEquals(40, jdbcTemplate.queryForObject(
+                "select count(*) from habit where person_id = ? and active", Integer.class, PERSON_ID));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from habit where name = 'Habit, \"7\"' and created_at = date '2025-01-01'", Integer.class));
+    }
+
+    private static HabitRequestDTO request(String name, String description, boolean active) {
+        HabitRequestDTO request = new HabitRequestDTO();
+        request.setName(name);
+        request.setDescription(description);
+        request.setActive(active);
+        return request;
+    }
+
+    private static Habit habit(String name) {
+        Habit habit = new Habit();
+        habit.setName(name);
+        habit.setActive(true);
+        habit.setCreatedAt(LocalDate.now());
+        habit.setPersonId(PERSON_ID + 1);
+        return habit;
+    }
+}
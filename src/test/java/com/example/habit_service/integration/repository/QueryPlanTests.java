@@ -0,0 +1,333 @@
+package com.example.habit_service.integration.repository;
+
+import com.example.habit_service.HabitServiceApplication;
+import com.example.habit_service.dto.StatsGranularity;
+import com.example.habit_service.integration.controller.TestKafkaConfig;
+import com.example.habit_service.repository.DeletedPersonRepository;
+import com.example.habit_service.repository.HabitCompletionRepository;
+import com.example.habit_service.repository.HabitCompletionRollupRepository;
+import com.example.habit_service.repository.HabitOwnerVersionRepository;
+import com.example.habit_service.repository.HabitRepository;
+import com.example.habit_service.repository.LeaderboardSnapshotRepository;
+import com.example.habit_service.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Named;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs every repository query against Postgres with the Flyway schema and a realistically sized table,
+ * captures the SQL and bind values Hibernate sends, and replays them under EXPLAIN.
+ * Fails when a query plans a sequential scan, which is what a dropped or unused index turns into.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@ActiveProfiles("test")
+@SpringBootTest(classes = {HabitServiceApplication.class, TestKafkaConfig.class, QueryPlanTests.CapturingDataSourceConfig.class},
+        properties = {
+                "spring.flyway.enabled=true",
+                "spring.flyway.postgresql.transactional-lock=false",
+                "spring.jpa.hibernate.ddl-auto=validate",
+                "spring.jpa.show-sql=false",
+                "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect"
+        })
+public class QueryPlanTests {
+    private static final long PERSON_ID = 7L;
+    private static final int PERSONS = 2_000;
+    private static final int HABITS = 200_000;
+
+    // Queue-like tables that stay near empty: the outbox is drained every 200 ms and deleted_person
+    // only holds users whose purge is in progress, so scanning them is the right plan. The leaderboard
+    // snapshot never holds more than twice the leaderboard size and is read whole
+    private static final Set<String> SCANNABLE_TABLES = Set.of("outbox_event", "deleted_person", "streak_leaderboard_snapshot");
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+
+    private static final List<CapturedStatement> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driver-class-name", POSTGRES::getDriverClassName);
+    }
+
+    @Autowired private HabitRepository habitRepository;
+    @Autowired private HabitCompletionRepository habitCompletionRepository;
+    @Autowired private HabitCompletionRollupRepository habitCompletionRollupRepository;
+    @Autowired private HabitOwnerVersionRepository habitOwnerVersionRepository;
+    @Autowired private OutboxEventRepository outboxEventRepository;
+    @Autowired private DeletedPersonRepository deletedPersonRepository;
+    @Autowired private LeaderboardSnapshotRepository leaderboardSnapshotRepository;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private DataSource dataSource;
+
+    @MockBean
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @BeforeAll
+    void seed() {
+        JdbcTemplate jdbc = new JdbcTemplate(rawDataSource());
+        // Streaks up to 40 days, two in five of them still alive
+        jdbc.update("insert into habit (id, name, created_at, active, person_id, current_streak, longest_streak, last_completed_on) " +
+                "select g, 'Habit ' || g, current_date, g % 4 <> 0, g % ?, g % 41, g % 41, current_date - (g % 5) " +
+                "from generate_series(1, ?) g", PERSONS, HABITS);
+        jdbc.update("insert into habit_completion (habit_id, person_id, completed_on, created_at) " +
+                "select g, g % ?, current_date - (g % 30), now() from generate_series(1, ?) g", PERSONS, HABITS);
+        // Rolled up from the completions the way the rollup migration backfills them
+        for (String granularity : List.of("DAY", "WEEK", "MONTH")) {
+            String periodStart = granularity.equals("DAY") ? "completed_on"
+                    : "date_trunc('" + granularity.toLowerCase() + "', completed_on)::date";
+            jdbc.update("insert into habit_completion_rollup (habit_id, granularity, period_start, person_id, completions) " +
+                    "select habit_id, ?, " + periodStart + ", max(person_id), count(*) " +
+                    "from habit_completion group by habit_id, " + periodStart, granularity);
+        }
+        jdbc.update("insert into habit_owner_version (person_id, version) select g, 1 from generate_series(0, ? - 1) g", PERSONS);
+        jdbc.execute("analyze");
+    }
+
+    Stream<Named<Consumer<QueryPlanTests>>> repositoryQueries() {
+        return Stream.of(
+                query("HabitRepository.findByPersonId", t -> t.habitRepository.findByPersonId(PERSON_ID)),
+                query("HabitRepository.findResponsesByPersonId", t -> t.habitRepository.findResponsesByPersonId(PERSON_ID)),
+                query("HabitRepository.findResponseByIdAndPersonId", t -> t.habitRepository.findResponseByIdAndPersonId(PERSON_ID, PERSON_ID)),
+                query("HabitRepository.deleteChunkByPersonId", t -> t.habitRepository.deleteChunkByPersonId(PERSON_ID, 1000)),
+                query("HabitRepository.findByPersonIdAndIdGreaterThanOrderByIdAsc",
+                        t -> t.habitRepository.findByPersonIdAndIdGreaterThanOrderByIdAsc(PERSON_ID, 0L, Limit.of(50))),
+                query("HabitRepository.streamByPersonIdOrderByIdAsc", t -> {
+                    try (var habits = t.habitRepository.streamByPersonIdOrderByIdAsc(PERSON_ID)) {
+                        habits.forEach(habit -> { });
+                    }
+                }),
+                query("HabitRepository.streamResponsesByPersonId", t -> {
+                    try (var habits = t.habitRepository.streamResponsesByPersonId(PERSON_ID)) {
+                        habits.forEach(habit -> { });
+                    }
+                }),
+                query("HabitRepository.findByIdAndPersonId", t -> t.habitRepository.findByIdAndPersonId(PERSON_ID, PERSON_ID)),
+                query("HabitRepository.findVersionByIdAndPersonId", t -> t.habitRepository.findVersionByIdAndPersonId(PERSON_ID, PERSON_ID)),
+                query("HabitRepository.findByIdAndPersonIdForUpdate", t -> t.habitRepository.findByIdAndPersonIdForUpdate(PERSON_ID, PERSON_ID)),
+                query("HabitRepository.updateIfVersionMatches",
+                        t -> t.habitRepository.updateIfVersionMatches(PERSON_ID, PERSON_ID, 0L, "Renamed", null, null, null, null, null)),
+                query("HabitRepository.updateNextReminderAt", t -> t.habitRepository.updateNextReminderAt(PERSON_ID, Instant.now())),
+                query("HabitRepository.findDueReminders",
+                        t -> t.habitRepository.findDueReminders(Instant.now().plusSeconds(120), 4, 1, Limit.of(50000))),
+                query("HabitRepository.advanceReminder",
+                        t -> t.habitRepository.advanceReminder(PERSON_ID, Instant.now(), Instant.now().plusSeconds(86400))),
+                query("HabitRepository.deleteByIdAndPersonId", t -> t.habitRepository.deleteByIdAndPersonId(PERSON_ID, PERSON_ID)),
+                query("HabitRepository.search", t -> t.habitRepository.search(
+                        PERSON_ID, "habit 1", "habit 1%", "% habit 1%", "%habit 1%", -1, 0L, Limit.of(21))),
+                query("HabitRepository.findLeaderboardEntries",
+                        t -> t.habitRepository.findLeaderboardEntries(List.of(PERSON_ID, PERSON_ID + 1, PERSON_ID + 2))),
+                query("HabitRepository.findTopStreaks",
+                        t -> t.habitRepository.findTopStreaks(LocalDate.now().minusDays(1), Limit.of(200))),
+                query("HabitRepository.findTopStreaksByPersonId", t -> t.habitRepository.findTopStreaksByPersonId(
+                        PERSON_ID, LocalDate.now().minusDays(1), Limit.of(10))),
+                query("LeaderboardSnapshotRepository.findRanked", t -> t.leaderboardSnapshotRepository.findRanked()),
+                query("LeaderboardSnapshotRepository.upsert", t -> t.leaderboardSnapshotRepository.upsert(
+                        PERSON_ID, PERSON_ID, 12, LocalDate.now())),
+                query("LeaderboardSnapshotRepository.deleteAllExcept",
+                        t -> t.leaderboardSnapshotRepository.deleteAllExcept(List.of(PERSON_ID))),
+                query("HabitCompletionRepository.deleteAllByHabitId", t -> t.habitCompletionRepository.deleteAllByHabitId(PERSON_ID)),
+                query("HabitCompletionRepository.updatePersonIdByHabitId",
+                        t -> t.habitCompletionRepository.updatePersonIdByHabitId(PERSON_ID, PERSON_ID + 1)),
+                query("HabitCompletionRepository.deleteChunkByPersonId",
+                        t -> t.habitCompletionRepository.deleteChunkByPersonId(PERSON_ID, 1000)),
+                query("HabitCompletionRepository.streamByPersonId", t -> {
+                    try (var completions = t.habitCompletionRepository.streamByPersonId(PERSON_ID)) {
+                        completions.forEach(completion -> { });
+                    }
+                }),
+                query("HabitRepository.findCreatedAtByIdAndPersonId", t -> t.habitRepository.findCreatedAtByIdAndPersonId(PERSON_ID, PERSON_ID)),
+                query("HabitCompletionRollupRepository.increment", t -> t.habitCompletionRollupRepository.increment(
+                        PERSON_ID, StatsGranularity.WEEK.name(), LocalDate.now().with(DayOfWeek.MONDAY), PERSON_ID)),
+                query("HabitCompletionRollupRepository.findPeriods", t -> t.habitCompletionRollupRepository.findPeriods(
+                        PERSON_ID, StatsGranularity.MONTH, LocalDate.now().minusYears(1), LocalDate.now())),
+                query("HabitCompletionRollupRepository.deleteAllByHabitId",
+                        t -> t.habitCompletionRollupRepository.deleteAllByHabitId(PERSON_ID)),
+                query("HabitCompletionRollupRepository.updatePersonIdByHabitId",
+                        t -> t.habitCompletionRollupRepository.updatePersonIdByHabitId(PERSON_ID, PERSON_ID + 1)),
+                query("HabitCompletionRollupRepository.deleteChunkByPersonId",
+                        t -> t.habitCompletionRollupRepository.deleteChunkByPersonId(PERSON_ID, 1000)),
+                query("HabitOwnerVersionRepository.findVersion", t -> t.habitOwnerVersionRepository.findVersion(PERSON_ID)),
+                query("HabitOwnerVersionRepository.increment", t -> t.habitOwnerVersionRepository.increment(PERSON_ID)),
+                query("HabitOwnerVersionRepository.incrementAll", t -> t.habitOwnerVersionRepository.incrementAll(List.of(PERSON_ID))),
+                query("OutboxEventRepository.tryLockForRelay", t -> t.outboxEventRepository.tryLockForRelay()),
+                query("OutboxEventRepository.findBatchForRelay", t -> t.outboxEventRepository.findBatchForRelay(Limit.of(500))),
+                query("DeletedPersonRepository.markDeleted", t -> t.deletedPersonRepository.markDeleted(PERSON_ID, Instant.now())),
+                query("DeletedPersonRepository.findOldestPersonIds", t -> t.deletedPersonRepository.findOldestPersonIds(Limit.of(10)))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void repositoryQuery_shouldNotPlanSequentialScan(Consumer<QueryPlanTests> query) throws Exception {
+        STATEMENTS.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            query.accept(this);
+            status.setRollbackOnly();
+        });
+        assertFalse(STATEMENTS.isEmpty(), "No SQL was captured");
+
+        for (CapturedStatement statement : STATEMENTS) {
+            List<String> plan = explain(statement);
+            Matcher scan = SEQ_SCAN.matcher(String.join("\n", plan));
+            while (scan.find()) {
+                if (!SCANNABLE_TABLES.contains(scan.group(1))) {
+                    fail("Sequential scan on " + scan.group(1) + " for\n" + statement.sql() + "\n" + String.join("\n", plan));
+                }
+            }
+        }
+    }
+
+    private List<String> explain(CapturedStatement statement) throws SQLException {
+        try (Connection connection = rawDataSource().getConnection();
+             PreparedStatement explain = connection.prepareStatement("explain " + statement.sql())) {
+            for (Binding binding : statement.bindings()) {
+                binding.method().invoke(explain, binding.args());
+            }
+            List<String> plan = new ArrayList<>();
+            try (ResultSet rows = explain.executeQuery()) {
+                while (rows.next()) {
+                    plan.add(rows.getString(1));
+                }
+            }
+            return plan;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not replay the parameters of " + statement.sql(), e);
+        }
+    }
+
+    private DataSource rawDataSource() {
+        return ((CapturingDataSource) dataSource).getTargetDataSource();
+    }
+
+    private static Named<Consumer<QueryPlanTests>> query(String name, Consumer<QueryPlanTests> query) {
+        return Named.of(name, query);
+    }
+
+    record Binding(Method method, Object[] args) {
+    }
+
+    record CapturedStatement(String sql, List<Binding> bindings) {
+    }
+
+    @TestConfiguration
+    static class CapturingDataSourceConfig {
+        @Bean
+        static BeanPostProcessor capturingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource target && !(bean instanceof CapturingDataSource)
+                            ? new CapturingDataSource(target)
+                            : bean;
+                }
+            };
+        }
+    }
+
+    /**
+     * Hands out connections whose prepared statements record the SQL and every parameter setter call
+     * at execution time, so the exact statement can be replayed under EXPLAIN afterwards.
+     */
+    static class CapturingDataSource extends DelegatingDataSource {
+        CapturingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public DataSource getTargetDataSource() {
+            return super.getTargetDataSource();
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return capture(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return capture(super.getConnection(username, password));
+        }
+
+        private static Connection capture(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (method.getName().equals("prepareStatement")) {
+                            return capture((PreparedStatement) result, (String) args[0]);
+                        }
+                        return result;
+                    });
+        }
+
+        private static PreparedStatement capture(PreparedStatement statement, String sql) {
+            List<Binding> bindings = new ArrayList<>();
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.startsWith("set") && method.getParameterCount() >= 2 && method.getParameterTypes()[0] == int.class) {
+                            bindings.add(new Binding(method, args.clone()));
+                        } else if (name.equals("clearParameters")) {
+                            bindings.clear();
+                        } else if (args == null && (name.startsWith("execute") || name.equals("addBatch"))) {
+                            STATEMENTS.add(new CapturedStatement(sql, List.copyOf(bindings)));
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
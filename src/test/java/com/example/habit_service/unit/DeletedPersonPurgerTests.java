@@ -0,0 +1,96 @@
+package com.example.habit_service.unit;
+
+import com.example.habit_service.repository.DeletedPersonRepository;
+import com.example.habit_service.repository.HabitCompletionRepository;
+import com.example.habit_service.repository.HabitCompletionRollupRepository;
+import com.example.habit_service.repository.HabitRepository;
+import com.example.habit_service.service.DeletedPersonPurger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DeletedPersonPurgerTests {
+    @Mock
+    private DeletedPersonRepository deletedPersonRepository;
+
+    @Mock
+    private HabitRepository habitRepository;
+
+    @Mock
+    private HabitCompletionRepository habitCompletionRepository;
+
+    @Mock
+    private HabitCompletionRollupRepository habitCompletionRollupRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DeletedPersonPurger purger;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        purger = new DeletedPersonPurger(deletedPersonRepository, habitRepository, habitCompletionRepository,
+                habitCompletionRollupRepository, new TransactionTemplate(transactionManager), meterRegistry, 100, 3);
+    }
+
+    @Test
+    void shouldDeleteCompletionsThenHabitsThenTombstone_inChunks() {
+        when(deletedPersonRepository.findOldestPersonIds(Limit.of(3))).thenReturn(List.of(7L));
+        when(deletedPersonRepository.count()).thenReturn(1L);
+        when(habitCompletionRepository.deleteChunkByPersonId(7L, 100)).thenReturn(100, 30, 0);
+        when(habitCompletionRollupRepository.deleteChunkByPersonId(7L, 70)).thenReturn(20);
+        when(habitCompletionRollupRepository.deleteChunkByPersonId(7L, 100)).thenReturn(5);
+        when(habitRepository.deleteChunkByPersonId(7L, 50)).thenReturn(50);
+        when(habitRepository.deleteChunkByPersonId(7L, 95)).thenReturn(12);
+
+        int chunks = purger.purgeChunks();
+
+        assertEquals(3, chunks);
+        verify(deletedPersonRepository).deleteById(7L);
+        assertEquals(130.0, meterRegistry.get("user.purge.rows").tag("table", "habit_completion").counter().count());
+        assertEquals(25.0, meterRegistry.get("user.purge.rows").tag("table", "habit_completion_rollup").counter().count());
+        assertEquals(62.0, meterRegistry.get("user.purge.rows").tag("table", "habit").counter().count());
+        assertEquals(1.0, meterRegistry.get("user.purge.users").counter().count());
+        assertEquals(0.0, meterRegistry.get("user.purge.pending").gauge().value());
+    }
+
+    @Test
+    void shouldStopAtChunkBudget_andKeepTombstoneForNextRun() {
+        when(deletedPersonRepository.findOldestPersonIds(Limit.of(3))).thenReturn(List.of(7L, 8L));
+        when(deletedPersonRepository.count()).thenReturn(2L);
+        when(habitCompletionRepository.deleteChunkByPersonId(7L, 100)).thenReturn(100);
+
+        int chunks = purger.purgeChunks();
+
+        assertEquals(3, chunks);
+        verify(habitCompletionRepository, never()).deleteChunkByPersonId(eq(8L), anyInt());
+        verify(habitCompletionRollupRepository, never()).deleteChunkByPersonId(anyLong(), anyInt());
+        verify(habitRepository, never()).deleteChunkByPersonId(anyLong(), anyInt());
+        verify(deletedPersonRepository, never()).deleteById(anyLong());
+        assertEquals(2.0, meterRegistry.get("user.purge.pending").gauge().value());
+    }
+
+    @Test
+    void shouldDoNothing_whenNoUserIsPending() {
+        when(deletedPersonRepository.findOldestPersonIds(Limit.of(3))).thenReturn(List.of());
+
+        assertEquals(0, purger.purgeChunks());
+        verifyNoInteractions(habitCompletionRepository, habitCompletionRollupRepository, habitRepository);
+    }
+}
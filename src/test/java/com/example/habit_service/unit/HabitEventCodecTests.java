@@ -0,0 +1,63 @@
+package com.example.habit_service.unit;
+
+import com.example.habit_service.dto.HabitEvent;
+import com.example.habit_service.dto.HabitEventType;
+import com.example.habit_service.util.HabitEventCodec;
+import com.example.habit_service.util.HabitEventDeserializer;
+import com.example.habit_service.util.HabitEventSerializer;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HabitEventCodecTests {
+
+    @Test
+    void shouldRoundTripEvent() {
+        HabitEvent event = new HabitEvent(HabitEventType.COMPLETED, 421_337L, 98_765L, Instant.ofEpochMilli(1_760_000_000_123L));
+
+        byte[] encoded = HabitEventCodec.encode(event);
+
+        assertEquals(HabitEventCodec.VERSION, encoded[0]);
+        assertTrue(encoded.length <= 14);
+        assertEquals(event, HabitEventCodec.decode(encoded));
+    }
+
+    @Test
+    void shouldRoundTripExtremeIds() {
+        HabitEvent event = new HabitEvent(HabitEventType.DELETED, Long.MAX_VALUE, 0L, Instant.EPOCH);
+        assertEquals(event, HabitEventCodec.decode(HabitEventCodec.encode(event)));
+    }
+
+    @Test
+    void shouldIgnoreTrailingFields_whenDecoding() {
+        HabitEvent event = new HabitEvent(HabitEventType.UPDATED, 1L, 2L, Instant.ofEpochMilli(3L));
+        byte[] encoded = HabitEventCodec.encode(event);
+        byte[] extended = Arrays.copyOf(encoded, encoded.length + 2);
+
+        assertEquals(event, HabitEventCodec.decode(extended));
+    }
+
+    @Test
+    void shouldRejectUnknownVersion() {
+        byte[] encoded = HabitEventCodec.encode(new HabitEvent(HabitEventType.UPDATED, 1L, 2L, Instant.EPOCH));
+        encoded[0] = (byte) (HabitEventCodec.VERSION + 1);
+
+        assertThrows(IllegalArgumentException.class, () -> HabitEventCodec.decode(encoded));
+    }
+
+    @Test
+    void shouldWrapDecodeErrors_whenDeserializing() {
+        HabitEvent event = new HabitEvent(HabitEventType.COMPLETED, 5L, 6L, Instant.ofEpochMilli(7L));
+        byte[] serialized = new HabitEventSerializer().serialize("habit-events", event);
+
+        try (HabitEventDeserializer deserializer = new HabitEventDeserializer()) {
+            assertEquals(event, deserializer.deserialize("habit-events", serialized));
+            assertThrows(SerializationException.class,
+                    () -> deserializer.deserialize("habit-events", Arrays.copyOf(serialized, 3)));
+        }
+    }
+}
@@ -1,45 +1,58 @@
 package com.example.habit_service.unit;
 
+import com.example.habit_service.dto.HabitEvent;
+import com.example.habit_service.dto.HabitEventType;
+import com.example.habit_service.entity.OutboxEvent;
+import com.example.habit_service.repository.OutboxEventRepository;
 import com.example.habit_service.service.HabitEventPublisher;
-import org.junit.jupiter.api.BeforeEach;
+import com.example.habit_service.util.HabitEventCodec;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.kafka.core.KafkaTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class HabitEventPublisherTests {
     @Mock
-    private KafkaTemplate<String, String> kafkaTemplate;
+    private OutboxEventRepository outboxEventRepository;
 
     @InjectMocks
     private HabitEventPublisher publisher;
 
-    private Long habitId;
-
-    @BeforeEach
-    void setUp() {
-        habitId = 1L;
-    }
-
     @Test
     void shouldSendEvent_whenHabitCreated() {
-        publisher.publishHabitCompleted(habitId);
-        verify(kafkaTemplate).send(eq("habit-events"), eq("Habit completed: 1"));
+        publisher.publishHabitCompleted(1L, 7L);
+        assertSavedEvent(HabitEventType.COMPLETED);
     }
 
     @Test
     void shouldSendEvent_whenHabitDeleted() {
-        publisher.habitDeleted(habitId);
-        verify(kafkaTemplate).send(eq("habit-events"), eq("Habit deleted: 1"));
+        publisher.habitDeleted(1L, 7L);
+        assertSavedEvent(HabitEventType.DELETED);
     }
 
     @Test
     void shouldSendEvent_whenHabitUpdated() {
-        publisher.habitUpdated(habitId);
-        verify(kafkaTemplate).send(eq("habit-events"), eq("Habit updated: 1"));
+        publisher.habitUpdated(1L, 7L);
+        assertSavedEvent(HabitEventType.UPDATED);
+    }
+
+    private void assertSavedEvent(HabitEventType type) {
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(captor.capture());
+
+        OutboxEvent saved = captor.getValue();
+        assertEquals("habit-events", saved.getTopic());
+        assertEquals("7", saved.getEventKey());
+
+        HabitEvent event = HabitEventCodec.decode(saved.getPayload());
+        assertEquals(type, event.getType());
+        assertEquals(1L, event.getHabitId());
+        assertEquals(7L, event.getPersonId());
     }
 }
@@ -0,0 +1,93 @@
+package com.example.habit_service.unit;
+
+import com.example.habit_service.util.HabitImportReader;
+import com.example.habit_service.util.HabitImportReader.Format;
+import com.example.habit_service.util.HabitImportReader.Row;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HabitImportReaderTests {
+
+    @Test
+    void shouldReadCsvWithQuotedFieldsAndColumnsInAnyOrder() throws IOException {
+        List<Row> rows = readAll(Format.CSV, """
+                active,name,description
+                true,Drink water,
+                
+                false,"Read, then ""sleep\"\"\",Before bed
+                """);
+
+        assertEquals(2, rows.size());
+        assertEquals(2, rows.get(0).line());
+        assertEquals("Drink water", rows.get(0).habit().getName());
+        assertNull(rows.get(0).habit().getDescription());
+        assertTrue(rows.get(0).habit().getActive());
+        assertEquals(4, rows.get(1).line());
+        assertEquals("Read, then \"sleep\"", rows.get(1).habit().getName());
+        assertEquals("Before bed", rows.get(1).habit().getDescription());
+        assertFalse(rows.get(1).habit().getActive());
+    }
+
+    @Test
+    void shouldReportBrokenCsvRowsAndKeepReading() throws IOException {
+        List<Row> rows = readAll(Format.CSV, """
+                name,active
+                "Unbalanced,true
+                Too,many,fields
+                Walk,maybe
+                Walk,true
+                """);
+
+        assertEquals(4, rows.size());
+        assertEquals("Malformed CSV: unbalanced quotes", rows.get(0).error());
+        assertEquals("Expected 2 fields but found 3", rows.get(1).error());
+        assertEquals("active: must be true or false", rows.get(2).error());
+        assertEquals("Walk", rows.get(3).habit().getName());
+    }
+
+    @Test
+    void shouldStopAtCsvHeaderWithoutRequiredColumns() throws IOException {
+        List<Row> rows = readAll(Format.CSV, """
+                title,description
+                Walk,Outside
+                """);
+
+        assertEquals(1, rows.size());
+        assertEquals(1, rows.get(0).line());
+        assertNotNull(rows.get(0).error());
+    }
+
+    @Test
+    void shouldReadJsonLinesAndReportMalformedOnes() throws IOException {
+        List<Row> rows = readAll(Format.NDJSON, """
+                {"name": "Walk", "active": true}
+                {"name": "Run",
+                null
+                {"name": "Swim", "active": false, "description": "Pool"}
+                """);
+
+        assertEquals(4, rows.size());
+        assertEquals("Walk", rows.get(0).habit().getName());
+        assertTrue(rows.get(1).error().startsWith("Malformed JSON"));
+        assertEquals("Expected a JSON object", rows.get(2).error());
+        assertEquals(4, rows.get(3).line());
+        assertEquals("Pool", rows.get(3).habit().getDescription());
+    }
+
+    private static List<Row> readAll(Format format, String upload) throws IOException {
+        HabitImportReader reader = new HabitImportReader(new StringReader(upload), format, new ObjectMapper());
+        List<Row> rows = new ArrayList<>();
+        Row row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
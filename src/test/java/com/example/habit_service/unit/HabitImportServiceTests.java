@@ -0,0 +1,92 @@
+package com.example.habit_service.unit;
+
+import com.example.habit_service.dto.HabitImportResultDTO;
+import com.example.habit_service.dto.HabitRequestDTO;
+import com.example.habit_service.service.HabitImportService;
+import com.example.habit_service.service.HabitService;
+import com.example.habit_service.util.HabitImportReader.Format;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class HabitImportServiceTests {
+    @Mock
+    private HabitService habitService;
+
+    private ValidatorFactory validatorFactory;
+    private HabitImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        importService = new HabitImportService(habitService, validatorFactory.getValidator(), new ObjectMapper(), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void shouldStoreValidRowsInChunks_andReportInvalidOnes() throws IOException {
+        when(habitService.importHabits(eq(1L), anyList())).thenAnswer(invocation -> invocation.<List<?>>getArgument(1).size());
+
+        HabitImportResultDTO result = importService.importHabits(1L, new StringReader("""
+                {"name": "Walk", "active": true}
+                {"name": "R", "active": true}
+                {"name": "Run", "active": false}
+                {"name": "Swim"}
+                {"name": "Read", "active": true}
+                """), Format.NDJSON);
+
+        assertEquals(3, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(2, result.getErrors().get(0).getLine());
+        assertEquals("name: Product name must be between 2 and 255 characters", result.getErrors().get(0).getMessage());
+        assertEquals(4, result.getErrors().get(1).getLine());
+        assertEquals("active: Active status can't be empty", result.getErrors().get(1).getMessage());
+        verify(habitService).importHabits(eq(1L), argThat(chunk -> names(chunk).equals(List.of("Walk", "Run"))));
+        verify(habitService).importHabits(eq(1L), argThat(chunk -> names(chunk).equals(List.of("Read"))));
+    }
+
+    @Test
+    void shouldReportEveryRowOfFailedChunk_andContinue() throws IOException {
+        when(habitService.importHabits(eq(1L), anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenReturn(1);
+
+        HabitImportResultDTO result = importService.importHabits(1L, new StringReader("""
+                name,active
+                Walk,true
+                Run,true
+                Swim,false
+                """), Format.CSV);
+
+        assertEquals(1, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(List.of(2L, 3L), result.getErrors().stream().map(error -> error.getLine()).toList());
+        assertEquals("Could not store row: duplicate key", result.getErrors().get(0).getMessage());
+    }
+
+    private static List<String> names(List<HabitRequestDTO> chunk) {
+        return chunk.stream().map(HabitRequestDTO::getName).toList();
+    }
+}
@@ -1,26 +1,53 @@
 package com.example.habit_service.unit;
 
+import com.example.habit_service.dto.HabitBulkRequestDTO;
+import com.example.habit_service.dto.HabitPageDTO;
 import com.example.habit_service.dto.HabitRequestDTO;
 import com.example.habit_service.dto.HabitResponseDTO;
+import com.example.habit_service.dto.HabitSearchPageDTO;
+import com.example.habit_service.dto.HabitSearchResultDTO;
+import com.example.habit_service.dto.HabitStreakDTO;
 import com.example.habit_service.dto.HabitUpdateDTO;
 import com.example.habit_service.entity.Habit;
+import com.example.habit_service.exception.BadRequestException;
+import com.example.habit_service.exception.ConflictException;
+import com.example.habit_service.exception.PreconditionFailedException;
 import com.example.habit_service.mapper.HabitMapper;
 import com.example.habit_service.mapper.HabitMapperImpl;
+import com.example.habit_service.repository.HabitBulkLoader;
+import com.example.habit_service.repository.HabitCompletionRepository;
+import com.example.habit_service.repository.HabitCompletionRollupRepository;
+import com.example.habit_service.repository.HabitOwnerVersionRepository;
 import com.example.habit_service.repository.HabitRepository;
+import com.example.habit_service.security.HabitSecurity;
+import com.example.habit_service.service.HabitEventPublisher;
+import com.example.habit_service.service.HabitReadCache;
+import com.example.habit_service.service.StreakLeaderboard;
 import com.example.habit_service.service.HabitService;
-import jakarta.persistence.EntityNotFoundException;
+import com.example.habit_service.service.ReplicaStalenessGuard;
+import com.example.habit_service.util.CursorCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.authorization.AuthorizationDeniedException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.web.server.ResponseStatusException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,13 +56,41 @@ public class HabitServiceTests {
     @Mock
     private HabitRepository habitRepository;
 
+    @Mock
+    private HabitCompletionRepository habitCompletionRepository;
+
+    @Mock
+    private HabitCompletionRollupRepository habitCompletionRollupRepository;
+
+    @Mock
+    private HabitOwnerVersionRepository habitOwnerVersionRepository;
+
+    @Mock
+    private HabitSecurity habitSecurity;
+
+    @Mock
+    private HabitEventPublisher publisher;
+
+    @Mock
+    private HabitBulkLoader habitBulkLoader;
+
+    @Mock
+    private StreakLeaderboard streakLeaderboard;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private final HabitMapper habitMapper = new HabitMapperImpl();
 
+    private final ReplicaStalenessGuard stalenessGuard = new ReplicaStalenessGuard(true, Duration.ofSeconds(5), 1000);
+
     private HabitService habitService;
 
     @BeforeEach
     void setUp() {
-        habitService = new HabitService(habitRepository, habitMapper);
+        habitService = new HabitService(habitRepository, habitCompletionRepository, habitCompletionRollupRepository, habitOwnerVersionRepository, habitMapper, habitSecurity, publisher,
+                new HabitReadCache(1000, Duration.ofMinutes(5), new SimpleMeterRegistry()), habitBulkLoader, stalenessGuard,
+                streakLeaderboard, transactionManager);
     }
 
     @Test
@@ -55,13 +110,13 @@ public class HabitServiceTests {
         habit2.setCreatedAt(LocalDate.of(2024, 2, 2));
         habit2.setPersonId(100L);
 
-        when(habitRepository.findByPersonId(100L)).thenReturn(List.of(habit1, habit2));
+        when(habitRepository.findResponsesByPersonId(100L)).thenReturn(habitMapper.toResponseDTOList(List.of(habit1, habit2)));
 
         // Act
         List<HabitResponseDTO> result = habitService.getAllHabitsByPersonId(100L);
 
         // Assert
-        verify(habitRepository).findByPersonId(100L);
+        verify(habitRepository).findResponsesByPersonId(100L);
         assertEquals(2, result.size()); // почему 2?
 
         HabitResponseDTO dto1 = result.get(0);
@@ -77,6 +132,88 @@ public class HabitServiceTests {
         assertEquals(LocalDate.of(2024, 2, 2), dto2.getCreatedAt());
     }
 
+    @Nested
+    class getHabitPageTests {
+
+        @Test
+        void shouldReturnNextCursor_whenMoreHabitsExist() {
+            Habit habit1 = createSampleHabit();
+            habit1.setId(1L);
+            Habit habit2 = createSampleHabit();
+            habit2.setId(2L);
+            Habit habit3 = createSampleHabit();
+            habit3.setId(3L);
+
+            when(habitRepository.findByPersonIdAndIdGreaterThanOrderByIdAsc(1L, 0L, Limit.of(3)))
+                    .thenReturn(List.of(habit1, habit2, habit3));
+
+            HabitPageDTO result = habitService.getHabitPage(1L, null, 2);
+
+            assertEquals(2, result.getItems().size());
+            assertEquals(2L, result.getItems().get(1).getId());
+            assertNotNull(result.getNextCursor());
+
+            when(habitRepository.findByPersonIdAndIdGreaterThanOrderByIdAsc(1L, 2L, Limit.of(3)))
+                    .thenReturn(List.of(habit3));
+
+            HabitPageDTO next = habitService.getHabitPage(1L, result.getNextCursor(), 2);
+
+            assertEquals(1, next.getItems().size());
+            assertNull(next.getNextCursor());
+        }
+
+        @Test
+        void shouldThrowsException_whenLimitTooLarge() {
+            assertThrows(BadRequestException.class,
+                    () -> habitService.getHabitPage(1L, null, HabitService.MAX_PAGE_SIZE + 1));
+        }
+    }
+
+    @Nested
+    class searchHabitsTests {
+
+        @Test
+        void shouldEscapeWildcards_andContinueAfterLastMatch() {
+            when(habitRepository.search(1L, "100%_run", "100\\%\\_run%", "% 100\\%\\_run%", "%100\\%\\_run%",
+                    -1, 0L, Limit.of(2)))
+                    .thenReturn(List.of(searchResult(4L, 1), searchResult(2L, 3)));
+
+            HabitSearchPageDTO result = habitService.searchHabits(1L, "  100%_Run ", null, 1);
+
+            assertEquals(1, result.getItems().size());
+            assertEquals(4L, result.getItems().get(0).getId());
+            assertNotNull(result.getNextCursor());
+
+            when(habitRepository.search(1L, "100%_run", "100\\%\\_run%", "% 100\\%\\_run%", "%100\\%\\_run%",
+                    1, 4L, Limit.of(2)))
+                    .thenReturn(List.of(searchResult(2L, 3)));
+
+            HabitSearchPageDTO next = habitService.searchHabits(1L, "100%_run", result.getNextCursor(), 1);
+
+            assertEquals(List.of(2L), next.getItems().stream().map(HabitSearchResultDTO::getId).toList());
+            assertNull(next.getNextCursor());
+        }
+
+        @Test
+        void shouldThrowException_whenQueryIsBlankOrTooLong() {
+            assertThrows(BadRequestException.class, () -> habitService.searchHabits(1L, "  ", null, 10));
+            assertThrows(BadRequestException.class,
+                    () -> habitService.searchHabits(1L, "a".repeat(HabitService.MAX_QUERY_LENGTH + 1), null, 10));
+            verifyNoInteractions(habitRepository);
+        }
+
+        @Test
+        void shouldThrowException_whenCursorIsFromAnotherEndpoint() {
+            String pageCursor = CursorCodec.encode(5L);
+
+            assertThrows(BadRequestException.class, () -> habitService.searchHabits(1L, "run", pageCursor, 10));
+        }
+
+        private HabitSearchResultDTO searchResult(long id, int match) {
+            return new HabitSearchResultDTO(id, "Run", null, LocalDate.now(), true, 1L, null, null, 0L, match);
+        }
+    }
+
     @Test
     void shouldGetHabitByIdAndReturnResponseDTO_whenHabitIdGiven() {
         HabitRequestDTO requestDTO = createSampleRequestDTO();
@@ -89,6 +226,22 @@ public class HabitServiceTests {
         //assertEquals(LocalDate.of(2025, 7, 5), result.getCreatedAt());
     }
 
+    @Test
+    void shouldSaveAllHabitsInOneCall_whenBulkCreating() {
+        HabitBulkRequestDTO bulkDTO = new HabitBulkRequestDTO();
+        bulkDTO.setHabits(List.of(createSampleRequestDTO(), createSampleRequestDTO()));
+
+        when(habitRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<HabitResponseDTO> result = habitService.createHabits(1L, bulkDTO);
+
+        verify(habitRepository).saveAll(anyList());
+        verify(habitRepository, never()).save(any(Habit.class));
+        assertEquals(2, result.size());
+        assertEquals(1L, result.get(1).getPersonId());
+        assertNotNull(result.get(0).getCreatedAt());
+    }
+
     @Nested
     class getHabitByHabitIdTests {
 
@@ -96,11 +249,14 @@ public class HabitServiceTests {
         void shouldGetHabitByIdAndReturnResponseDTO_whenHabitIdGiven() {
             Habit habit = createSampleHabit();
 
-            when(habitRepository.findById(1L)).thenReturn(Optional.of(habit));
+            when(habitSecurity.currentUserId()).thenReturn(1L);
+            when(habitRepository.findResponseByIdAndPersonId(1L, 1L)).thenReturn(Optional.of(habitMapper.toResponseDTO(habit)));
 
             HabitResponseDTO result = habitService.getHabitById(1L);
 
-            verify(habitRepository).findById(1L);
+            verify(habitRepository).findResponseByIdAndPersonId(1L, 1L);
+            verify(habitRepository, never()).findByIdAndPersonId(anyLong(), anyLong());
+            verify(habitRepository, never()).findById(anyLong());
             assertEquals(LocalDate.of(2024, 2, 2), result.getCreatedAt());
             // Это уже доказательство, что toResponseDTO(...) отработал правильно, потому что DTO пришёл не из воздуха.
             assertEquals("Drink water", result.getName());
@@ -108,18 +264,108 @@ public class HabitServiceTests {
         }
 
         @Test
-        void shouldThrowsException_whenHabitNotFound() {
-            when(habitRepository.findById(1L)).thenReturn(Optional.empty());
+        void shouldThrowsException_whenHabitNotFoundOrNotOwned() {
+            when(habitSecurity.currentUserId()).thenReturn(1L);
+            when(habitRepository.findResponseByIdAndPersonId(1L, 1L)).thenReturn(Optional.empty());
 
-            assertThrows(EntityNotFoundException.class, () -> habitService.getHabitById(1L));
+            assertThrows(AuthorizationDeniedException.class, () -> habitService.getHabitById(1L));
+        }
+    }
+
+    @Nested
+    class habitReadCacheTests {
+
+        @Test
+        void shouldServeRepeatedReadsFromCache() {
+            Habit habit = createSampleHabit();
+            habit.setId(1L);
+
+            when(habitSecurity.currentUserId()).thenReturn(1L);
+            when(habitRepository.findResponsesByPersonId(1L)).thenReturn(habitMapper.toResponseDTOList(List.of(habit)));
+
+            habitService.getAllHabitsByPersonId(1L);
+            List<HabitResponseDTO> cached = habitService.getAllHabitsByPersonId(1L);
+            HabitResponseDTO single = habitService.getHabitById(1L);
+
+            verify(habitRepository, times(1)).findResponsesByPersonId(1L);
+            verify(habitRepository, never()).findResponseByIdAndPersonId(anyLong(), anyLong());
+            assertEquals(1, cached.size());
+            assertEquals("Drink water", single.getName());
+        }
+
+        @Test
+        void shouldReloadHabits_whenHabitCreated() {
+            when(habitRepository.findResponsesByPersonId(1L)).thenReturn(List.of());
+
+            habitService.getAllHabitsByPersonId(1L);
+            habitService.createHabit(1L, createSampleRequestDTO());
+            habitService.getAllHabitsByPersonId(1L);
+
+            verify(habitRepository, times(2)).findResponsesByPersonId(1L);
+            verify(habitOwnerVersionRepository).increment(1L);
+        }
+
+        @Test
+        void shouldAnswerVersionWithoutLoadingHabits_whenNotCached() {
+            when(habitOwnerVersionRepository.findVersion(1L)).thenReturn(Optional.of(7L));
+
+            assertEquals(7L, habitService.getHabitsVersion(1L));
+            verify(habitRepository, never()).findResponsesByPersonId(anyLong());
+        }
+
+        @Test
+        void shouldReloadCachedHabits_whenOlderThanRequestedVersion() {
+            when(habitOwnerVersionRepository.findVersion(1L)).thenReturn(Optional.of(1L), Optional.of(2L));
+            when(habitRepository.findResponsesByPersonId(1L)).thenReturn(List.of());
+
+            habitService.getAllHabitsByPersonId(1L);
+            habitService.getAllHabitsByPersonId(1L, 2L);
+
+            verify(habitRepository, times(2)).findResponsesByPersonId(1L);
+        }
+
+        @Test
+        void shouldLoadVersionAndHabitsInOneReadOnlyTransaction_whenNotCached() {
+            when(habitRepository.findResponsesByPersonId(1L)).thenReturn(List.of());
+
+            habitService.getAllHabitsByPersonId(1L);
+            habitService.getAllHabitsByPersonId(1L);
+
+            verify(transactionManager, times(1)).getTransaction(argThat(TransactionDefinition::isReadOnly));
+            verify(habitOwnerVersionRepository).findVersion(1L);
+        }
+
+        @Test
+        void shouldPinOwnerToPrimary_whenHabitCreated() {
+            assertFalse(stalenessGuard.isPinned(1L));
+
+            habitService.createHabit(1L, createSampleRequestDTO());
+
+            assertTrue(stalenessGuard.isPinned(1L));
+            assertFalse(stalenessGuard.isPinned(2L));
         }
     }
 
     @Test
     void shouldDeleteHabitByIdAndReturnResponseDTO() {
-        habitRepository.deleteById(1L);
+        when(habitSecurity.currentUserId()).thenReturn(1L);
+        when(habitRepository.deleteByIdAndPersonId(5L, 1L)).thenReturn(1);
+
+        habitService.deleteHabit(5L);
 
-        verify(habitRepository).deleteById(1L);
+        verify(habitRepository).deleteByIdAndPersonId(5L, 1L);
+        verify(habitCompletionRepository).deleteAllByHabitId(5L);
+        verify(streakLeaderboard).removeHabit(5L);
+        verify(publisher).habitDeleted(5L, 1L);
+    }
+
+    @Test
+    void shouldThrowsException_whenDeletingHabitOfAnotherUser() {
+        when(habitSecurity.currentUserId()).thenReturn(1L);
+        when(habitRepository.deleteByIdAndPersonId(5L, 1L)).thenReturn(0);
+
+        assertThrows(AuthorizationDeniedException.class, () -> habitService.deleteHabit(5L));
+        verify(habitCompletionRepository, never()).deleteAllByHabitId(anyLong());
     }
 
     @Nested
@@ -128,17 +374,21 @@ public class HabitServiceTests {
         @Test
         void shouldUpdateHabitAndReturnResponseDTO_whenHabitIdGiven () {
             Habit habit = createSampleHabit();
+            habit.setName("Ride a bike");
+            habit.setActive(false);
             HabitUpdateDTO updateDTO = new HabitUpdateDTO();
             updateDTO.setName("Ride a bike");
             updateDTO.setActive(false);
 
+            when(habitSecurity.currentUserId()).thenReturn(1L);
+            when(habitRepository.updateIfVersionMatches(1L, 1L, null, "Ride a bike", null, false, null, null, null)).thenReturn(1);
             when(habitRepository.findById(1L)).thenReturn(Optional.of(habit));
-            when(habitRepository.save(habit)).thenReturn(habit); // нужно, т.к. сервис вызывает save(...)
 
             HabitResponseDTO result = habitService.updateHabit(1L, updateDTO);
 
-            verify(habitRepository).findById(1L);
-            verify(habitRepository).save(habit);
+            verify(habitRepository, never()).findByIdAndPersonId(anyLong(), anyLong());
+            verify(habitOwnerVersionRepository).increment(1L);
+            verify(publisher).habitUpdated(1L, 1L);
             assertEquals("Ride a bike", result.getName());
             assertFalse(result.isActive());
         }
@@ -149,19 +399,167 @@ public class HabitServiceTests {
             updateDTO.setName("Ride a bike");
             updateDTO.setActive(false);
 
-            when(habitRepository.findById(1L)).thenReturn(Optional.empty());
+            when(habitSecurity.currentUserId()).thenReturn(1L);
+            when(habitRepository.updateIfVersionMatches(1L, 1L, null, "Ride a bike", null, false, null, null, null)).thenReturn(0);
+            when(habitRepository.findVersionByIdAndPersonId(1L, 1L)).thenReturn(Optional.empty());
 
-            assertThrows(EntityNotFoundException.class, () -> habitService.updateHabit(1L, updateDTO));
+            assertThrows(AuthorizationDeniedException.class, () -> habitService.updateHabit(1L, updateDTO));
         }
 
         @Test
         void shouldThrowsException_whenAllFieldsNull() {
+            HabitUpdateDTO updateDTO = new HabitUpdateDTO();
+
+            assertThrows(ResponseStatusException.class, () -> habitService.updateHabit(1L, updateDTO));
+            verify(habitRepository, never()).updateIfVersionMatches(anyLong(), anyLong(), any(), any(), any(), any(), any(), any(), any());
+        }
+
+        @Test
+        void shouldFailPrecondition_whenVersionIsStale() {
+            HabitUpdateDTO updateDTO = new HabitUpdateDTO();
+            updateDTO.setName("Ride a bike");
+
+            when(habitSecurity.currentUserId()).thenReturn(1L);
+            when(habitRepository.updateIfVersionMatches(1L, 1L, 3L, "Ride a bike", null, null, null, null, null)).thenReturn(0);
+            when(habitRepository.findVersionByIdAndPersonId(1L, 1L)).thenReturn(Optional.of(4L));
+
+            assertThrows(PreconditionFailedException.class, () -> habitService.updateHabit(1L, updateDTO, 3L));
+            verify(publisher, never()).habitUpdated(anyLong(), anyLong());
+            verify(habitOwnerVersionRepository, never()).increment(anyLong());
+        }
+
+        @Test
+        void shouldBuildResponseWithoutReading_whenCachedAtExpectedVersion() {
             Habit habit = createSampleHabit();
+            habit.setId(1L);
+            habit.setVersion(3L);
             HabitUpdateDTO updateDTO = new HabitUpdateDTO();
+            updateDTO.setName("Ride a bike");
+
+            when(habitSecurity.currentUserId()).thenReturn(1L);
+            when(habitRepository.findResponsesByPersonId(1L)).thenReturn(habitMapper.toResponseDTOList(List.of(habit)));
+            when(habitRepository.updateIfVersionMatches(1L, 1L, 3L, "Ride a bike", null, null, null, null, null)).thenReturn(1);
+
+            habitService.getAllHabitsByPersonId(1L);
+            HabitResponseDTO result = habitService.updateHabit(1L, updateDTO, 3L);
 
+            verify(habitRepository, never()).findById(anyLong());
+            assertEquals("Ride a bike", result.getName());
+            assertEquals(4L, result.getVersion());
+            assertTrue(result.isActive());
+        }
+        @Test
+        void shouldRescheduleReminder_whenReminderPatched() {
+            Habit habit = createSampleHabit();
+            habit.setId(1L);
+            habit.setReminderTime(LocalTime.of(7, 30));
+            habit.setReminderZone("Europe/Berlin");
+            HabitUpdateDTO updateDTO = new HabitUpdateDTO();
+            updateDTO.setReminderTime(LocalTime.of(7, 30));
+            updateDTO.setReminderZone("Europe/Berlin");
+
+            when(habitSecurity.currentUserId()).thenReturn(1L);
+            when(habitRepository.updateIfVersionMatches(1L, 1L, null, null, null, null, null,
+                    LocalTime.of(7, 30), "Europe/Berlin")).thenReturn(1);
             when(habitRepository.findById(1L)).thenReturn(Optional.of(habit));
 
-            assertThrows(ResponseStatusException.class, () -> habitService.updateHabit(1L, updateDTO));
+            habitService.updateHabit(1L, updateDTO);
+
+            verify(habitRepository).updateNextReminderAt(eq(1L), argThat(next ->
+                    next.isAfter(Instant.now()) && next.atZone(ZoneId.of("Europe/Berlin")).toLocalTime().equals(LocalTime.of(7, 30))));
+        }
+
+        @Test
+        void shouldRejectPatch_whenReminderLeftWithoutZone() {
+            Habit habit = createSampleHabit();
+            habit.setId(1L);
+            habit.setReminderTime(LocalTime.of(7, 30));
+            HabitUpdateDTO updateDTO = new HabitUpdateDTO();
+            updateDTO.setReminderTime(LocalTime.of(7, 30));
+
+            when(habitSecurity.currentUserId()).thenReturn(1L);
+            when(habitRepository.updateIfVersionMatches(1L, 1L, null, null, null, null, null,
+                    LocalTime.of(7, 30), null)).thenReturn(1);
+            when(habitRepository.findById(1L)).thenReturn(Optional.of(habit));
+
+            assertThrows(BadRequestException.class, () -> habitService.updateHabit(1L, updateDTO));
+            verify(habitRepository, never()).updateNextReminderAt(anyLong(), any());
+            verify(publisher, never()).habitUpdated(anyLong(), anyLong());
+        }
+    }
+
+    @Nested
+    class completeHabitTests {
+
+        @Test
+        void shouldExtendStreak_whenCompletedYesterday() {
+            Habit habit = createSampleHabit();
+            habit.setId(1L);
+            habit.setCurrentStreak(4);
+            habit.setLongestStreak(4);
+            habit.setLastCompletedOn(LocalDate.now().minusDays(1));
+
+            when(habitSecurity.currentUserId()).thenReturn(1L);
+            when(habitRepository.findByIdAndPersonIdForUpdate(1L, 1L)).thenReturn(Optional.of(habit));
+
+            HabitStreakDTO result = habitService.completeHabit(1L);
+
+            verify(habitCompletionRepository).save(any());
+            LocalDate today = LocalDate.now();
+            verify(habitCompletionRollupRepository).increment(1L, "DAY", today, 1L);
+            verify(habitCompletionRollupRepository).increment(1L, "WEEK", today.with(DayOfWeek.MONDAY), 1L);
+            verify(habitCompletionRollupRepository).increment(1L, "MONTH", today.withDayOfMonth(1), 1L);
+            verify(streakLeaderboard).recordCompletion(1L, 1L, 5, today);
+            verify(publisher).publishHabitCompleted(1L, 1L);
+            assertEquals(5, result.getCurrentStreak());
+            assertEquals(5, result.getLongestStreak());
+            assertEquals(LocalDate.now(), result.getLastCompletedOn());
+        }
+
+        @Test
+        void shouldRestartStreak_whenDayWasMissed() {
+            Habit habit = createSampleHabit();
+            habit.setId(1L);
+            habit.setCurrentStreak(10);
+            habit.setLongestStreak(12);
+            habit.setLastCompletedOn(LocalDate.now().minusDays(3));
+
+            when(habitSecurity.currentUserId()).thenReturn(1L);
+            when(habitRepository.findByIdAndPersonIdForUpdate(1L, 1L)).thenReturn(Optional.of(habit));
+
+            HabitStreakDTO result = habitService.completeHabit(1L);
+
+            assertEquals(1, result.getCurrentStreak());
+            assertEquals(12, result.getLongestStreak());
+        }
+
+        @Test
+        void shouldThrowsException_whenAlreadyCompletedToday() {
+            Habit habit = createSampleHabit();
+            habit.setLastCompletedOn(LocalDate.now());
+
+            when(habitSecurity.currentUserId()).thenReturn(1L);
+            when(habitRepository.findByIdAndPersonIdForUpdate(1L, 1L)).thenReturn(Optional.of(habit));
+
+            assertThrows(ConflictException.class, () -> habitService.completeHabit(1L));
+            verify(habitCompletionRepository, never()).save(any());
+            verify(publisher, never()).publishHabitCompleted(anyLong(), anyLong());
+        }
+
+        @Test
+        void shouldReportBrokenStreakAsZero_whenReadAfterMissedDay() {
+            Habit habit = createSampleHabit();
+            habit.setCurrentStreak(6);
+            habit.setLongestStreak(6);
+            habit.setLastCompletedOn(LocalDate.now().minusDays(2));
+
+            when(habitSecurity.currentUserId()).thenReturn(1L);
+            when(habitRepository.findByIdAndPersonId(1L, 1L)).thenReturn(Optional.of(habit));
+
+            HabitStreakDTO result = habitService.getStreak(1L);
+
+            assertEquals(0, result.getCurrentStreak());
+            assertEquals(6, result.getLongestStreak());
         }
     }
 
@@ -0,0 +1,113 @@
+package com.example.habit_service.unit;
+
+import com.example.habit_service.dto.HabitStatsDTO;
+import com.example.habit_service.dto.StatsGranularity;
+import com.example.habit_service.entity.HabitCompletionRollup;
+import com.example.habit_service.exception.BadRequestException;
+import com.example.habit_service.repository.HabitCompletionRollupRepository;
+import com.example.habit_service.repository.HabitRepository;
+import com.example.habit_service.security.HabitSecurity;
+import com.example.habit_service.service.HabitStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authorization.AuthorizationDeniedException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class HabitStatsServiceTests {
+    @Mock
+    private HabitRepository habitRepository;
+
+    @Mock
+    private HabitCompletionRollupRepository rollupRepository;
+
+    @Mock
+    private HabitSecurity habitSecurity;
+
+    private HabitStatsService habitStatsService;
+
+    @BeforeEach
+    void setUp() {
+        habitStatsService = new HabitStatsService(habitRepository, rollupRepository, habitSecurity);
+        when(habitSecurity.currentUserId()).thenReturn(1L);
+    }
+
+    @Test
+    void shouldReadWholeMonthsFromMonthRollups_andOnlyTheCutEdgesFromDayRollups() {
+        when(habitRepository.findCreatedAtByIdAndPersonId(5L, 1L)).thenReturn(Optional.of(LocalDate.of(2020, 1, 1)));
+        when(rollupRepository.findPeriods(5L, StatsGranularity.MONTH, LocalDate.of(2023, 2, 1), LocalDate.of(2024, 11, 1)))
+                .thenReturn(List.of(rollup(StatsGranularity.MONTH, LocalDate.of(2023, 6, 1), 20)));
+        when(rollupRepository.findPeriods(5L, StatsGranularity.DAY, LocalDate.of(2023, 1, 15), LocalDate.of(2023, 1, 31)))
+                .thenReturn(List.of(rollup(StatsGranularity.DAY, LocalDate.of(2023, 1, 20), 1)));
+        when(rollupRepository.findPeriods(5L, StatsGranularity.DAY, LocalDate.of(2024, 12, 1), LocalDate.of(2024, 12, 10)))
+                .thenReturn(List.of());
+
+        HabitStatsDTO stats = habitStatsService.getStats(5L, LocalDate.of(2023, 1, 15), LocalDate.of(2024, 12, 10), "month");
+
+        assertEquals(24, stats.getPeriods().size());
+        assertEquals(21, stats.getCompletions());
+        assertEquals(17, stats.getPeriods().get(0).getDays());
+        assertEquals(10, stats.getPeriods().get(23).getDays());
+        verify(rollupRepository, times(3)).findPeriods(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void shouldRejectRange_withTooManyPeriods() {
+        when(habitRepository.findCreatedAtByIdAndPersonId(5L, 1L)).thenReturn(Optional.of(LocalDate.of(2020, 1, 1)));
+
+        assertThrows(BadRequestException.class,
+                () -> habitStatsService.getStats(5L, LocalDate.of(2020, 1, 1), LocalDate.of(2022, 1, 1), "day"));
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    void shouldReturnNoPeriods_whenRangeStartsAfterToday() {
+        LocalDate today = LocalDate.now();
+        when(habitRepository.findCreatedAtByIdAndPersonId(5L, 1L)).thenReturn(Optional.of(today.minusYears(1)));
+
+        // Still in the current month, which the period walk starts from, on any day but the last of a month
+        HabitStatsDTO stats = habitStatsService.getStats(5L, today.plusDays(1), today.plusDays(10), "month");
+
+        assertTrue(stats.getPeriods().isEmpty());
+        assertEquals(0, stats.getDays());
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    void shouldReturnNoPeriods_whenHabitWasCreatedAfterRange() {
+        when(habitRepository.findCreatedAtByIdAndPersonId(5L, 1L)).thenReturn(Optional.of(LocalDate.of(2024, 3, 20)));
+
+        HabitStatsDTO stats = habitStatsService.getStats(5L, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 10), "month");
+
+        assertTrue(stats.getPeriods().isEmpty());
+        assertEquals(0, stats.getDays());
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    void shouldDenyAccess_whenHabitIsNotOwned() {
+        when(habitRepository.findCreatedAtByIdAndPersonId(5L, 1L)).thenReturn(Optional.empty());
+
+        assertThrows(AuthorizationDeniedException.class,
+                () -> habitStatsService.getStats(5L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), "week"));
+    }
+
+    private static HabitCompletionRollup rollup(StatsGranularity granularity, LocalDate periodStart, int completions) {
+        HabitCompletionRollup rollup = new HabitCompletionRollup();
+        rollup.setHabitId(5L);
+        rollup.setGranularity(granularity);
+        rollup.setPeriodStart(periodStart);
+        rollup.setPersonId(1L);
+        rollup.setCompletions(completions);
+        return rollup;
+    }
+}
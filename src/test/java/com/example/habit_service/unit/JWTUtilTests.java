@@ -0,0 +1,76 @@
+package com.example.habit_service.unit;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.example.habit_service.security.JWTUtil;
+import com.example.habit_service.security.TokenPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JWTUtilTests {
+    private SimpleMeterRegistry meterRegistry;
+    private JWTUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtUtil = new JWTUtil("internship", 100, meterRegistry);
+    }
+
+    @Test
+    void shouldReturnPrincipal_whenTokenIsValid() {
+        String token = jwtUtil.generateAccessToken(42L, "testuser", "ROLE_USER");
+
+        TokenPrincipal principal = jwtUtil.verifyAccessToken(token);
+
+        assertEquals(42L, principal.id());
+        assertEquals("testuser", principal.username());
+        assertEquals("ROLE_USER", principal.role());
+        assertTrue(principal.expiresAt().isAfter(Instant.now()));
+    }
+
+    @Test
+    void shouldVerifyTokenOnlyOnce_whenTokenIsRepeated() {
+        String token = jwtUtil.generateAccessToken(42L, "testuser", "ROLE_USER");
+
+        jwtUtil.verifyAccessToken(token);
+        jwtUtil.verifyAccessToken(token);
+        jwtUtil.verifyAccessToken(token);
+
+        assertEquals(1, meterRegistry.get("jwt.verification").timer().count());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void shouldThrowsException_whenTokenSignedWithAnotherSecret() {
+        String token = JWT.create()
+                .withSubject("User details")
+                .withIssuer("ADMIN")
+                .withClaim("id", 42L)
+                .withExpiresAt(Date.from(Instant.now().plusSeconds(60)))
+                .sign(Algorithm.HMAC256("another-secret"));
+
+        assertThrows(JWTVerificationException.class, () -> jwtUtil.verifyAccessToken(token));
+        assertThrows(JWTVerificationException.class, () -> jwtUtil.verifyAccessToken(token));
+        assertEquals(2, meterRegistry.get("jwt.verification").timer().count());
+    }
+
+    @Test
+    void shouldThrowsException_whenTokenIsExpired() {
+        String token = JWT.create()
+                .withSubject("User details")
+                .withIssuer("ADMIN")
+                .withClaim("id", 42L)
+                .withExpiresAt(Date.from(Instant.now().minusSeconds(60)))
+                .sign(Algorithm.HMAC256("internship"));
+
+        assertThrows(JWTVerificationException.class, () -> jwtUtil.verifyAccessToken(token));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.habit_service.unit;
+
+import com.example.habit_service.entity.OutboxEvent;
+import com.example.habit_service.repository.OutboxEventRepository;
+import com.example.habit_service.service.OutboxRelay;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxRelayTests {
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(outboxEventRepository, kafkaTemplate, new TransactionTemplate(transactionManager),
+                meterRegistry, 2, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void shouldSendBatchAndDeleteIt_whenBrokerAcknowledges() {
+        OutboxEvent event1 = createSampleEvent(1L, new byte[]{1, 2, 5});
+        OutboxEvent event2 = createSampleEvent(2L, new byte[]{1, 3, 6});
+
+        when(outboxEventRepository.tryLockForRelay()).thenReturn(true);
+        when(outboxEventRepository.findBatchForRelay(Limit.of(2))).thenReturn(List.of(event1, event2));
+        when(kafkaTemplate.send(anyString(), any(), any(byte[].class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        int sent = relay.relayBatch();
+
+        assertEquals(2, sent);
+        verify(kafkaTemplate).send("habit-events", "7", event1.getPayload());
+        verify(kafkaTemplate).send("habit-events", "7", event2.getPayload());
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        assertEquals(2.0, meterRegistry.get("outbox.relay.events").counter().count());
+        assertTrue(meterRegistry.get("outbox.relay.lag").gauge().value() >= 30.0);
+    }
+
+    @Test
+    void shouldKeepEventsInOutbox_whenSendFails() {
+        OutboxEvent event = createSampleEvent(1L, new byte[]{1, 2, 5});
+
+        when(outboxEventRepository.tryLockForRelay()).thenReturn(true);
+        when(outboxEventRepository.findBatchForRelay(Limit.of(2))).thenReturn(List.of(event));
+        when(kafkaTemplate.send(anyString(), any(), any(byte[].class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+
+        assertThrows(IllegalStateException.class, () -> relay.relayBatch());
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(anyList());
+    }
+
+    @Test
+    void shouldSendNothing_whenAnotherInstanceIsRelaying() {
+        when(outboxEventRepository.tryLockForRelay()).thenReturn(false);
+
+        int sent = relay.relayBatch();
+
+        assertEquals(0, sent);
+        verify(outboxEventRepository, never()).findBatchForRelay(any());
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void shouldDrainUntilBatchIsNotFull() {
+        when(outboxEventRepository.tryLockForRelay()).thenReturn(true);
+        when(outboxEventRepository.findBatchForRelay(Limit.of(2)))
+                .thenReturn(List.of(createSampleEvent(1L, new byte[]{1}), createSampleEvent(2L, new byte[]{2})))
+                .thenReturn(List.of(createSampleEvent(3L, new byte[]{3})));
+        when(kafkaTemplate.send(anyString(), any(), any(byte[].class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.relay();
+
+        verify(outboxEventRepository, times(2)).findBatchForRelay(Limit.of(2));
+        verify(kafkaTemplate, times(3)).send(anyString(), any(), any(byte[].class));
+    }
+
+    private static OutboxEvent createSampleEvent(Long id, byte[] payload) {
+        OutboxEvent event = new OutboxEvent("habit-events", "7", payload);
+        event.setId(id);
+        event.setCreatedAt(Instant.now().minusSeconds(30));
+        return event;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.habit_service.unit;
+
+import com.example.habit_service.dto.HabitReminderDTO;
+import com.example.habit_service.repository.HabitRepository;
+import com.example.habit_service.service.HabitEventPublisher;
+import com.example.habit_service.service.ReminderScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReminderSchedulerTests {
+    @Mock
+    private HabitRepository habitRepository;
+
+    @Mock
+    private HabitEventPublisher publisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReminderScheduler scheduler;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new ReminderScheduler(habitRepository, publisher, transactionManager, meterRegistry,
+                Duration.ofSeconds(1), Duration.ofMinutes(1), Duration.ofMinutes(15), 500, 1000, 1, 4);
+        now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    @Test
+    void shouldFireOnceAtDueTime_andIgnoreReloadedReminder() {
+        HabitReminderDTO reminder = reminder(5L, now.plusSeconds(5));
+        when(habitRepository.findDueReminders(now.plus(Duration.ofMinutes(2)), 4, 1, Limit.of(1000)))
+                .thenReturn(List.of(reminder));
+        when(habitRepository.advanceReminder(eq(5L), eq(now.plusSeconds(5)), any())).thenReturn(1);
+
+        assertEquals(1, scheduler.loadSlice(now));
+        assertEquals(0, scheduler.loadSlice(now));
+        assertEquals(0, scheduler.fireDue(now.plusSeconds(4)));
+        verify(habitRepository, never()).advanceReminder(anyLong(), any(), any());
+
+        assertEquals(1, scheduler.fireDue(now.plusSeconds(5)));
+        verify(habitRepository).advanceReminder(5L, now.plusSeconds(5), nextDay(now.plusSeconds(5)));
+        verify(publisher).reminderDue(5L, 50L, now.plusSeconds(5));
+        assertEquals(1.0, meterRegistry.get("habit.reminders").tag("outcome", "fired").counter().count());
+    }
+
+    @Test
+    void shouldNotPublish_whenAnotherInstanceFiredFirst() {
+        when(habitRepository.findDueReminders(any(), eq(4), eq(1), any())).thenReturn(List.of(reminder(5L, now)));
+        when(habitRepository.advanceReminder(eq(5L), eq(now), any())).thenReturn(0);
+
+        scheduler.loadSlice(now);
+
+        assertEquals(0, scheduler.fireDue(now));
+        verify(publisher, never()).reminderDue(anyLong(), anyLong(), any());
+        assertEquals(1.0, meterRegistry.get("habit.reminders").tag("outcome", "superseded").counter().count());
+    }
+
+    @Test
+    void shouldMoveOnWithoutEvent_whenLaterThanMaxLateness() {
+        Instant missed = now.minus(Duration.ofHours(1));
+        when(habitRepository.findDueReminders(any(), eq(4), eq(1), any())).thenReturn(List.of(reminder(5L, missed)));
+        when(habitRepository.advanceReminder(eq(5L), eq(missed), any())).thenReturn(1);
+
+        scheduler.loadSlice(now);
+
+        assertEquals(0, scheduler.fireDue(now));
+        verify(habitRepository).advanceReminder(5L, missed, nextDay(missed));
+        verify(publisher, never()).reminderDue(anyLong(), anyLong(), any());
+        assertEquals(1.0, meterRegistry.get("habit.reminders").tag("outcome", "late").counter().count());
+    }
+
+    @Test
+    void shouldRejectShardOutsideShardCount() {
+        assertThrows(IllegalArgumentException.class, () -> new ReminderScheduler(habitRepository, publisher,
+                transactionManager, meterRegistry, Duration.ofSeconds(1), Duration.ofMinutes(1),
+                Duration.ofMinutes(15), 500, 1000, 4, 4));
+    }
+
+    private static HabitReminderDTO reminder(long habitId, Instant dueAt) {
+        return new HabitReminderDTO(habitId, habitId * 10, dueAt, LocalTime.ofInstant(dueAt, ZoneOffset.UTC), "UTC");
+    }
+
+    private static Instant nextDay(Instant dueAt) {
+        return dueAt.plus(Duration.ofDays(1));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.habit_service.unit;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import com.example.habit_service.util.SamplingTurboFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SamplingTurboFilterTests {
+    private LoggerContext context;
+    private SamplingTurboFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.setLoggerName("com.example.habit_service.controller");
+        filter.setEvery(3);
+        filter.start();
+    }
+
+    @Test
+    void shouldLetOneInEveryThrough_forSampledLogger() {
+        Logger logger = context.getLogger("com.example.habit_service.controller.HabitController");
+
+        int passed = 0;
+        for (int i = 0; i < 9; i++) {
+            if (filter.decide(null, logger, Level.INFO, "Returned {} habits", null, null) == FilterReply.NEUTRAL) {
+                passed++;
+            }
+        }
+
+        assertEquals(3, passed);
+    }
+
+    @Test
+    void shouldNotSample_warningsOtherLoggersOrEnabledChecks() {
+        Logger sampled = context.getLogger("com.example.habit_service.controller.HabitController");
+        Logger sibling = context.getLogger("com.example.habit_service.controllers.Other");
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, sampled, Level.WARN, "Validation error", null, null));
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, sibling, Level.INFO, "Other", null, null));
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, sampled, Level.INFO, null, null, null));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.habit_service.unit;
+
+import com.example.habit_service.util.StreakRanking;
+import com.example.habit_service.util.StreakRanking.Entry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreakRankingTests {
+    private static final LocalDate TODAY = LocalDate.of(2025, 4, 25);
+
+    @Test
+    void shouldServeLongestStreaksFirst_andKeepOnlyTheLatestCompletion() {
+        StreakRanking ranking = new StreakRanking(10);
+        ranking.refill(List.of(), true);
+
+        ranking.offer(entry(1, 5, TODAY.minusDays(1)));
+        ranking.offer(entry(2, 9, TODAY));
+        ranking.offer(entry(3, 5, TODAY));
+        // Older than what is held, e.g. a sync that read the row before today's check-in
+        ranking.offer(entry(2, 8, TODAY.minusDays(1)));
+
+        assertEquals(List.of(2L, 1L, 3L), habitIds(ranking.top(10, TODAY)));
+        assertEquals(List.of(2L, 1L), habitIds(ranking.top(2, TODAY)));
+        // Habit 1 was last completed yesterday, so its streak has ended tomorrow
+        assertEquals(List.of(2L, 3L), habitIds(ranking.top(10, TODAY.plusDays(1))));
+    }
+
+    @Test
+    void shouldServeNothing_untilSeeded() {
+        StreakRanking ranking = new StreakRanking(10);
+        ranking.offer(entry(1, 5, TODAY));
+
+        assertFalse(ranking.isSeeded());
+        assertEquals(List.of(), ranking.top(10, TODAY));
+        assertTrue(ranking.needsRefill(1, TODAY));
+
+        ranking.refill(List.of(entry(2, 7, TODAY)), true);
+
+        assertEquals(List.of(2L, 1L), habitIds(ranking.top(10, TODAY)));
+        assertFalse(ranking.needsRefill(10, TODAY));
+    }
+
+    @Test
+    void shouldHideEntriesBelowADroppedHabit_untilRefilled() {
+        StreakRanking ranking = new StreakRanking(3);
+        ranking.refill(List.of(), true);
+        ranking.offer(entry(1, 10, TODAY));
+        ranking.offer(entry(2, 9, TODAY));
+        ranking.offer(entry(3, 8, TODAY));
+        ranking.offer(entry(4, 7, TODAY));
+
+        assertEquals(List.of(1L, 2L, 3L), habitIds(ranking.top(10, TODAY)));
+
+        // Habit 2 starts over below habit 4, which the ranking no longer holds
+        ranking.offer(entry(2, 1, TODAY.plusDays(2)));
+
+        assertEquals(List.of(1L, 3L), habitIds(ranking.top(10, TODAY)));
+        assertTrue(ranking.needsRefill(3, TODAY));
+
+        ranking.refill(List.of(entry(1, 10, TODAY), entry(3, 8, TODAY), entry(4, 7, TODAY)), true);
+
+        assertEquals(List.of(1L, 3L, 4L), habitIds(ranking.top(10, TODAY)));
+        assertEquals(3, ranking.size());
+    }
+
+    @Test
+    void shouldOnlyTrustWhatRanksAboveThePartialRefill() {
+        StreakRanking ranking = new StreakRanking(10);
+        ranking.refill(List.of(entry(1, 10, TODAY), entry(2, 9, TODAY)), false);
+        ranking.offer(entry(3, 12, TODAY));
+        ranking.offer(entry(4, 8, TODAY));
+
+        assertEquals(List.of(3L, 1L, 2L), habitIds(ranking.top(10, TODAY)));
+        assertTrue(ranking.needsRefill(4, TODAY));
+    }
+
+    @Test
+    void shouldDropDeletedHabitsAndEndedStreaks_onReconcile() {
+        StreakRanking ranking = new StreakRanking(10);
+        ranking.refill(List.of(entry(1, 10, TODAY), entry(2, 9, TODAY), entry(3, 8, TODAY)), true);
+
+        // Habit 1 is gone, habit 2 was reset elsewhere, habit 3 is unchanged and habit 5's streak has ended
+        ranking.reconcile(Set.of(1L, 2L, 3L, 5L),
+                List.of(entry(2, 1, TODAY), entry(3, 8, TODAY), entry(5, 4, TODAY.minusDays(3))),
+                TODAY);
+
+        assertEquals(List.of(3L, 2L), habitIds(ranking.top(10, TODAY)));
+        assertEquals(2, ranking.size());
+
+        ranking.removeIf(entry -> entry.personId() == 3L);
+        assertEquals(1, ranking.size());
+        ranking.remove(2L);
+        assertEquals(0, ranking.size());
+    }
+
+    // Person id equals habit id, so removeIf can pick habits by owner
+    private static Entry entry(long habitId, int streak, LocalDate lastCompletedOn) {
+        return new Entry(habitId, habitId, streak, lastCompletedOn);
+    }
+
+    private static List<Long> habitIds(List<Entry> entries) {
+        return entries.stream().map(Entry::habitId).toList();
+    }
+}
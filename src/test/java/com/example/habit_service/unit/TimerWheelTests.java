@@ -0,0 +1,70 @@
+package com.example.habit_service.unit;
+
+import com.example.habit_service.util.TimerWheel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimerWheelTests {
+    private static final long START = 1_000_000L;
+
+    @Test
+    void shouldExpireEveryTimerAtItsTick_acrossAllLevels() {
+        // 4 slots, 3 levels: 1 s, 4 s and 16 s slots, 64 s in reach
+        TimerWheel<Long> wheel = new TimerWheel<>(1000, 4, 3, START);
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            long deadline = START + 1 + random.nextLong(62_999);
+            deadlines.add(deadline);
+            wheel.schedule(deadline, deadline);
+        }
+
+        long now = START;
+        int expiredCount = 0;
+        while (now < START + 64_000) {
+            long previous = now;
+            now += 1 + random.nextInt(3_000);
+            for (Long deadline : wheel.advance(now)) {
+                long deadlineTick = Math.ceilDiv(deadline, 1000);
+                assertTrue(deadlineTick <= now / 1000, "expired early: " + deadline + " at " + now);
+                assertTrue(deadlineTick > previous / 1000, "expired late: " + deadline + " at " + now);
+                expiredCount++;
+            }
+        }
+
+        assertEquals(deadlines.size(), expiredCount);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void shouldNotExpireBeforeDeadline_whenDeadlineIsMidTick() {
+        TimerWheel<String> wheel = new TimerWheel<>(1000, 64, 2, START);
+        wheel.schedule("reminder", START + 2_500);
+
+        assertEquals(List.of(), wheel.advance(START + 2_999));
+        assertEquals(List.of("reminder"), wheel.advance(START + 3_000));
+    }
+
+    @Test
+    void shouldExpireOverdueTimer_onNextAdvance() {
+        TimerWheel<String> wheel = new TimerWheel<>(1000, 64, 2, START);
+        wheel.schedule("overdue", START - 60_000);
+
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("overdue"), wheel.advance(START));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void shouldRejectDeadline_beyondHorizon() {
+        TimerWheel<String> wheel = new TimerWheel<>(1000, 4, 2, START);
+
+        assertEquals(16_000, wheel.getHorizonMillis());
+        assertThrows(IllegalArgumentException.class, () -> wheel.schedule("too far", START + 17_000));
+    }
+}
@@ -1,47 +1,69 @@
 package com.example.habit_service.unit;
 
 import com.example.habit_service.dto.UserDeletedEvent;
-import com.example.habit_service.entity.Habit;
-import com.example.habit_service.repository.HabitRepository;
+import com.example.habit_service.repository.DeletedPersonRepository;
+import com.example.habit_service.repository.HabitOwnerVersionRepository;
+import com.example.habit_service.service.HabitReadCache;
+import com.example.habit_service.service.StreakLeaderboard;
 import com.example.habit_service.service.UserDeletionListener;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class UserDeletionListenerTests {
     @Mock
-    private HabitRepository habitRepository;
+    private DeletedPersonRepository deletedPersonRepository;
 
-    @InjectMocks
-    private UserDeletionListener userDeletionListener;
+    @Mock
+    private HabitOwnerVersionRepository habitOwnerVersionRepository;
 
-    @Test
-    void shouldHandleEventAndDeleteHabits() {
-        Long personId = 1L;
-        UserDeletedEvent event = new UserDeletedEvent();
-        event.setPersonId(personId);
+    @Mock
+    private HabitReadCache habitReadCache;
+
+    @Mock
+    private StreakLeaderboard streakLeaderboard;
 
-        Habit habit1 = new Habit();
-        habit1.setId(1L);
-        habit1.setPersonId(personId);
+    private SimpleMeterRegistry meterRegistry;
+    private UserDeletionListener userDeletionListener;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userDeletionListener = new UserDeletionListener(deletedPersonRepository, habitOwnerVersionRepository,
+                habitReadCache, streakLeaderboard, meterRegistry);
+    }
 
-        Habit habit2 = new Habit();
-        habit2.setId(2L);
-        habit2.setPersonId(personId);
+    @Test
+    void shouldMarkUsersDeletedAndHideTheirHabits() {
+        userDeletionListener.handleUserDeleted(List.of(
+                new UserDeletedEvent(1L), new UserDeletedEvent(2L), new UserDeletedEvent(1L)));
 
-        when(habitRepository.findByPersonId(personId)).thenReturn(List.of(habit1, habit2)).thenReturn(List.of());
+        verify(deletedPersonRepository).markDeleted(eq(1L), any());
+        verify(deletedPersonRepository).markDeleted(eq(2L), any());
+        verify(habitOwnerVersionRepository).incrementAll(List.of(1L, 2L));
+        verify(habitReadCache).evictAll(List.of(1L, 2L));
+        verify(streakLeaderboard).removePersons(List.of(1L, 2L));
+        assertEquals(2.0, meterRegistry.get("user.deletion.users").counter().count());
+        assertEquals(1, meterRegistry.get("user.deletion.batch").timer().count());
+    }
 
-        userDeletionListener.handleUserDeleted(event);
+    @Test
+    void shouldSkipMarking_whenBatchHasNoPersonIds() {
+        userDeletionListener.handleUserDeleted(Arrays.asList(new UserDeletedEvent(), null));
 
-        verify(habitRepository, times(2)).findByPersonId(personId);
-        verify(habitRepository).deleteAllByPersonId(personId);
+        verify(deletedPersonRepository, never()).markDeleted(anyLong(), any());
+        verify(habitOwnerVersionRepository, never()).incrementAll(any());
+        assertEquals(2.0, meterRegistry.get("user.deletion.batch.size").summary().totalAmount());
     }
 }